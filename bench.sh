@@ -0,0 +1,17 @@
+#!/bin/bash
+echo "Building benchmarks..."
+
+rm -rf bench-bin
+mkdir -p bench-bin
+
+javac -encoding UTF-8 -d bench-bin src/main/java/com/bankingsystem/*.java src/main/java/com/bankingsystem/*/*.java \
+    src/bench/java/com/bankingsystem/bench/*.java
+
+if [ $? -ne 0 ]; then
+    echo "Compilation failed!"
+    exit 1
+fi
+
+BENCHMARK=${1:-BalanceContentionBenchmark}
+shift
+java -cp bench-bin com.bankingsystem.bench.$BENCHMARK "$@"
@@ -0,0 +1,62 @@
+#!/bin/bash
+# Builds and runs the JMH suite in src/jmh/java.
+# JMH and its two dependencies are fetched once from Maven Central into lib/jmh
+# (or drop the jars there yourself for offline machines), and every jar is checked
+# against its pinned SHA-256 before it goes on the classpath or processor path.
+#
+#   ./jmh.sh                      run every benchmark
+#   ./jmh.sh TransferBenchmark    run benchmarks matching a regex
+#   ./jmh.sh -l                   list benchmarks; any other JMH option passes through
+echo "Building JMH benchmarks..."
+
+JMH_VERSION=1.37
+LIB_DIR=lib/jmh
+MAVEN_CENTRAL=https://repo1.maven.org/maven2
+# Path under Maven Central and SHA-256 of each jar; a jar that does not match is never used
+JARS="org/openjdk/jmh/jmh-core/$JMH_VERSION/jmh-core-$JMH_VERSION.jar dc0eaf2bbf0036a70b60798c785d6e03a9daf06b68b8edb0f1ba9eb3421baeb3
+org/openjdk/jmh/jmh-generator-annprocess/$JMH_VERSION/jmh-generator-annprocess-$JMH_VERSION.jar 6a5604b5b804e0daca1145df1077609321687734a8b49387e49f10557c186c77
+net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar df26cc58f235f477db07f753ba5a3ab243ebe5789d9f89ecf68dd62ea9a66c28
+org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar 1e56d7b058d28b65abd256b8458e3885b674c1d588fa43cd7d1cbb9c7ef2b308"
+
+sha256() {
+    if command -v sha256sum > /dev/null; then
+        sha256sum "$1" | cut -d' ' -f1
+    else
+        shasum -a 256 "$1" | cut -d' ' -f1
+    fi
+}
+
+mkdir -p $LIB_DIR
+CLASSPATH_JARS=
+while read -r jar checksum; do
+    file="$LIB_DIR/$(basename $jar)"
+    if [ ! -f "$file" ]; then
+        echo "Downloading $(basename $jar)..."
+        if ! curl -fsSL -o "$file" "$MAVEN_CENTRAL/$jar"; then
+            rm -f "$file"
+            echo "Could not download $(basename $jar); place it in $LIB_DIR and retry."
+            exit 1
+        fi
+    fi
+    actual=$(sha256 "$file")
+    if [ "$actual" != "$checksum" ]; then
+        echo "Checksum mismatch for $file: expected $checksum, got $actual. Delete it and retry."
+        exit 1
+    fi
+    CLASSPATH_JARS="$CLASSPATH_JARS$file:"
+done <<< "$JARS"
+
+rm -rf jmh-bin
+mkdir -p jmh-bin
+
+# The annotation processor generates the benchmark stubs and META-INF/BenchmarkList
+javac -encoding UTF-8 -cp "$CLASSPATH_JARS" -processorpath "$CLASSPATH_JARS" -d jmh-bin \
+    src/main/java/com/bankingsystem/*.java src/main/java/com/bankingsystem/*/*.java \
+    src/jmh/java/com/bankingsystem/jmh/*.java
+
+if [ $? -ne 0 ]; then
+    echo "Compilation failed!"
+    exit 1
+fi
+
+java -cp "jmh-bin:$CLASSPATH_JARS" org.openjdk.jmh.Main "$@"
@@ -0,0 +1,76 @@
+package com.bankingsystem.bench;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.BalanceStore;
+import com.bankingsystem.model.CurrentAccount;
+import com.bankingsystem.model.MainAccount;
+import com.bankingsystem.model.SavingsAccount;
+
+// Retained heap per account for a main/savings/current mix, and the time for one full balance
+// scan through the Account objects versus through the BalanceStore columns.
+// Usage: AccountFootprintBenchmark [accounts]   (needs a heap of roughly 150 bytes per account)
+public class AccountFootprintBenchmark {
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 3_000_000;
+
+        long before = usedHeap();
+        Account[] accounts = new Account[count];
+        for (int i = 0; i < count; i++) {
+            String accNo = "ACC" + i;
+            switch (i % 3) {
+                case 0:
+                    accounts[i] = new MainAccount(accNo, "Bench User", 10_000);
+                    break;
+                case 1:
+                    accounts[i] = new SavingsAccount(accNo, "Bench User", 10_000);
+                    break;
+                default:
+                    accounts[i] = new CurrentAccount(accNo, "Bench User", 10_000);
+                    break;
+            }
+        }
+        long after = usedHeap();
+        // Exclude the Account[] itself and the account-number strings the caller would hold anyway
+        long referenceArray = 16L + 4L * count;
+        System.out.printf("accounts: %,d%n", count);
+        System.out.printf("retained: %,d bytes (%.1f bytes/account, excluding the %,d-byte holder array)%n",
+                after - before - referenceArray, (after - before - referenceArray) / (double) count, referenceArray);
+
+        long total = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < 10; round++) {
+            total = 0;
+            for (Account account : accounts) {
+                total += account.getBalance();
+            }
+        }
+        long objectScanNanos = (System.nanoTime() - start) / 10;
+        System.out.printf("object scan: %.2f ms (total %,d)%n", objectScanNanos / 1e6, total);
+
+        BalanceStore store = BalanceStore.shared();
+        start = System.nanoTime();
+        for (int round = 0; round < 10; round++) {
+            total = store.sum();
+        }
+        long storeScanNanos = (System.nanoTime() - start) / 10;
+        System.out.printf("column scan: %.2f ms (total %,d, %.1f GB/s of balances)%n",
+                storeScanNanos / 1e6, total, store.size() * 8.0 / storeScanNanos);
+
+        start = System.nanoTime();
+        long savings = 0;
+        for (int round = 0; round < 10; round++) {
+            savings = store.sumOfType(BalanceStore.TYPE_SAVINGS);
+        }
+        System.out.printf("column scan by type: %.2f ms (savings total %,d)%n",
+                (System.nanoTime() - start) / 10 / 1e6, savings);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,82 @@
+package com.bankingsystem.bench;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.MainAccount;
+import com.bankingsystem.model.Money;
+import com.bankingsystem.service.AsyncLogConfig;
+import com.bankingsystem.service.AuditLogReader;
+import com.bankingsystem.service.LogFormat;
+import com.bankingsystem.service.LogRotationConfig;
+import com.bankingsystem.service.LoggingService;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.stream.Stream;
+
+// Deposit and transfer logging as text lines versus binary records, synchronous and async,
+// into one uncompressed segment: events/s on the logging threads, bytes written, and how fast
+// AuditLogReader turns the binary log back into text.
+// Usage: AuditLogFormatBenchmark [events] [accounts]
+public class AuditLogFormatBenchmark {
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int accountCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+        Account[] accounts = new Account[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i] = new MainAccount("ACC" + i, "Bench User", Money.ofRupees(1_000_000));
+        }
+        LogRotationConfig rotation = new LogRotationConfig(0, 0, false, 1);
+        System.out.printf("%-8s %-6s %12s %14s %10s%n", "Format", "Mode", "events/s", "bytes", "bytes/event");
+        for (int round = 0; round < 2; round++) {
+            // The first round is warm-up and is not printed
+            boolean print = round == 1;
+            for (LogFormat format : LogFormat.values()) {
+                for (boolean async : new boolean[] {false, true}) {
+                    Path directory = Files.createTempDirectory("bank-log-format-bench");
+                    long start;
+                    long elapsed;
+                    try (LoggingService logging = new LoggingService(directory, rotation, format,
+                            async ? AsyncLogConfig.defaults() : null, null)) {
+                        start = System.nanoTime();
+                        long amount = Money.ofRupees(10);
+                        for (int i = 0; i < events; i++) {
+                            Account account = accounts[i % accountCount];
+                            if ((i & 1) == 0) {
+                                logging.logDeposit(account, amount, amount * i);
+                            } else {
+                                logging.logTransfer(account, accounts[(i * 7) % accountCount], amount);
+                            }
+                        }
+                        elapsed = System.nanoTime() - start;
+                    }
+                    long bytes = 0;
+                    try (Stream<Path> files = Files.list(directory)) {
+                        for (Path file : (Iterable<Path>) files::iterator) {
+                            if (file.getFileName().toString().startsWith("audit-")) {
+                                bytes += Files.size(file);
+                            }
+                        }
+                    }
+                    if (print) {
+                        System.out.printf("%-8s %-6s %,12.0f %,14d %10.1f%n", format, async ? "async" : "sync",
+                                events * 1e9 / elapsed, bytes, (double) bytes / events);
+                    }
+                    if (print && format == LogFormat.BINARY && !async) {
+                        long decodeStart = System.nanoTime();
+                        long decoded = new AuditLogReader(ZoneId.systemDefault()).print(directory,
+                                OutputStream.nullOutputStream());
+                        long decodeNanos = System.nanoTime() - decodeStart;
+                        System.out.printf("  decoded %,d binary records to text at %,.0f records/s%n", decoded,
+                                decoded * 1e9 / decodeNanos);
+                    }
+                    try (Stream<Path> files = Files.list(directory)) {
+                        files.forEach(file -> file.toFile().delete());
+                    }
+                    Files.delete(directory);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.bankingsystem.bench;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.MainAccount;
+import com.bankingsystem.model.Money;
+import com.bankingsystem.service.AsyncLogConfig;
+import com.bankingsystem.service.AuditLogReader;
+import com.bankingsystem.service.LogFormat;
+import com.bankingsystem.service.LogRotationConfig;
+import com.bankingsystem.service.LoggingService;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Writes an async audit log of deposits and transfers over many gzipped segments, with and
+// without segment indexes, then looks up single accounts through the indexes and compares that
+// with reading the whole log. Activity drifts across the account space over time, as customers
+// come and go, so most accounts appear in only a few segments.
+// Usage: AuditLogIndexBenchmark [events] [accounts] [segmentMegabytes] [text|binary]
+public class AuditLogIndexBenchmark {
+    private static final int LOOKUPS = 200;
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int accountCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        long segmentBytes = (args.length > 2 ? Long.parseLong(args[2]) : 16) << 20;
+        LogFormat format = args.length > 3 ? LogFormat.valueOf(args[3].toUpperCase()) : LogFormat.TEXT;
+
+        Account[] accounts = new Account[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i] = new MainAccount("ACC" + i, "Bench User", Money.ofRupees(1_000_000));
+        }
+        System.out.printf("%,d %s events over %,d accounts, %d MB segments%n", events, format, accountCount,
+                segmentBytes >> 20);
+        write(accounts, events, segmentBytes, format, 0, null);
+        Path directory = Files.createTempDirectory("bank-log-index-bench");
+        write(accounts, events, segmentBytes, format, 64 << 10, directory);
+
+        long indexBytes = 0;
+        long segmentBytesOnDisk = 0;
+        int segments = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".idx")) {
+                    indexBytes += Files.size(file);
+                } else if (name.startsWith("audit-")) {
+                    segmentBytesOnDisk += Files.size(file);
+                    segments++;
+                }
+            }
+        }
+        System.out.printf("on disk: %d segments, %,d bytes; indexes %,d bytes%n", segments, segmentBytesOnDisk,
+                indexBytes);
+
+        AuditLogReader reader = new AuditLogReader(ZoneId.systemDefault());
+        long start = System.nanoTime();
+        long all = reader.print(directory, OutputStream.nullOutputStream());
+        System.out.printf("full read:  %.0f ms (%,d records decoded)%n", (System.nanoTime() - start) / 1e6,
+                all == 0 ? events : all);
+
+        Random random = new Random(42);
+        long found = 0;
+        long blocks = 0;
+        long skipped = 0;
+        long bytes = 0;
+        long[] nanos = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String accountId = accounts[random.nextInt(accountCount)].getAccountId();
+            start = System.nanoTime();
+            found += reader.printAccount(directory, accountId, OutputStream.nullOutputStream());
+            nanos[i] = System.nanoTime() - start;
+            blocks += reader.getBlocksRead();
+            skipped += reader.getSegmentsSkipped();
+            bytes += reader.getBytesRead();
+        }
+        java.util.Arrays.sort(nanos);
+        System.out.printf("lookup:     median %.1f ms, p99 %.1f ms; per lookup %.1f records, %.1f blocks"
+                + " (%,.0f bytes), %.1f of %d segments skipped%n", nanos[LOOKUPS / 2] / 1e6,
+                nanos[LOOKUPS * 99 / 100] / 1e6, (double) found / LOOKUPS, (double) blocks / LOOKUPS,
+                (double) bytes / LOOKUPS, (double) skipped / LOOKUPS, segments);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.delete(directory);
+    }
+
+    // Without a directory, writes to a scratch one and reports only the write rate
+    private static void write(Account[] accounts, int events, long segmentBytes, LogFormat format, int indexBlockBytes,
+            Path directory) throws Exception {
+        Path target = directory != null ? directory : Files.createTempDirectory("bank-log-index-bench");
+        LogRotationConfig rotation = new LogRotationConfig(segmentBytes, 0, true, 1, indexBlockBytes, 10);
+        Random random = new Random(7);
+        int window = Math.max(1, accounts.length / 20);
+        long amount = Money.ofRupees(10);
+        long start = System.nanoTime();
+        try (LoggingService logging = new LoggingService(target, rotation, format, AsyncLogConfig.defaults(),
+                null)) {
+            for (int i = 0; i < events; i++) {
+                // A window of 5% of the accounts slides across the account space
+                int base = (int) ((long) i * (accounts.length - window) / events);
+                Account account = accounts[base + random.nextInt(window)];
+                if ((i & 3) != 0) {
+                    logging.logDeposit(account, amount, amount * i);
+                } else {
+                    logging.logTransfer(account, accounts[base + random.nextInt(window)], amount);
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("write %-9s %,.0f events/s (including compression at close)%n",
+                indexBlockBytes > 0 ? "indexed" : "unindexed", events * 1e9 / elapsed);
+        if (directory == null) {
+            try (Stream<Path> files = Files.list(target)) {
+                files.forEach(file -> file.toFile().delete());
+            }
+            Files.delete(target);
+        }
+    }
+}
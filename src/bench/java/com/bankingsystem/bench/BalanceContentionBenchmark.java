@@ -0,0 +1,74 @@
+package com.bankingsystem.bench;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.MainAccount;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+// Measures deposit/withdraw throughput as thread count grows, in two shapes:
+//   shared   - every thread hammers the same account (worst-case CAS contention)
+//   disjoint - each thread owns its own account (should scale with cores)
+// Usage: BalanceContentionBenchmark [maxThreads] [millisPerRun]
+public class BalanceContentionBenchmark {
+    private static final int INITIAL_BALANCE = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+
+        // No event listener is installed, so deposit/withdraw do no console I/O and the
+        // benchmark measures balance mutation alone
+        PrintStream console = System.out;
+
+        console.printf("%-8s %-8s %15s %10s%n", "shape", "threads", "ops/sec", "balanced");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            run(console, "shared", threads, millis, true);
+            run(console, "disjoint", threads, millis, false);
+        }
+    }
+
+    private static void run(PrintStream console, String shape, int threads, long millis, boolean shared)
+            throws InterruptedException {
+        Account[] accounts = new Account[threads];
+        Account sharedAccount = new MainAccount("BENCH0", "Bench", INITIAL_BALANCE);
+        for (int i = 0; i < threads; i++) {
+            accounts[i] = shared ? sharedAccount : new MainAccount("BENCH" + (i + 1), "Bench", INITIAL_BALANCE);
+        }
+
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        for (int i = 0; i < threads; i++) {
+            Account account = accounts[i];
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    long ops = 0;
+                    while ((ops & 1023) != 0 || System.nanoTime() < deadline) {
+                        account.deposit(7);
+                        account.withdraw(7);
+                        ops += 2;
+                    }
+                    operations.add(ops);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+        start.countDown();
+        done.await();
+
+        // Every deposit is paired with an equal withdrawal, so lost updates show up as drift
+        boolean balanced = true;
+        for (Account account : accounts) {
+            balanced &= account.getBalance() == INITIAL_BALANCE;
+        }
+        long opsPerSec = operations.sum() * 1000L / millis;
+        console.printf("%-8s %-8d %,15d %10s%n", shape, threads, opsPerSec, balanced);
+    }
+}
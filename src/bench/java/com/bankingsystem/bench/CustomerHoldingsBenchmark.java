@@ -0,0 +1,119 @@
+package com.bankingsystem.bench;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.CurrentAccount;
+import com.bankingsystem.model.MainAccount;
+import com.bankingsystem.model.Money;
+import com.bankingsystem.model.SavingsAccount;
+import com.bankingsystem.service.AccountRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Customer holdings rollups. First the write overhead: deposit + withdraw pairs on accounts
+// outside any rollup and on registered ones. Then consistency: writers transfer money from the
+// main accounts of a few customers to their savings and current accounts while readers check each
+// customer's holdings, which must never differ from what the customer started with; and the same
+// check done by summing the three balances, which can catch a transfer half-way.
+// Usage: CustomerHoldingsBenchmark [writers] [readers] [customers] [millisPerRun]
+public class CustomerHoldingsBenchmark {
+    private static final long OPENING_BALANCE = Money.ofRupees(100_000);
+    // Enough for the main accounts to keep paying out for the whole run
+    private static final long MAIN_OPENING_BALANCE = Money.ofRupees(1_000_000_000L);
+
+    public static void main(String[] args) throws Exception {
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int customers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long millis = args.length > 3 ? Long.parseLong(args[3]) : 2000;
+
+        Account loose = new MainAccount("HBENCH-LOOSE" + System.nanoTime(), "Bench", OPENING_BALANCE);
+        AccountRegistry registry = new AccountRegistry();
+        Account joined = new MainAccount("HBENCH-JOINED", "Bench", OPENING_BALANCE);
+        registry.register(joined);
+        registry.register(new SavingsAccount("HBENCH-JOINED", "Bench", OPENING_BALANCE));
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("deposit + withdraw, no rollup:  %6.1f ns/pair%n", pairs(loose, millis));
+            System.out.printf("deposit + withdraw, in rollup:  %6.1f ns/pair%n", pairs(joined, millis));
+        }
+
+        Account[][] accounts = new Account[customers][];
+        for (int c = 0; c < customers; c++) {
+            String accNo = "HBENCH" + c;
+            accounts[c] = new Account[] {new MainAccount(accNo, "Bench", MAIN_OPENING_BALANCE),
+                    new SavingsAccount(accNo, "Bench", OPENING_BALANCE),
+                    new CurrentAccount(accNo, "Bench", OPENING_BALANCE)};
+            for (Account account : accounts[c]) {
+                registry.register(account);
+            }
+        }
+        for (boolean rollup : new boolean[] {true, false}) {
+            consistency(accounts, writers, readers, millis, rollup);
+        }
+    }
+
+    private static double pairs(Account account, long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        long start = System.nanoTime();
+        long ops = 0;
+        while ((ops & 1023) != 0 || System.nanoTime() < deadline) {
+            account.applyDeposit(7);
+            account.applyWithdrawal(7);
+            ops++;
+        }
+        return (double) (System.nanoTime() - start) / ops;
+    }
+
+    private static void consistency(Account[][] accounts, int writers, int readers, long millis, boolean rollup)
+            throws InterruptedException {
+        long expected = MAIN_OPENING_BALANCE + 2 * OPENING_BALANCE;
+        LongAdder transfers = new LongAdder();
+        LongAdder reads = new LongAdder();
+        LongAdder readNanos = new LongAdder();
+        LongAdder mismatches = new LongAdder();
+        CountDownLatch done = new CountDownLatch(writers + readers);
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        for (int t = 0; t < writers; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while (System.nanoTime() < deadline) {
+                    Account[] customer = accounts[random.nextInt(accounts.length)];
+                    ((MainAccount) customer[0]).applyTransfer(customer[1 + random.nextInt(2)],
+                            1 + random.nextInt(10_000));
+                    count++;
+                }
+                transfers.add(count);
+                done.countDown();
+            }).start();
+        }
+        for (int t = 0; t < readers; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                long bad = 0;
+                long nanos = 0;
+                while (System.nanoTime() < deadline) {
+                    Account[] customer = accounts[random.nextInt(accounts.length)];
+                    long start = System.nanoTime();
+                    long total = rollup ? customer[0].getCustomerHoldings()
+                            : customer[0].getBalance() + customer[1].getBalance() + customer[2].getBalance();
+                    nanos += System.nanoTime() - start;
+                    if (total != expected) {
+                        bad++;
+                    }
+                    count++;
+                }
+                reads.add(count);
+                readNanos.add(nanos);
+                mismatches.add(bad);
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        System.out.printf("%-16s %,12d transfers/s %,14d reads/s %8.1f ns/read %,12d reads off the total%n",
+                rollup ? "holdings rollup" : "sum of balances", transfers.sum() * 1000 / millis,
+                reads.sum() * 1000 / millis, (double) readNanos.sum() / Math.max(1, reads.sum()),
+                mismatches.sum());
+    }
+}
@@ -0,0 +1,155 @@
+package com.bankingsystem.bench;
+
+import com.bankingsystem.http.BankHttpServer;
+import com.bankingsystem.metrics.LatencyHistogram;
+import com.bankingsystem.persistence.TransactionJournal;
+import com.bankingsystem.service.AccountRegistry;
+import com.bankingsystem.service.AccountService;
+import com.bankingsystem.service.LoggingService;
+import com.bankingsystem.service.TransactionService;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Closed-loop load test of the HTTP API: `clients` keep-alive connections each send deposit
+// requests back to back for the run duration, against an in-process server using virtual
+// threads and then a 200-thread platform pool. The server journals and logs synchronously,
+// as Main runs it by default. Prints throughput and p50/p99/p999/max latency per mode.
+// Virtual threads need JDK 21+; on older JDKs only the platform row is printed.
+// Usage: HttpLoadBenchmark [clients] [millisPerRun] [accounts]
+public class HttpLoadBenchmark {
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 5000;
+        int accounts = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        if (System.getProperty("bank.encryption.key") == null) {
+            System.setProperty("bank.encryption.key", "bench-key");
+            System.setProperty("bank.encryption.salt", "bench-salt");
+        }
+
+        System.out.printf("%-9s %8s %12s %10s %10s %10s %10s %8s%n",
+                "threads", "clients", "requests/s", "p50(us)", "p99(us)", "p999(us)", "max(us)", "errors");
+        for (BankHttpServer.ThreadMode mode : BankHttpServer.ThreadMode.values()) {
+            run(mode, clients, millis, accounts);
+        }
+    }
+
+    private static void run(BankHttpServer.ThreadMode mode, int clients, long millis, int accountCount)
+            throws Exception {
+        Path dataDir = Files.createTempDirectory("bank-http-bench");
+        File logFile = File.createTempFile("bank-http-bench", ".log");
+        try (LoggingService loggingService = new LoggingService(logFile.getPath());
+                TransactionJournal journal = TransactionJournal.open(dataDir, 100, false)) {
+            AccountRegistry registry = new AccountRegistry(accountCount);
+            AccountService accountService = new AccountService(loggingService, registry, journal);
+            TransactionService transactionService = new TransactionService(loggingService, registry, journal);
+            for (int i = 0; i < accountCount; i++) {
+                accountService.createMainAccount("HTTP" + i, "Bench", 1_000_000, null, -1);
+            }
+
+            try (BankHttpServer server = new BankHttpServer(new InetSocketAddress("127.0.0.1", 0), accountService,
+                    transactionService, mode, BankHttpServer.DEFAULT_PLATFORM_THREADS)) {
+                if (mode == BankHttpServer.ThreadMode.VIRTUAL && !server.isUsingVirtualThreads()) {
+                    System.out.printf("%-9s virtual threads need JDK 21+; skipped%n", "virtual");
+                    return;
+                }
+                server.start();
+                int port = server.getAddress().getPort();
+
+                LatencyHistogram latency = new LatencyHistogram();
+                LongAdder requests = new LongAdder();
+                LongAdder errors = new LongAdder();
+                CountDownLatch done = new CountDownLatch(clients);
+                long deadline = System.nanoTime() + millis * 1_000_000L;
+                for (int c = 0; c < clients; c++) {
+                    Thread client = new Thread(() -> {
+                        try (Socket socket = new Socket("127.0.0.1", port)) {
+                            socket.setTcpNoDelay(true);
+                            OutputStream out = socket.getOutputStream();
+                            InputStream in = new BufferedInputStream(socket.getInputStream());
+                            while (System.nanoTime() < deadline) {
+                                int account = ThreadLocalRandom.current().nextInt(accountCount);
+                                long start = System.nanoTime();
+                                out.write(depositRequest(account));
+                                out.flush();
+                                if (readResponse(in) == 200) {
+                                    requests.increment();
+                                } else {
+                                    errors.increment();
+                                }
+                                latency.record(System.nanoTime() - start);
+                            }
+                        } catch (IOException e) {
+                            errors.increment();
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                    client.setDaemon(true);
+                    client.start();
+                }
+                done.await();
+
+                LatencyHistogram.Snapshot snapshot = latency.snapshot();
+                System.out.printf("%-9s %8d %,12d %10.1f %10.1f %10.1f %10.1f %8d%n",
+                        server.isUsingVirtualThreads() ? "virtual" : "platform", clients,
+                        requests.sum() * 1000L / millis,
+                        snapshot.valueAtQuantile(0.50) / 1000.0, snapshot.valueAtQuantile(0.99) / 1000.0,
+                        snapshot.valueAtQuantile(0.999) / 1000.0, snapshot.getMaxNanos() / 1000.0, errors.sum());
+            }
+        } finally {
+            logFile.delete();
+            try (var files = Files.list(dataDir)) {
+                files.forEach(f -> f.toFile().delete());
+            }
+            Files.deleteIfExists(dataDir);
+        }
+    }
+
+    private static byte[] depositRequest(int account) {
+        String body = "{\"amount\":1}";
+        return ("POST /accounts/MAINHTTP" + account + "/deposit HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: " + body.length() + "\r\n\r\n"
+                + body).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // Reads one response on a keep-alive connection; returns the status code
+    private static int readResponse(InputStream in) throws IOException {
+        String statusLine = readLine(in);
+        int contentLength = 0;
+        String header;
+        while (!(header = readLine(in)).isEmpty()) {
+            if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                contentLength = Integer.parseInt(header.substring(15).trim());
+            }
+        }
+        in.readNBytes(contentLength);
+        return Integer.parseInt(statusLine.substring(9, 12));
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new IOException("Connection closed.");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package com.bankingsystem.bench;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.MainAccount;
+import com.bankingsystem.model.Money;
+import com.bankingsystem.service.AccountRegistry;
+import com.bankingsystem.service.AsyncLogConfig;
+import com.bankingsystem.service.IdempotencyCache;
+import com.bankingsystem.service.LogFormat;
+import com.bankingsystem.service.LogRotationConfig;
+import com.bankingsystem.service.LoggingService;
+import com.bankingsystem.service.TransactionOperation;
+import com.bankingsystem.service.TransactionResult;
+import com.bankingsystem.service.TransactionService;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// Deposits from N threads with and without idempotency keys. Keyed rounds draw fresh keys from a
+// shared counter and, for retry% of submissions, resubmit one of the last few hundred keys - often
+// one another thread is still applying. Every key is applied exactly once, so the money deposited
+// must equal keys issued x amount, and heap after each round must stay flat once the cache is full.
+// Usage: IdempotencyBenchmark [keysPerRound] [rounds] [threads] [retry %] [capacity]
+public class IdempotencyBenchmark {
+    private static final int ACCOUNTS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int keysPerRound = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int retryPercent = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int capacity = args.length > 4 ? Integer.parseInt(args[4]) : IdempotencyCache.DEFAULT_CAPACITY;
+
+        Path directory = Files.createTempDirectory("bank-idempotency-bench");
+        AccountRegistry registry = new AccountRegistry(ACCOUNTS);
+        Account[] accounts = new Account[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = new MainAccount("ACC" + i, "Bench User", 0);
+            registry.register(accounts[i]);
+        }
+        IdempotencyCache cache = new IdempotencyCache(capacity, IdempotencyCache.DEFAULT_TTL_MILLIS);
+        long amount = Money.ofRupees(1);
+        System.out.printf("%,d keys per round, %d threads, %d%% retries, capacity %,d%n", keysPerRound, threads,
+                retryPercent, capacity);
+
+        try (LoggingService logging = new LoggingService(directory, LogRotationConfig.defaults(), LogFormat.BINARY,
+                AsyncLogConfig.defaults(), null)) {
+            TransactionService service = new TransactionService(logging, registry, null, null, cache);
+
+            long plain = run(threads, keysPerRound, () -> {
+                int n = ThreadLocalRandom.current().nextInt(ACCOUNTS);
+                return service.execute(TransactionOperation.deposit(accounts[n].getAccountId(), amount));
+            });
+            System.out.printf("no keys:  %,12d deposits/s%n", keysPerRound * 1_000_000_000L / plain);
+
+            AtomicLong nextKey = new AtomicLong();
+            LongAdder replays = new LongAdder();
+            for (int round = 1; round <= rounds; round++) {
+                long nanos = run(threads, keysPerRound, () -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long key;
+                    long issued = nextKey.get();
+                    if (random.nextInt(100) < retryPercent && issued > 256) {
+                        key = issued - 1 - random.nextInt(256);
+                    } else {
+                        key = nextKey.getAndIncrement();
+                    }
+                    TransactionResult result = service.execute(TransactionOperation
+                            .deposit(accounts[(int) (key % ACCOUNTS)].getAccountId(), amount)
+                            .withIdempotencyKey("key-" + key));
+                    if (result.isReplayed()) {
+                        replays.increment();
+                    }
+                    return result;
+                });
+                System.out.printf("round %d:  %,12d deposits/s, %,d keys issued, %,d replayed, %,d cached,"
+                        + " %,d evicted, heap after GC %.1f MB%n", round, keysPerRound * 1_000_000_000L / nanos,
+                        nextKey.get(), replays.sum(), cache.size(), cache.getEvictions(),
+                        usedHeap() / 1048576.0);
+            }
+
+            long deposited = -(long) keysPerRound * amount;
+            for (Account account : accounts) {
+                deposited += account.getBalance();
+            }
+            System.out.printf("keyed deposits applied once each: %s%n", deposited == nextKey.get() * amount);
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.delete(directory);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private interface Submission {
+        TransactionResult submit();
+    }
+
+    // Nanoseconds for threads to make total submissions between them
+    private static long run(int threads, int total, Submission submission) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int share = total / threads + (t < total % threads ? 1 : 0);
+            new Thread(() -> {
+                for (int i = 0; i < share; i++) {
+                    if (!submission.submit().isSuccess()) {
+                        throw new IllegalStateException("Deposit failed.");
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,87 @@
+package com.bankingsystem.bench;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.CurrentAccount;
+import com.bankingsystem.model.InterestBearing;
+import com.bankingsystem.model.MainAccount;
+import com.bankingsystem.model.Money;
+import com.bankingsystem.model.SavingsAccount;
+import com.bankingsystem.persistence.TransactionJournal;
+import com.bankingsystem.service.AccountRegistry;
+import com.bankingsystem.service.InterestEngine;
+import com.bankingsystem.service.InterestRunSummary;
+import com.bankingsystem.service.LoggingService;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+// Nightly interest over a main/savings/current mix (savings balances straddle the ₹2000
+// minimum), with a journal and a synchronous audit log. The first run re-evaluates every
+// account; then a fraction of accounts is touched and the next night's run re-evaluates only
+// those. For comparison, the cost of re-evaluating every account from the registry each night.
+// Usage: InterestRunBenchmark [accounts] [accounts touched per day]
+public class InterestRunBenchmark {
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 3_000_000;
+        int touched = args.length > 1 ? Integer.parseInt(args[1]) : accountCount / 100;
+
+        Path directory = Files.createTempDirectory("bank-interest-bench");
+        AccountRegistry registry = new AccountRegistry(accountCount);
+        Account[] accounts = new Account[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            String accNo = "ACC" + i;
+            switch (i % 3) {
+                case 0:
+                    accounts[i] = new MainAccount(accNo, "Bench User", Money.ofRupees(10_000));
+                    break;
+                case 1:
+                    accounts[i] = new SavingsAccount(accNo, "Bench User", Money.ofRupees(1_000 + i % 4_000));
+                    break;
+                default:
+                    accounts[i] = new CurrentAccount(accNo, "Bench User", Money.ofRupees(10_000));
+                    break;
+            }
+            registry.register(accounts[i]);
+        }
+
+        LocalDate day = LocalDate.of(2026, 1, 1);
+        try (LoggingService logging = new LoggingService(directory.resolve("audit.log").toString());
+                TransactionJournal journal = TransactionJournal.open(directory, 100, false)) {
+            InterestEngine engine = new InterestEngine(logging, registry, journal, null, null);
+            report("first night (every account new)", engine.run(day));
+
+            SplittableRandom random = new SplittableRandom(42);
+            for (int night = 1; night <= 3; night++) {
+                for (int i = 0; i < touched; i++) {
+                    Account account = accounts[random.nextInt(accountCount)];
+                    if (random.nextBoolean()) {
+                        account.applyDeposit(Money.ofRupees(500));
+                    } else if (account.getBalance() >= Money.ofRupees(500)) {
+                        account.applyWithdrawal(Money.ofRupees(500));
+                    }
+                }
+                report("night " + (night + 1) + " (" + String.format("%,d", touched) + " touched)",
+                        engine.run(day.plusDays(night)));
+            }
+
+            // What keeping the eligible set current costs without change tracking
+            long start = System.nanoTime();
+            long eligible = 0;
+            for (Account account : registry.accounts()) {
+                if (account instanceof InterestBearing
+                        && account.getBalance() >= ((InterestBearing) account).getMinimumBalance()) {
+                    eligible++;
+                }
+            }
+            System.out.printf("full re-evaluation from the registry: %,d eligible of %,d in %.1f ms%n", eligible,
+                    accountCount, (System.nanoTime() - start) / 1e6);
+        }
+    }
+
+    private static void report(String label, InterestRunSummary summary) {
+        System.out.printf("%-32s rechecked %,9d  eligible %,9d  credited %,9d (₹%s)  %.3f s%n", label,
+                summary.getAccountsRechecked(), summary.getEligibleAccounts(), summary.getAccountsCredited(),
+                Money.format(summary.getInterestCredited()), summary.getElapsedNanos() / 1e9);
+    }
+}
@@ -0,0 +1,85 @@
+package com.bankingsystem.bench;
+
+import com.bankingsystem.persistence.JournalCheckpointer;
+import com.bankingsystem.persistence.JournalReplayer;
+import com.bankingsystem.persistence.TransactionJournal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Writes a synthetic journal (account creations followed by a mix of deposits, withdrawals,
+// tax payments and transfers), then times a full replay of it, a checkpoint, and a startup
+// from the resulting snapshot.
+// Usage: JournalReplayBenchmark [accounts] [records]
+public class JournalReplayBenchmark {
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long recordCount = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000L;
+
+        Path directory = Files.createTempDirectory("bank-journal-bench");
+        String[] ids = new String[accountCount];
+        long writeStart = System.nanoTime();
+        try (TransactionJournal journal = TransactionJournal.open(directory, 0, false)) {
+            for (int i = 0; i < accountCount; i++) {
+                ids[i] = "MAIN" + i;
+                journal.appendAccountCreated(ids[i], "Bench", 1_000_000, null, "Not set");
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (long r = 0; r < recordCount; r++) {
+                String id = ids[random.nextInt(accountCount)];
+                switch ((int) (r & 3)) {
+                    case 0:
+                        journal.appendDeposit(id, 100);
+                        break;
+                    case 1:
+                        journal.appendWithdrawal(id, 50);
+                        break;
+                    case 2:
+                        journal.appendTaxPayment(id, 10);
+                        break;
+                    default:
+                        journal.appendTransfer(id, ids[random.nextInt(accountCount)], 25);
+                }
+            }
+        }
+        long writeNanos = System.nanoTime() - writeStart;
+
+        long bytes = 0;
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                bytes += Files.size(file);
+            }
+        }
+
+        long replayStart = System.nanoTime();
+        JournalReplayer replayer = JournalReplayer.replayDirectory(directory);
+        long replayNanos = System.nanoTime() - replayStart;
+
+        // Fold everything into a snapshot, then time a start that only has to load it
+        long checkpointStart = System.nanoTime();
+        try (TransactionJournal journal = TransactionJournal.open(directory, 0, false)) {
+            // close() takes the checkpoint
+            new JournalCheckpointer(journal, 0).close();
+        }
+        long checkpointNanos = System.nanoTime() - checkpointStart;
+        long snapshotStart = System.nanoTime();
+        JournalReplayer fromSnapshot = JournalReplayer.replayDirectory(directory);
+        long snapshotNanos = System.nanoTime() - snapshotStart;
+
+        System.out.printf("journal: %,d records, %,d MB%n", replayer.getRecordsApplied(), bytes >> 20);
+        System.out.printf("write:   %,d ms (%,d records/sec)%n", writeNanos / 1_000_000,
+                replayer.getRecordsApplied() * 1_000_000_000L / writeNanos);
+        System.out.printf("replay:  %,d ms (%,d records/sec, %,d accounts)%n", replayNanos / 1_000_000,
+                replayer.getRecordsApplied() * 1_000_000_000L / replayNanos, replayer.getAccounts().size());
+        System.out.printf("checkpoint: %,d ms%n", checkpointNanos / 1_000_000);
+        System.out.printf("startup from snapshot: %,d ms (%,d accounts)%n", snapshotNanos / 1_000_000,
+                fromSnapshot.getAccounts().size());
+
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,92 @@
+package com.bankingsystem.bench;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.MainAccount;
+import com.bankingsystem.model.Money;
+import com.bankingsystem.service.LogRotationConfig;
+import com.bankingsystem.service.LoggingService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+// Synchronous deposit logging into one file versus rotated segments gzipped in the background,
+// at the fastest and the default compression level. Reports throughput, the slowest log calls
+// (a roll happens on the logging thread) and the bytes left on disk after close.
+// Usage: LogRotationBenchmark [events] [segmentMegabytes]
+public class LogRotationBenchmark {
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        long segmentBytes = (args.length > 1 ? Long.parseLong(args[1]) : 16) << 20;
+
+        Account account = new MainAccount("BENCHLOG", "Bench User", Money.ofRupees(1_000_000));
+        System.out.printf("%-16s %12s %10s %10s %10s %14s %14s%n", "Mode", "events/s", "p99 us", "p99.9 us",
+                "max us", "written", "on disk");
+        for (int round = 0; round < 2; round++) {
+            // The first round is warm-up and is not printed
+            boolean print = round == 1;
+            Path single = Files.createTempDirectory("bank-log-bench");
+            run(print, "single file", events, account, single,
+                    () -> new LoggingService(single.resolve("audit.log").toString()));
+            for (int level : new int[] {1, 6}) {
+                Path segmented = Files.createTempDirectory("bank-log-bench");
+                LogRotationConfig rotation = new LogRotationConfig(segmentBytes, 0, true, level);
+                run(print, "segments gzip " + level, events, account, segmented,
+                        () -> new LoggingService(segmented, rotation, null, null));
+            }
+        }
+    }
+
+    private interface Opener {
+        LoggingService open() throws IOException;
+    }
+
+    private static void run(boolean print, String mode, int events, Account account, Path directory, Opener opener)
+            throws IOException {
+        long[] latencies = new long[events];
+        long amount = Money.ofRupees(10);
+        long start;
+        long elapsed;
+        try (LoggingService logging = opener.open()) {
+            start = System.nanoTime();
+            long previous = start;
+            for (int i = 0; i < events; i++) {
+                logging.logDeposit(account, amount, amount * i);
+                long now = System.nanoTime();
+                latencies[i] = now - previous;
+                previous = now;
+            }
+            elapsed = System.nanoTime() - start;
+        }
+        long written = 0;
+        long onDisk = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                onDisk += Files.size(file);
+            }
+        }
+        // The single file is the written size; gzip sizes come from the manifest's raw column
+        Path manifest = directory.resolve("manifest.tsv");
+        if (Files.exists(manifest)) {
+            for (String line : Files.readAllLines(manifest)) {
+                String[] fields = line.split("\t");
+                if (!line.startsWith("#") && fields.length > 5 && !fields[5].equals("-")) {
+                    written += Long.parseLong(fields[5]);
+                }
+            }
+        } else {
+            written = onDisk;
+        }
+        Arrays.sort(latencies);
+        if (print) {
+            System.out.printf("%-16s %,12.0f %10.1f %10.1f %,10.0f %,14d %,14d%n", mode, events * 1e9 / elapsed,
+                    latencies[(int) (events * 0.99)] / 1e3, latencies[(int) (events * 0.999)] / 1e3,
+                    latencies[events - 1] / 1e3, written, onDisk);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.delete(directory);
+    }
+}
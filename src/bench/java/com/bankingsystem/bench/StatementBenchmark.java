@@ -0,0 +1,103 @@
+package com.bankingsystem.bench;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.MainAccount;
+import com.bankingsystem.model.Money;
+import com.bankingsystem.service.AsyncLogConfig;
+import com.bankingsystem.service.AuditLogReader;
+import com.bankingsystem.service.LogFormat;
+import com.bankingsystem.service.LogRotationConfig;
+import com.bankingsystem.service.LoggingService;
+import com.bankingsystem.service.StatementPage;
+import com.bankingsystem.service.StatementReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Writes an audit log in which one account has a very long history among many ordinary ones,
+// then pages through that account's statement from start to end and times each page, against
+// reading the whole history at once with AuditLogReader.printAccount.
+// Usage: StatementBenchmark [events] [accounts] [hot account share %] [page size] [text|binary]
+public class StatementBenchmark {
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int accountCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int hotPercent = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int pageSize = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        LogFormat format = args.length > 4 ? LogFormat.valueOf(args[4].toUpperCase()) : LogFormat.TEXT;
+
+        Account[] accounts = new Account[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i] = new MainAccount("ACC" + i, "Bench User", Money.ofRupees(1_000_000));
+        }
+        Account hot = accounts[0];
+        Path directory = Files.createTempDirectory("bank-statement-bench");
+        LogRotationConfig rotation = new LogRotationConfig(16L << 20, 0, true, 1, 64 << 10, 10);
+        Random random = new Random(7);
+        long amount = Money.ofRupees(10);
+        try (LoggingService logging = new LoggingService(directory, rotation, format, AsyncLogConfig.defaults(),
+                null)) {
+            for (int i = 0; i < events; i++) {
+                Account account = random.nextInt(100) < hotPercent ? hot
+                        : accounts[1 + random.nextInt(accountCount - 1)];
+                if ((i & 3) != 0) {
+                    logging.logDeposit(account, amount, amount * i);
+                } else {
+                    logging.logTransfer(account, accounts[1 + random.nextInt(accountCount - 1)], amount);
+                }
+            }
+        }
+        System.out.printf("%,d %s events over %,d accounts, %d%% for %s%n", events, format, accountCount, hotPercent,
+                hot.getAccountId());
+
+        StatementReader statements = new StatementReader(directory, ZoneId.systemDefault());
+        // Warm up on one full walk, then time the second
+        walk(statements, hot.getAccountId(), pageSize, null);
+        long[] pageNanos = new long[events / pageSize + 2];
+        long start = System.nanoTime();
+        int[] counts = walk(statements, hot.getAccountId(), pageSize, pageNanos);
+        long walkNanos = System.nanoTime() - start;
+        long[] sorted = Arrays.copyOf(pageNanos, counts[0]);
+        Arrays.sort(sorted);
+        System.out.printf("statement:  %,d entries in %,d pages of %d; per page median %.2f ms, p99 %.2f ms,"
+                + " max %.2f ms; first page %.2f ms, last page %.2f ms; whole walk %.0f ms%n", counts[1], counts[0],
+                pageSize, sorted[sorted.length / 2] / 1e6, sorted[sorted.length * 99 / 100] / 1e6,
+                sorted[sorted.length - 1] / 1e6, pageNanos[0] / 1e6, pageNanos[counts[0] - 1] / 1e6,
+                walkNanos / 1e6);
+
+        AuditLogReader reader = new AuditLogReader(ZoneId.systemDefault());
+        reader.printAccount(directory, hot.getAccountId(), OutputStream.nullOutputStream());
+        start = System.nanoTime();
+        long found = reader.printAccount(directory, hot.getAccountId(), OutputStream.nullOutputStream());
+        System.out.printf("full read:  %,d records in %.0f ms (printAccount)%n", found,
+                (System.nanoTime() - start) / 1e6);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.delete(directory);
+    }
+
+    // Returns {pages, entries}; records each page's time when pageNanos is given
+    private static int[] walk(StatementReader statements, String accountId, int pageSize, long[] pageNanos)
+            throws Exception {
+        int pages = 0;
+        int entries = 0;
+        String cursor = null;
+        do {
+            long start = System.nanoTime();
+            StatementPage page = statements.read(accountId, null, null, cursor, pageSize);
+            if (pageNanos != null) {
+                pageNanos[pages] = System.nanoTime() - start;
+            }
+            pages++;
+            entries += page.getEntries().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return new int[] {pages, entries};
+    }
+}
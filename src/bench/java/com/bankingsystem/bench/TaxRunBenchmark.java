@@ -0,0 +1,69 @@
+package com.bankingsystem.bench;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.CurrentAccount;
+import com.bankingsystem.model.MainAccount;
+import com.bankingsystem.model.Money;
+import com.bankingsystem.model.SavingsAccount;
+import com.bankingsystem.persistence.TransactionJournal;
+import com.bankingsystem.service.AccountRegistry;
+import com.bankingsystem.service.LoggingService;
+import com.bankingsystem.service.TaxRunSummary;
+import com.bankingsystem.service.TaxRunner;
+import com.bankingsystem.service.TransactionOperation;
+import com.bankingsystem.service.TransactionService;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// End-of-day tax over a main/savings/current mix, with a journal and a synchronous audit log:
+// first the per-account path (a PAY_TAX batch through TransactionService, one journal append
+// and one log flush per account) on a sample, then TaxRunner over every account.
+// Usage: TaxRunBenchmark [accounts] [per-account sample]
+public class TaxRunBenchmark {
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 3_000_000;
+        int sampleCount = Math.min(accountCount, args.length > 1 ? Integer.parseInt(args[1]) : 100_000);
+
+        Path directory = Files.createTempDirectory("bank-tax-bench");
+        AccountRegistry registry = new AccountRegistry(accountCount);
+        List<TransactionOperation> sample = new ArrayList<>(sampleCount);
+        for (int i = 0; i < accountCount; i++) {
+            String accNo = "ACC" + i;
+            long balance = Money.ofRupees(10_000 + i % 1000);
+            switch (i % 3) {
+                case 0:
+                    registry.register(new MainAccount(accNo, "Bench User", balance));
+                    break;
+                case 1:
+                    registry.register(new SavingsAccount(accNo, "Bench User", balance));
+                    break;
+                default:
+                    registry.register(new CurrentAccount(accNo, "Bench User", balance));
+                    break;
+            }
+        }
+        for (Account account : registry.accounts()) {
+            if (sample.size() == sampleCount) {
+                break;
+            }
+            sample.add(TransactionOperation.payTax(account.getAccountId()));
+        }
+
+        try (LoggingService logging = new LoggingService(directory.resolve("audit.log").toString());
+                TransactionJournal journal = TransactionJournal.open(directory, 100, false)) {
+            TransactionService transactions = new TransactionService(logging, registry, journal);
+            long start = System.nanoTime();
+            transactions.processBatch(sample);
+            long perAccountNanos = System.nanoTime() - start;
+            System.out.printf("per-account PAY_TAX: %,d accounts in %.3f s (%,.0f accounts/s)%n", sampleCount,
+                    perAccountNanos / 1e9, sampleCount * 1e9 / perAccountNanos);
+
+            TaxRunSummary summary = new TaxRunner(logging, registry, journal, null, null).run(LocalDate.now());
+            System.out.print(summary.format());
+        }
+        System.out.printf("audit log: %,d bytes%n", Files.size(directory.resolve("audit.log")));
+    }
+}
@@ -0,0 +1,64 @@
+package com.bankingsystem.bench;
+
+import com.bankingsystem.model.MainAccount;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Random transfers between accounts of a large set from 1 to N threads. Pairs are drawn in
+// both directions, so A->B and B->A race constantly; the run must finish (no deadlock) and
+// the total money across all accounts must be unchanged.
+// Usage: TransferThroughputBenchmark [accounts] [maxThreads] [millisPerRun]
+public class TransferThroughputBenchmark {
+    private static final int INITIAL_BALANCE = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 2000;
+
+        // Accounts publish to AccountEventListener.NONE by default, so nothing here prints
+        PrintStream console = System.out;
+
+        MainAccount[] accounts = new MainAccount[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i] = new MainAccount("T" + i, "Bench", INITIAL_BALANCE);
+        }
+        long expectedTotal = (long) accountCount * INITIAL_BALANCE;
+
+        console.printf("%-8s %15s %12s %10s%n", "threads", "transfers/sec", "succeeded", "conserved");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            LongAdder attempted = new LongAdder();
+            LongAdder succeeded = new LongAdder();
+            CountDownLatch done = new CountDownLatch(threads);
+            long deadline = System.nanoTime() + millis * 1_000_000L;
+            for (int t = 0; t < threads; t++) {
+                new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long ops = 0;
+                    long ok = 0;
+                    while ((ops & 1023) != 0 || System.nanoTime() < deadline) {
+                        MainAccount from = accounts[random.nextInt(accountCount)];
+                        MainAccount to = accounts[random.nextInt(accountCount)];
+                        if (from.transfer(to, 1 + random.nextInt(100))) {
+                            ok++;
+                        }
+                        ops++;
+                    }
+                    attempted.add(ops);
+                    succeeded.add(ok);
+                    done.countDown();
+                }).start();
+            }
+            done.await();
+
+            long total = 0;
+            for (MainAccount account : accounts) {
+                total += account.getBalance();
+            }
+            console.printf("%-8d %,15d %,12d %10s%n", threads, attempted.sum() * 1000L / millis,
+                    succeeded.sum(), total == expectedTotal);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bankingsystem.bench;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.MainAccount;
+import com.bankingsystem.model.Money;
+import com.bankingsystem.model.VelocityLimitException;
+import com.bankingsystem.model.VelocityLimits;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cost of the velocity limits on the withdraw path: deposit + withdraw pairs with no limits, with
+// two generous rules (a count and an amount, never reached) and with a tight count rule that
+// rejects nearly every withdrawal; one shared account or one account per thread. Also reports
+// bytes allocated per pair on the benchmark thread, which should be zero with limits passing.
+// Usage: VelocityLimitBenchmark [maxThreads] [millisPerRun]
+public class VelocityLimitBenchmark {
+    private static final long INITIAL_BALANCE = Money.ofRupees(1_000_000);
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+
+        System.out.printf("%-9s %-8s %-8s %15s %12s %12s%n", "limits", "shape", "threads", "pairs/sec", "ns/pair",
+                "bytes/pair");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            for (boolean shared : new boolean[] {true, false}) {
+                run("none", "off", shared, threads, millis);
+                run("generous", "count:1000000000/1m,amount:100000000000/1d", shared, threads, millis);
+                run("rejecting", "count:1/1h", shared, threads, millis);
+            }
+        }
+    }
+
+    private static void run(String name, String limits, boolean shared, int threads, long millis)
+            throws InterruptedException {
+        // Fresh limits per run, so every run starts from empty windows
+        Account.setVelocityLimits(VelocityLimits.parse(limits));
+        Account sharedAccount = new MainAccount("VBENCH" + System.nanoTime(), "Bench", INITIAL_BALANCE);
+        LongAdder pairs = new LongAdder();
+        LongAdder allocated = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] deadline = new long[1];
+        for (int t = 0; t < threads; t++) {
+            Account account = shared ? sharedAccount
+                    : new MainAccount("VBENCH" + t + "-" + System.nanoTime(), "Bench", INITIAL_BALANCE);
+            new Thread(() -> {
+                com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory
+                        .getThreadMXBean();
+                try {
+                    start.await();
+                    long bytes = mx.getCurrentThreadAllocatedBytes();
+                    long ops = 0;
+                    while ((ops & 1023) != 0 || System.nanoTime() < deadline[0]) {
+                        account.applyDeposit(7);
+                        try {
+                            account.applyWithdrawal(7);
+                        } catch (VelocityLimitException e) {
+                            // Expected with the tight rule
+                        }
+                        ops++;
+                    }
+                    allocated.add(mx.getCurrentThreadAllocatedBytes() - bytes);
+                    pairs.add(ops);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        deadline[0] = System.nanoTime() + millis * 1_000_000L;
+        start.countDown();
+        done.await();
+        long total = pairs.sum();
+        System.out.printf("%-9s %-8s %-8d %,15d %12.1f %12.2f%n", name, shared ? "shared" : "disjoint", threads,
+                total * 1000 / millis, millis * 1e6 * threads / total, (double) allocated.sum() / total);
+    }
+}
@@ -0,0 +1,109 @@
+package com.bankingsystem.jmh;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.MainAccount;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Account.deposit and the three withdraw forms. Each thread gets its own account in the
+// *_uncontended benchmarks; the *_contended ones share one account across 4 threads to
+// show what the balance CAS costs under contention. Balances are reset every iteration
+// so a long run can neither overflow nor drain an account.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountBenchmark {
+    private static final int START_BALANCE = Integer.MAX_VALUE / 2;
+
+    @State(Scope.Thread)
+    public static class PerThread {
+        Account account;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            BenchmarkSupport.muteConsole();
+            account = MainAccount.createAccount("JMH" + Thread.currentThread().getId(), "Bench", START_BALANCE,
+                    BenchmarkSupport.UPI_ID, BenchmarkSupport.CREDIT_CARD);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        Account account;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            BenchmarkSupport.muteConsole();
+            account = MainAccount.createAccount("JMHSHARED", "Bench", START_BALANCE,
+                    BenchmarkSupport.UPI_ID, BenchmarkSupport.CREDIT_CARD);
+        }
+    }
+
+    @Benchmark
+    public long deposit_uncontended(PerThread state) {
+        return state.account.deposit(1);
+    }
+
+    @Benchmark
+    public long withdraw_uncontended(PerThread state) {
+        return state.account.withdraw(1);
+    }
+
+    @Benchmark
+    public long withdrawUpi_uncontended(PerThread state) {
+        return state.account.withdraw(BenchmarkSupport.UPI_ID, 1);
+    }
+
+    @Benchmark
+    public long withdrawCard_uncontended(PerThread state) {
+        return state.account.withdraw(BenchmarkSupport.CREDIT_CARD, 1);
+    }
+
+    // Non-printing forms used by TransactionService, for comparison with the interactive ones
+    @Benchmark
+    public long applyDeposit_uncontended(PerThread state) {
+        return state.account.applyDeposit(1);
+    }
+
+    @Benchmark
+    public long applyWithdrawal_uncontended(PerThread state) {
+        return state.account.applyWithdrawal(1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long deposit_contended(Shared state) {
+        return state.account.deposit(1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long withdraw_contended(Shared state) {
+        return state.account.withdraw(1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long applyDeposit_contended(Shared state) {
+        return state.account.applyDeposit(1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long applyWithdrawal_contended(Shared state) {
+        return state.account.applyWithdrawal(1);
+    }
+}
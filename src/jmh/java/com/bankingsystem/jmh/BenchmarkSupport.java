@@ -0,0 +1,56 @@
+package com.bankingsystem.jmh;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+// Shared setup for the JMH benchmarks. Accounts are headless by default, but services still
+// print on some error paths; benchmarks mute stdout/stderr so they never measure console I/O.
+final class BenchmarkSupport {
+    static final String UPI_ID = "bench@upi";
+    static final int CREDIT_CARD = 424242;
+
+    private BenchmarkSupport() {
+    }
+
+    static void muteConsole() {
+        System.setOut(new MutedPrintStream());
+        System.setErr(new MutedPrintStream());
+    }
+
+    // Benchmarks never read keys from the environment; fixed values keep runs comparable
+    static void configureEncryption() {
+        if (System.getProperty("bank.encryption.key") == null) {
+            System.setProperty("bank.encryption.key", "jmh-benchmark-key");
+        }
+        if (System.getProperty("bank.encryption.salt") == null) {
+            System.setProperty("bank.encryption.salt", "jmh-benchmark-salt");
+        }
+    }
+
+    // PrintStream's own methods synchronize; override the entry points so muted output is free
+    private static final class MutedPrintStream extends PrintStream {
+        MutedPrintStream() {
+            super(OutputStream.nullOutputStream());
+        }
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] buf, int off, int len) {
+        }
+
+        @Override
+        public void print(String s) {
+        }
+
+        @Override
+        public void println(String x) {
+        }
+
+        @Override
+        public void println(Object x) {
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.bankingsystem.jmh;
+
+import com.bankingsystem.util.EncryptionUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// EncryptionUtils: single and bulk card encryption, decryption, and the multi-threaded case
+// that exercises the per-thread cipher pool and the shared SecureRandom.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncryptionBenchmark {
+    private static final int BULK_SIZE = 1024;
+
+    private String encrypted;
+    private int[] cards;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.muteConsole();
+        BenchmarkSupport.configureEncryption();
+        encrypted = EncryptionUtils.encryptCreditCard(BenchmarkSupport.CREDIT_CARD);
+        cards = new int[BULK_SIZE];
+        for (int i = 0; i < BULK_SIZE; i++) {
+            cards[i] = 100_000 + i;
+        }
+    }
+
+    @Benchmark
+    public String encryptCreditCard() {
+        return EncryptionUtils.encryptCreditCard(BenchmarkSupport.CREDIT_CARD);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public String[] encryptCreditCards_bulk() {
+        return EncryptionUtils.encryptCreditCards(cards);
+    }
+
+    @Benchmark
+    public int decryptCreditCard() {
+        return EncryptionUtils.decryptCreditCard(encrypted);
+    }
+
+    @Benchmark
+    public String maskCreditCard() {
+        return EncryptionUtils.maskCreditCard(BenchmarkSupport.CREDIT_CARD);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String encryptCreditCard_threads() {
+        return EncryptionUtils.encryptCreditCard(BenchmarkSupport.CREDIT_CARD);
+    }
+}
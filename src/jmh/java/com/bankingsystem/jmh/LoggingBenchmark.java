@@ -0,0 +1,103 @@
+package com.bankingsystem.jmh;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.MainAccount;
+import com.bankingsystem.service.AsyncLogConfig;
+import com.bankingsystem.service.LoggingService;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Every LoggingService.log* method, against a real file in the temp directory, in both the
+// synchronous mode (write + flush per call) and the async group-commit mode. In async mode
+// the writer thread keeps up or applies BLOCK backpressure, so sustained throughput is
+// bounded by the file write rate rather than by the enqueue alone.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+    @Param({"sync", "async"})
+    String mode;
+
+    private File logFile;
+    private LoggingService loggingService;
+    private Account from;
+    private Account to;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkSupport.muteConsole();
+        BenchmarkSupport.configureEncryption();
+        logFile = File.createTempFile("jmh-bank-log", ".log");
+        loggingService = new LoggingService(logFile.getPath(),
+                "async".equals(mode) ? AsyncLogConfig.defaults() : null);
+        from = new MainAccount("JMHLOGA", "Bench", 1_000_000);
+        to = new MainAccount("JMHLOGB", "Bench", 1_000_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loggingService.close();
+        logFile.delete();
+    }
+
+    @Benchmark
+    public void logAccountCreation_plainCard() {
+        // Includes encrypting the card on the calling thread
+        loggingService.logAccountCreation(from, "Main", BenchmarkSupport.UPI_ID, BenchmarkSupport.CREDIT_CARD);
+    }
+
+    @Benchmark
+    public void logAccountCreation_encryptedCard() {
+        loggingService.logAccountCreation(from, "Main", BenchmarkSupport.UPI_ID, "v1:AAAAAAAAAAAAAAAAAAAAAAAAAAAA");
+    }
+
+    @Benchmark
+    public void logDeposit() {
+        loggingService.logDeposit(from, 100, 1_000_100);
+    }
+
+    @Benchmark
+    public void logWithdrawal() {
+        loggingService.logWithdrawal(from, 100, 999_900, "UPI");
+    }
+
+    @Benchmark
+    public void logTaxPayment() {
+        loggingService.logTaxPayment(from, 150_000_00L);
+    }
+
+    @Benchmark
+    public void logTransfer() {
+        loggingService.logTransfer(from, to, 100_00L);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void logDeposit_threads() {
+        loggingService.logDeposit(from, 100, 1_000_100);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void logTransfer_threads() {
+        loggingService.logTransfer(from, to, 100_00L);
+    }
+}
@@ -0,0 +1,108 @@
+package com.bankingsystem.jmh;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.CurrentAccount;
+import com.bankingsystem.model.MainAccount;
+import com.bankingsystem.model.SavingsAccount;
+import com.bankingsystem.model.Taxable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Taxable.calculateTax and payTax for each account type. payTax shrinks the balance
+// geometrically, so the payTax benchmarks deposit the deducted amount straight back;
+// subtract AccountBenchmark.applyDeposit_uncontended to isolate the tax itself.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaxBenchmark {
+    private static final int START_BALANCE = 1_000_000;
+
+    @State(Scope.Thread)
+    public static class Accounts {
+        @Param({"MAIN", "SAV", "CUR"})
+        String type;
+
+        Taxable account;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkSupport.muteConsole();
+            account = create(type);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedAccount {
+        Taxable account;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkSupport.muteConsole();
+            account = create("MAIN");
+        }
+    }
+
+    static Taxable create(String type) {
+        switch (type) {
+            case "SAV":
+                return new SavingsAccount("JMH", "Bench", START_BALANCE);
+            case "CUR":
+                return new CurrentAccount("JMH", "Bench", START_BALANCE);
+            default:
+                return new MainAccount("JMH", "Bench", START_BALANCE);
+        }
+    }
+
+    @Benchmark
+    public long calculateTax(Accounts state) {
+        return state.account.calculateTax();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long calculateTax_shared(SharedAccount state) {
+        return state.account.calculateTax();
+    }
+
+    @Benchmark
+    public long payTax(Accounts state) {
+        Account account = (Account) state.account;
+        long before = account.getBalance();
+        state.account.payTax();
+        return refill(account, before);
+    }
+
+    @Benchmark
+    public long applyTax(Accounts state) {
+        Account account = (Account) state.account;
+        long before = account.getBalance();
+        state.account.applyTax();
+        return refill(account, before);
+    }
+
+    // Each thread taxes its own account
+    @Benchmark
+    @Threads(4)
+    public long payTax_threads(Accounts state) {
+        return payTax(state);
+    }
+
+    private static long refill(Account account, long before) {
+        long deducted = before - account.getBalance();
+        return deducted > 0 ? account.applyDeposit(deducted) : account.getBalance();
+    }
+}
@@ -0,0 +1,71 @@
+package com.bankingsystem.jmh;
+
+import com.bankingsystem.model.MainAccount;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// MainAccount.transfer. Each invocation moves money there and back so balances stay
+// put however long the run is. The contended variant has 4 threads transferring in both
+// directions between the same two accounts, which exercises the lock ordering in
+// TransferEngine; the uncontended one gives every thread its own pair.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferBenchmark {
+    private static final int START_BALANCE = 1_000_000;
+    private static final long AMOUNT = 10;
+
+    @State(Scope.Thread)
+    public static class PerThread {
+        MainAccount from;
+        MainAccount to;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkSupport.muteConsole();
+            long id = Thread.currentThread().getId();
+            from = new MainAccount("JMHA" + id, "Bench", START_BALANCE);
+            to = new MainAccount("JMHB" + id, "Bench", START_BALANCE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        MainAccount from;
+        MainAccount to;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkSupport.muteConsole();
+            from = new MainAccount("JMHSHA", "Bench", START_BALANCE);
+            to = new MainAccount("JMHSHB", "Bench", START_BALANCE);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public boolean transfer_uncontended(PerThread state) {
+        return state.from.transfer(state.to, AMOUNT) & state.to.transfer(state.from, AMOUNT);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(2)
+    public boolean transfer_contended(Shared state) {
+        return state.from.transfer(state.to, AMOUNT) & state.to.transfer(state.from, AMOUNT);
+    }
+}
@@ -0,0 +1,102 @@
+package com.bankingsystem.jmh;
+
+import com.bankingsystem.util.ValidationUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// ValidationUtils validators with accepted and rejected input. The inputs live in state
+// fields so the JIT cannot fold the regex match into a constant.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationBenchmark {
+    String accountNumber;
+    String accountId;
+    String name;
+    String upiId;
+    String yesNo;
+    String numeric;
+    String invalidAccountNumber;
+    String invalidUpiId;
+    String invalidNumeric;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.muteConsole();
+        accountNumber = "ACC123456";
+        accountId = "MAINACC123456";
+        name = "Priya Sharma";
+        upiId = "priya.sharma@okbank";
+        yesNo = "yes";
+        numeric = " 25000 ";
+        invalidAccountNumber = "ACC-123/456";
+        invalidUpiId = "priya.sharma@@okbank!";
+        invalidNumeric = "25k";
+    }
+
+    @Benchmark
+    public String accountNumber() {
+        return ValidationUtils.validateInput(accountNumber, ValidationUtils.getAccountNumberPattern());
+    }
+
+    @Benchmark
+    public String accountNumber_invalid() {
+        return ValidationUtils.validateInput(invalidAccountNumber, ValidationUtils.getAccountNumberPattern());
+    }
+
+    @Benchmark
+    public String accountId() {
+        return ValidationUtils.validateInput(accountId, ValidationUtils.getAccountIdPattern());
+    }
+
+    @Benchmark
+    public String name() {
+        return ValidationUtils.validateInput(name, ValidationUtils.getNamePattern());
+    }
+
+    @Benchmark
+    public String upiId() {
+        return ValidationUtils.validateInput(upiId, ValidationUtils.getUpiPattern());
+    }
+
+    @Benchmark
+    public String upiId_invalid() {
+        return ValidationUtils.validateInput(invalidUpiId, ValidationUtils.getUpiPattern());
+    }
+
+    @Benchmark
+    public String yesNo() {
+        return ValidationUtils.validateInput(yesNo, ValidationUtils.getYesNoPattern());
+    }
+
+    @Benchmark
+    public int numeric() {
+        return ValidationUtils.validateNumericInput(numeric, 0, 1_000_000);
+    }
+
+    // Rejection path goes through NumberFormatException
+    @Benchmark
+    public int numeric_invalid() {
+        return ValidationUtils.validateNumericInput(invalidNumeric, 0, 1_000_000);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String upiId_threads() {
+        return ValidationUtils.validateInput(upiId, ValidationUtils.getUpiPattern());
+    }
+}
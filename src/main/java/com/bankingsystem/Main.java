@@ -1,14 +1,99 @@
 package com.bankingsystem;
 
+import com.bankingsystem.http.BankHttpServer;
+import com.bankingsystem.metrics.BankMetrics;
+import com.bankingsystem.metrics.MetricsReporter;
 import com.bankingsystem.model.*;
+import com.bankingsystem.persistence.JournalCheckpointer;
+import com.bankingsystem.persistence.JournalReplayer;
+import com.bankingsystem.persistence.TransactionJournal;
 import com.bankingsystem.service.*;
 import com.bankingsystem.util.ValidationUtils;
 import java.util.Scanner;
 import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
+    private static final long JOURNAL_FLUSH_INTERVAL_MILLIS = 100;
+    private static final long DEFAULT_CHECKPOINT_INTERVAL_SECONDS = 300;
+    private static final long DEFAULT_METRICS_DUMP_INTERVAL_SECONDS = 60;
+    private static final String METRICS_REPORT_FILE = "metrics.txt";
+    private static final int DEFAULT_HTTP_PORT = 8080;
+    private static final int STATEMENT_PAGE_SIZE = 20;
+    // Counted down once main has closed everything; lets a shutdown hook wait for a clean stop
+    private static final CountDownLatch SHUTDOWN_COMPLETE = new CountDownLatch(1);
+
+    // "try": metricsReporter and checkpointer are resources only so that they are closed in
+    // order - the final metrics dump after everything that records metrics, the final
+    // checkpoint while the journal is still open; javac flags them as never referenced and
+    // honours the suppression only at method level
+    @SuppressWarnings("try")
     public static void main(String[] args) {
+        // --batch <file> runs a command file, --serve [port] the HTTP API, --tax-run [yyyy-mm-dd]
+        // the end-of-day tax run over every account and --interest-run [yyyy-mm-dd] the daily
+        // interest run (both for today by default), all headless, instead of the interactive menu.
+        // --read-log <segment or log directory> [account ID] prints an audit log in the text
+        // layout, or from a log directory just one account's records, found through the indexes.
+        Path batchFile = null;
+        Path logToRead = null;
+        String logAccount = null;
+        int httpPort = -1;
+        LocalDate taxDay = null;
+        LocalDate interestDay = null;
+        if (args.length > 0) {
+            try {
+                if (args.length == 2 && args[0].equals("--batch")) {
+                    batchFile = Paths.get(args[1]);
+                } else if ((args.length == 2 || args.length == 3) && args[0].equals("--read-log")) {
+                    logToRead = Paths.get(args[1]);
+                    logAccount = args.length == 3 ? args[2] : null;
+                } else if (args.length <= 2 && args[0].equals("--tax-run")) {
+                    taxDay = args.length == 2 ? LocalDate.parse(args[1]) : LocalDate.now();
+                } else if (args.length <= 2 && args[0].equals("--interest-run")) {
+                    interestDay = args.length == 2 ? LocalDate.parse(args[1]) : LocalDate.now();
+                } else if (args.length <= 2 && args[0].equals("--serve")) {
+                    httpPort = args.length == 2 ? Integer.parseInt(args[1]) : DEFAULT_HTTP_PORT;
+                } else {
+                    throw new IllegalArgumentException();
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                System.err.println("Usage: java -jar BankingSystem.jar [--batch <command file> | --serve [port]"
+                        + " | --tax-run [yyyy-mm-dd] | --interest-run [yyyy-mm-dd] | --read-log <log file or directory>]");
+                return;
+            }
+        }
+
+        // Reading a log needs none of the checks or state below
+        if (logToRead != null) {
+            try {
+                AuditLogReader reader = new AuditLogReader(ZoneId.systemDefault());
+                if (logAccount == null) {
+                    reader.print(logToRead, System.out);
+                } else {
+                    long start = System.nanoTime();
+                    long found = reader.printAccount(logToRead, logAccount, System.out);
+                    System.err.printf("%d records in %.1f ms: %d segments skipped by index, %d blocks read"
+                            + " (%d bytes), %d unindexed segments scanned%n", found,
+                            (System.nanoTime() - start) / 1e6, reader.getSegmentsSkipped(), reader.getBlocksRead(),
+                            reader.getBytesRead(), reader.getSegmentsScanned());
+                }
+            } catch (IOException e) {
+                System.err.println("Error reading audit log: " + e.getMessage());
+            }
+            return;
+        }
+
         // Security check: Prevent running with elevated privileges
         if (!isRunningAsRoot()) {
             System.err.println("Security Error: Banking application should run with elevated privileges.");
@@ -24,57 +109,196 @@ public class Main {
 
         System.out.println("Hello from OOPs class!\n");
 
-        String logPath;
+        Path logDir = getLogDirectory();
+        LogRotationConfig logRotation = getLogRotation();
+
+        // -Dbank.log.format=binary writes compact binary records instead of text lines
+        LogFormat logFormat = "binary".equalsIgnoreCase(System.getProperty("bank.log.format"))
+                ? LogFormat.BINARY : LogFormat.TEXT;
+
+        // -Dbank.log.async=true moves log formatting and flushing off the transaction thread
+        AsyncLogConfig asyncLogConfig = Boolean.getBoolean("bank.log.async") ? AsyncLogConfig.defaults() : null;
+
+        Path dataDir = getDataDirectory();
+
+        // Rolling-window withdrawal and transfer limits, per account, only when -Dbank.velocity
+        // names some (see VelocityLimits.parse); off by default in every mode, batch runs included
+        Account.setVelocityLimits(VelocityLimits.parse(System.getProperty("bank.velocity", "off")));
+
+        // Latency histograms and counters: appended to metrics.txt in the data directory, and live
+        // over JMX for the menu and the server. Starting the platform MBean server is about half
+        // the startup time of a one-shot batch, tax or interest run, so those skip it unless
+        // -Dbank.metrics.jmx=true; -Dbank.metrics.jmx=false turns it off everywhere.
+        BankMetrics metrics = new BankMetrics();
+        String jmxSetting = System.getProperty("bank.metrics.jmx");
+        boolean jmx = jmxSetting != null ? Boolean.parseBoolean(jmxSetting)
+                : batchFile == null && taxDay == null && interestDay == null;
+        if (jmx) {
+            metrics.registerMBean();
+        }
+
+        try (MetricsReporter metricsReporter = new MetricsReporter(metrics, dataDir.resolve(METRICS_REPORT_FILE),
+                Long.getLong("bank.metrics.dump.seconds", DEFAULT_METRICS_DUMP_INTERVAL_SECONDS) * 1000);
+                LoggingService loggingService = new LoggingService(logDir, logRotation, logFormat, asyncLogConfig, metrics)) {
+            // Load the latest snapshot plus the journal tail before opening the journal,
+            // which starts a new segment after the existing ones
+            JournalReplayer replayer = JournalReplayer.replayDirectory(dataDir);
+
+            // The checkpointer is closed first, taking a final snapshot while the journal is still open
+            try (TransactionJournal journal = TransactionJournal.open(dataDir, JOURNAL_FLUSH_INTERVAL_MILLIS,
+                    Boolean.getBoolean("bank.journal.fsync"));
+                    JournalCheckpointer checkpointer = new JournalCheckpointer(journal,
+                            Long.getLong("bank.checkpoint.interval.seconds", DEFAULT_CHECKPOINT_INTERVAL_SECONDS) * 1000)) {
+                AccountRegistry accountRegistry = new AccountRegistry();
+                AccountService accountService = new AccountService(loggingService, accountRegistry, journal, metrics);
+                // Operations with an idempotency key (the HTTP Idempotency-Key header) are applied at
+                // most once while the key is remembered
+                IdempotencyCache idempotencyCache = new IdempotencyCache(
+                        Integer.getInteger("bank.idempotency.keys", IdempotencyCache.DEFAULT_CAPACITY),
+                        Long.getLong("bank.idempotency.ttl.minutes", IdempotencyCache.DEFAULT_TTL_MILLIS / 60_000)
+                                * 60_000);
+                TransactionService transactionService = new TransactionService(loggingService, accountRegistry,
+                        journal, metrics, idempotencyCache);
+                StatementReader statementReader = new StatementReader(logDir, ZoneId.systemDefault());
+
+                int restored = accountService.restoreAccounts(replayer.getAccounts().values());
+                if (restored > 0) {
+                    System.out.println("Recovered " + restored + " accounts from " + replayer.getRecordsApplied()
+                            + " journal records.\n");
+                }
+
+                if (batchFile != null) {
+                    runBatch(batchFile, accountService, transactionService);
+                    return;
+                }
+                if (httpPort >= 0) {
+                    // Interest is credited after each midnight while the server runs
+                    try (InterestEngine interestEngine = new InterestEngine(loggingService, accountRegistry, journal,
+                            metrics, replayer.getInterestAccruedThrough())) {
+                        interestEngine.scheduleNightly(ZoneId.systemDefault());
+                        runServer(httpPort, accountService, transactionService, statementReader);
+                    }
+                    return;
+                }
+                if (taxDay != null) {
+                    System.out.println("Running end-of-day tax run for " + taxDay + " over " + accountRegistry.size()
+                            + " accounts");
+                    try {
+                        TaxRunSummary summary = new TaxRunner(loggingService, accountRegistry, journal, metrics,
+                                replayer.getTaxedThrough()).run(taxDay);
+                        System.out.print(summary.format());
+                    } catch (IllegalStateException e) {
+                        System.err.println(e.getMessage());
+                    }
+                    return;
+                }
+                if (interestDay != null) {
+                    System.out.println("Running interest for " + interestDay);
+                    InterestRunSummary summary = new InterestEngine(loggingService, accountRegistry, journal, metrics,
+                            replayer.getInterestAccruedThrough()).run(interestDay);
+                    System.out.print(summary.format());
+                    return;
+                }
+
+                // Subscribe the console only now, so recovery does not print every restored account
+                Account.setEventListener(new ConsoleAccountEventPrinter());
+
+                runMenu(accountService, transactionService, statementReader);
+            }
+        } catch (Exception e) {
+            System.err.println("Error initializing banking system.");
+        } finally {
+            if (jmx) {
+                metrics.unregisterMBean();
+            }
+            SHUTDOWN_COMPLETE.countDown();
+        }
+    }
+
+    private static void runBatch(Path batchFile, AccountService accountService,
+            TransactionService transactionService) {
+        System.out.println("Running batch file: " + batchFile);
         try {
-            String tempDir = System.getProperty("java.io.tmpdir");
-            if (tempDir == null || tempDir.trim().isEmpty()) {
-                tempDir = System.getProperty("user.home") + java.io.File.separator + ".bank_logs";
+            BatchSummary summary = new BatchCommandRunner(accountService, transactionService).run(batchFile);
+            System.out.print(summary.format());
+        } catch (IOException e) {
+            System.err.println("Error reading batch file.");
+        }
+    }
+
+    // Serves until the JVM is asked to stop (Ctrl-C / SIGTERM). The shutdown hook only wakes
+    // main and then waits for it, so the server, checkpointer and journal close in order.
+    private static void runServer(int port, AccountService accountService, TransactionService transactionService,
+            StatementReader statementReader) throws IOException {
+        String host = System.getProperty("bank.http.host", "127.0.0.1");
+        BankHttpServer.ThreadMode threadMode = "platform".equalsIgnoreCase(System.getProperty("bank.http.threads"))
+                ? BankHttpServer.ThreadMode.PLATFORM : BankHttpServer.ThreadMode.VIRTUAL;
+        CountDownLatch stopRequested = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stopRequested.countDown();
+            try {
+                SHUTDOWN_COMPLETE.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-            logPath = tempDir + java.io.File.separator + "bank_logs_" + System.currentTimeMillis() + ".txt";
-        } catch (SecurityException e) {
-            System.err.println("Access denied to system properties.");
-            logPath = "bank_logs_" + System.currentTimeMillis() + ".txt";
+        }, "bank-http-shutdown"));
+
+        try (BankHttpServer server = new BankHttpServer(new InetSocketAddress(host, port), accountService,
+                transactionService, statementReader, threadMode, BankHttpServer.DEFAULT_PLATFORM_THREADS)) {
+            server.start();
+            System.out.println("HTTP API listening on http://" + host + ":" + server.getAddress().getPort()
+                    + "/accounts (" + (server.isUsingVirtualThreads() ? "virtual" : "platform") + " threads)");
+            stopRequested.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+    }
 
-        try (LoggingService loggingService = new LoggingService(logPath)) {
-            AccountService accountService = new AccountService(loggingService);
-            TransactionService transactionService = new TransactionService(loggingService);
-            Scanner scanner = new Scanner(System.in);
+    private static void runMenu(AccountService accountService, TransactionService transactionService,
+            StatementReader statementReader) {
+        Scanner scanner = new Scanner(System.in);
 
-            System.out.println("=== Banking Account Management System ===\n");
+        System.out.println("=== Banking Account Management System ===\n");
 
+        while (true) {
+            System.out.println("Choose operation:");
+            System.out.println("1. Create Main Account");
+            System.out.println("2. Create Savings Account (requires parent account)");
+            System.out.println("3. Create Current Account (requires parent account)");
+            System.out.println("4. Open Existing Account");
+            System.out.println("5. Exit");
+            System.out.print("Enter your choice (1-5): ");
+            int choice = -1;
             while (true) {
-                System.out.println("Choose operation:");
-                System.out.println("1. Create Main Account");
-                System.out.println("2. Create Savings Account (requires parent account)");
-                System.out.println("3. Create Current Account (requires parent account)");
-                System.out.println("4. Exit");
-                System.out.print("Enter your choice (1-4): ");
-                int choice = -1;
-                while (true) {
-                    String input = scanner.nextLine();
-                    try {
-                        choice = Integer.parseInt(input.trim());
-                        if (choice >= 1 && choice <= 4) break;
-                    } catch (NumberFormatException e) {
-                        System.err.println("Invalid menu input.");
-                    }
-                    System.out.print("Invalid choice! Please enter 1-4: ");
+                String input = scanner.nextLine();
+                try {
+                    choice = Integer.parseInt(input.trim());
+                    if (choice >= 1 && choice <= 5) break;
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid menu input.");
                 }
+                System.out.print("Invalid choice! Please enter 1-5: ");
+            }
 
-                if (choice == 4) {
-                    System.out.println("Thank you for using the Banking System!");
-                    break;
-                }
+            if (choice == 5) {
+                System.out.println("Thank you for using the Banking System!");
+                break;
+            }
 
-                if (choice < 1 || choice > 3) {
-                    System.out.println("Invalid choice! Please try again.\n");
-                    continue;
+            if (choice == 4) {
+                Account existing = openExistingAccount(scanner, accountService);
+                if (existing != null) {
+                    accountService.displaySecureAccountInfo(existing);
+                    handleTransactions(existing, scanner, transactionService, statementReader);
                 }
+                System.out.println("\n" + "=".repeat(50) + "\n");
+                continue;
+            }
 
-                Account account = null;
-                String accountType = "";
+            Account account = null;
+            String accountType = "";
 
+            try {
                 if (choice == 1) {
                     System.out.println("\n=== Creating Main Account ===");
                     account = createMainAccount(scanner, accountService);
@@ -83,24 +307,61 @@ public class Main {
                     account = createChildAccount(scanner, accountService, choice);
                     accountType = (choice == 2) ? "Savings" : "Current";
                 }
+            } catch (IllegalStateException e) {
+                System.err.println(e.getMessage());
+            }
 
-                if (account != null) {
-                    System.out.println("\nAccount created successfully!");
-                    System.out.println("Account ID: " + account.getAccountId());
-                    System.out.println("Account Type: " + accountType);
-                    accountService.displaySecureAccountInfo(account);
+            if (account != null) {
+                System.out.println("\nAccount created successfully!");
+                System.out.println("Account ID: " + account.getAccountId());
+                System.out.println("Account Type: " + accountType);
+                accountService.displaySecureAccountInfo(account);
 
-                    showAccountInfo(account);
+                showAccountInfo(account);
 
-                    handleTransactions(account, scanner, transactionService);
-                }
+                handleTransactions(account, scanner, transactionService, statementReader);
+            }
 
-                System.out.println("\n" + "=".repeat(50) + "\n");
+            System.out.println("\n" + "=".repeat(50) + "\n");
+        }
+    }
+
+    // One directory of rotated segments shared by every run (see LogRotationConfig)
+    private static Path getLogDirectory() {
+        String logDir = System.getProperty("bank.log.dir");
+        if (logDir != null && !logDir.trim().isEmpty()) {
+            return Paths.get(logDir);
+        }
+        try {
+            String tempDir = System.getProperty("java.io.tmpdir");
+            if (tempDir == null || tempDir.trim().isEmpty()) {
+                return Paths.get(System.getProperty("user.home"), ".bank_logs");
             }
+            return Paths.get(tempDir, "bank_logs");
+        } catch (SecurityException e) {
+            System.err.println("Access denied to system properties.");
+            return Paths.get("bank_logs");
+        }
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error initializing banking system.");
+    private static LogRotationConfig getLogRotation() {
+        LogRotationConfig defaults = LogRotationConfig.defaults();
+        long segmentBytes = Long.getLong("bank.log.segment.mb", defaults.getMaxSegmentBytes() >> 20) << 20;
+        long segmentMillis = Long.getLong("bank.log.segment.minutes",
+                defaults.getMaxSegmentAgeMillis() / 60_000) * 60_000;
+        boolean compress = !"false".equalsIgnoreCase(System.getProperty("bank.log.compress"));
+        return new LogRotationConfig(segmentBytes, segmentMillis, compress,
+                Integer.getInteger("bank.log.compress.level", defaults.getCompressionLevel()),
+                Integer.getInteger("bank.log.index.kb", defaults.getIndexBlockBytes() >> 10) << 10,
+                Integer.getInteger("bank.log.bloom.bits", defaults.getBloomBitsPerAccount()));
+    }
+
+    private static Path getDataDirectory() {
+        String dataDir = System.getProperty("bank.data.dir");
+        if (dataDir == null || dataDir.trim().isEmpty()) {
+            dataDir = System.getProperty("user.home") + File.separator + ".bank_data";
         }
+        return Paths.get(dataDir);
     }
 
     private static Account createMainAccount(Scanner scanner, AccountService accountService) {
@@ -118,17 +379,12 @@ public class Main {
             if (name != null && name.length() <= 50) break;
             System.out.println("Invalid name format. Please use 2-50 alphabetic characters.");
         }
-        int amount;
+        long amount;
         while (true) {
             System.out.print("Enter initial balance: ");
-            String amtStr = scanner.nextLine();
-            try {
-                amount = Integer.parseInt(amtStr.trim());
-                if (amount >= 0) break;
-            } catch (NumberFormatException e) {
-                System.err.println("Invalid amount input.");
-            }
-            System.out.println("Invalid amount. Please enter a positive number.");
+            amount = ValidationUtils.validateAmountInput(scanner.nextLine(), 0, Long.MAX_VALUE);
+            if (amount != -1) break;
+            System.out.println("Invalid amount. Please enter a positive amount.");
         }
         String upiId = getUpiId(scanner);
         if (upiId == null && askYesNo(scanner, "You chose to add a UPI ID but did not provide a valid one. Do you want to try again? (y/n): ")) {
@@ -156,17 +412,12 @@ public class Main {
             if (name != null && name.length() <= 50) break;
             System.out.println("Invalid name format. Please use 2-50 alphabetic characters.");
         }
-        int amount;
+        long amount;
         while (true) {
             System.out.print("Enter initial balance: ");
-            String amtStr = scanner.nextLine();
-            try {
-                amount = Integer.parseInt(amtStr.trim());
-                if (amount >= 0) break;
-            } catch (NumberFormatException e) {
-                System.err.println("Invalid amount input.");
-            }
-            System.out.println("Invalid amount. Please enter a positive number.");
+            amount = ValidationUtils.validateAmountInput(scanner.nextLine(), 0, Long.MAX_VALUE);
+            if (amount != -1) break;
+            System.out.println("Invalid amount. Please enter a positive amount.");
         }
         String upiId = getUpiId(scanner);
         if (upiId == null && askYesNo(scanner, "You chose to add a UPI ID but did not provide a valid one. Do you want to try again? (y/n): ")) {
@@ -185,6 +436,20 @@ public class Main {
         }
     }
 
+    private static Account openExistingAccount(Scanner scanner, AccountService accountService) {
+        System.out.print("Enter account ID (e.g. MAINACC123): ");
+        String accountId = ValidationUtils.validateInput(scanner.nextLine(), ValidationUtils.getAccountIdPattern());
+        if (accountId == null) {
+            System.out.println("Invalid account ID format.");
+            return null;
+        }
+        Account account = accountService.findAccount(accountId);
+        if (account == null) {
+            System.out.println("Account not found.");
+        }
+        return account;
+    }
+
     private static String getUpiId(Scanner scanner) {
         while (true) {
             System.out.print("Do you want to add UPI ID? (y/n): ");
@@ -244,19 +509,20 @@ public class Main {
             Taxable taxableAccount = (Taxable) account;
             System.out.println("\n=== Tax Information ===");
             System.out.println("Tax Rate: " + taxableAccount.getTaxRate() + "%");
-            System.out.println("Tax Amount: Rs." + taxableAccount.calculateTax());
+            System.out.println("Tax Amount: Rs." + Money.format(taxableAccount.calculateTax()));
             System.out.println("Tax Details: " + taxableAccount.getTaxDetails().replace("₹", "Rs."));
         }
 
         if (account instanceof Transferable) {
             Transferable transferableAccount = (Transferable) account;
             System.out.println("\n=== Transfer Information ===");
-            System.out.println("Transfer Limit: Rs." + transferableAccount.getTransferLimit());
+            System.out.println("Transfer Limit: Rs." + Money.format(transferableAccount.getTransferLimit()));
             System.out.println("Transfer Details: " + transferableAccount.getTransferDetails().replace("₹", "Rs."));
         }
     }
 
-    private static void handleTransactions(Account account, Scanner scanner, TransactionService transactionService) {
+    private static void handleTransactions(Account account, Scanner scanner, TransactionService transactionService,
+            StatementReader statementReader) {
         while (true) {
             System.out.println("\nTransaction Options:");
             System.out.println("1. Deposit");
@@ -266,21 +532,22 @@ public class Main {
             if (account instanceof Transferable) {
                 System.out.println("5. Transfer Money");
             }
-            System.out.println("6. Back to Account Creation");
-            System.out.print("Enter your choice (1-6): ");
+            System.out.println("6. View Statement");
+            System.out.println("7. Back to Account Creation");
+            System.out.print("Enter your choice (1-7): ");
             int transChoice = -1;
             while (true) {
                 String input = scanner.nextLine();
                 try {
                     transChoice = Integer.parseInt(input.trim());
-                    if (transChoice >= 1 && transChoice <= 6) break;
+                    if (transChoice >= 1 && transChoice <= 7) break;
                 } catch (NumberFormatException e) {
                     System.err.println("Invalid transaction menu input.");
                 }
-                System.out.print("Invalid choice! Please enter 1-6: ");
+                System.out.print("Invalid choice! Please enter 1-7: ");
             }
 
-            if (transChoice == 6)
+            if (transChoice == 7)
                 break;
 
             switch (transChoice) {
@@ -303,12 +570,60 @@ public class Main {
                         System.out.println("This account does not support transfers.");
                     }
                     break;
+                case 6:
+                    showStatement(account, scanner, statementReader);
+                    break;
                 default:
                     System.out.println("Invalid choice!");
             }
         }
     }
 
+    // Pages through the account's statement, optionally limited to a date range
+    private static void showStatement(Account account, Scanner scanner, StatementReader statementReader) {
+        LocalDate from = getStatementDate(scanner, "From date (yyyy-mm-dd, blank for the first entry): ");
+        LocalDate to = getStatementDate(scanner, "To date (yyyy-mm-dd, blank for today): ");
+        if (from != null && to != null && to.isBefore(from)) {
+            System.out.println("The to date is before the from date.");
+            return;
+        }
+        System.out.println("\n=== Statement for " + account.getAccountId() + " ===");
+        String cursor = null;
+        int shown = 0;
+        try {
+            do {
+                StatementPage page = statementReader.read(account.getAccountId(), from, to, cursor,
+                        STATEMENT_PAGE_SIZE);
+                for (StatementEntry entry : page.getEntries()) {
+                    System.out.println(entry.toString().replace("₹", "Rs."));
+                }
+                shown += page.getEntries().size();
+                cursor = page.getNextCursor();
+            } while (cursor != null && askYesNo(scanner, "Show more? (y/n): "));
+        } catch (IOException e) {
+            System.err.println("Error reading statement.");
+            return;
+        }
+        if (shown == 0) {
+            System.out.println("No transactions in this period.");
+        }
+    }
+
+    private static LocalDate getStatementDate(Scanner scanner, String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = scanner.nextLine().trim();
+            if (input.isEmpty()) {
+                return null;
+            }
+            try {
+                return LocalDate.parse(input);
+            } catch (DateTimeParseException e) {
+                System.out.println("Invalid date. Please use yyyy-mm-dd.");
+            }
+        }
+    }
+
     private static boolean isRunningAsRoot() {
         String os = System.getProperty("os.name").toLowerCase(Locale.ROOT);
 
@@ -324,10 +639,14 @@ public class Main {
         try {
             ProcessBuilder pb = new ProcessBuilder("net", "session");
             pb.redirectErrorStream(true);
+            pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
             Process process = pb.start();
             int exitCode = process.waitFor();
             return exitCode == 0; // 'net session' only works as admin
-        } catch (Exception e) {
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             return false;
         }
     }
@@ -365,27 +684,37 @@ public class Main {
     }
 
     private static boolean canLockLinux() {
-        return isCommandAvailable("gnome-screensaver-command") ||
-                isCommandAvailable("xdg-screensaver") ||
-                isCommandAvailable("loginctl") ||
-                isCommandAvailable("xlock") ||
-                isCommandAvailable("dm-tool");
+        return isAnyCommandAvailable("gnome-screensaver-command", "xdg-screensaver", "loginctl", "xlock", "dm-tool");
     }
 
     private static boolean canLockMac() {
-        return isCommandAvailable("pmset") || isCommandAvailable("osascript");
+        return isAnyCommandAvailable("pmset", "osascript");
     }
 
-    private static boolean isCommandAvailable(String command) {
-        try {
-            ProcessBuilder pb = new ProcessBuilder("which", command);
-            pb.redirectErrorStream(true);
-            Process process = pb.start();
-            int exitCode = process.waitFor();
-            return exitCode == 0;
-        } catch (Exception e) {
+    // Looks for the commands in the PATH directories ourselves, as 'which' would, instead of
+    // forking 'which' once per command
+    private static boolean isAnyCommandAvailable(String... commands) {
+        String path = System.getenv("PATH");
+        if (path == null) {
             return false;
         }
+        for (String directory : path.split(File.pathSeparator)) {
+            if (directory.isEmpty()) {
+                continue;
+            }
+            for (String command : commands) {
+                try {
+                    Path candidate = Paths.get(directory, command);
+                    if (Files.isRegularFile(candidate) && Files.isExecutable(candidate)) {
+                        return true;
+                    }
+                } catch (InvalidPathException e) {
+                    // Not a usable PATH entry
+                    break;
+                }
+            }
+        }
+        return false;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,494 @@
+package com.bankingsystem.http;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Money;
+import com.bankingsystem.service.AccountService;
+import com.bankingsystem.service.StatementEntry;
+import com.bankingsystem.service.StatementPage;
+import com.bankingsystem.service.StatementReader;
+import com.bankingsystem.service.TransactionOperation;
+import com.bankingsystem.service.TransactionResult;
+import com.bankingsystem.service.TransactionService;
+import com.bankingsystem.util.ValidationUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// JSON over HTTP on the JDK's built-in server. Each request runs on its own virtual thread
+// when the JDK has them (21+), otherwise on a fixed pool of platform threads.
+//
+//   POST /accounts                      {"type":"MAIN|SAVINGS|CURRENT","accountNumber","name","balance",
+//                                        "upiId"?, "creditCard"?}
+//   GET  /accounts/{id}
+//   POST /accounts/{id}/deposit         {"amount"}
+//   POST /accounts/{id}/withdraw        {"amount", "upiId"? | "creditCard"?}
+//   POST /accounts/{id}/tax
+//   POST /accounts/{id}/transfer        {"to", "amount"}
+//   GET  /accounts/{id}/statement       ?from=yyyy-mm-dd&to=yyyy-mm-dd&limit=50&cursor=...
+//   GET  /accounts/{id}/holdings        the customer's total and accounts
+//
+// The deposit, withdraw, tax and transfer POSTs take an optional Idempotency-Key header (up to
+// 255 printable ASCII characters). A retry with the same key gets the first request's response,
+// with an "Idempotent-Replayed: true" header, instead of being applied again; the same key on a
+// different request is a 409.
+//
+// Statements come from the audit log a page at a time (see StatementReader); a response with a
+// "nextCursor" has more entries, fetched by repeating the request with that cursor.
+//
+// Balances and amounts are rupees with up to two decimals, as JSON numbers or strings (500,
+// "499.50"); responses always give two decimals. There is no authentication beyond the UPI/card
+// checks on withdrawals, so the server binds to the loopback interface unless given another
+// address.
+public final class BankHttpServer implements AutoCloseable {
+    public enum ThreadMode {
+        VIRTUAL,
+        PLATFORM
+    }
+
+    public static final int DEFAULT_PLATFORM_THREADS = 200;
+    public static final int DEFAULT_STATEMENT_PAGE_SIZE = 50;
+    private static final int BACKLOG = 4096;
+    private static final int MAX_BODY_BYTES = 8192;
+    private static final String ACCOUNTS_PATH = "/accounts";
+
+    static {
+        // The JDK server writes headers and body separately; without TCP_NODELAY, Nagle plus the
+        // client's delayed ACK adds ~40 ms to every keep-alive response. Read once, at first use.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    // Null when there is no audit log directory to read statements from
+    private final StatementReader statementReader;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    public BankHttpServer(InetSocketAddress address, AccountService accountService,
+            TransactionService transactionService, ThreadMode threadMode, int platformThreads) throws IOException {
+        this(address, accountService, transactionService, null, threadMode, platformThreads);
+    }
+
+    public BankHttpServer(InetSocketAddress address, AccountService accountService,
+            TransactionService transactionService, StatementReader statementReader, ThreadMode threadMode,
+            int platformThreads) throws IOException {
+        this.accountService = accountService;
+        this.transactionService = transactionService;
+        this.statementReader = statementReader;
+        ExecutorService virtual = threadMode == ThreadMode.VIRTUAL ? newVirtualThreadExecutor() : null;
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : newPlatformThreadExecutor(platformThreads);
+        this.server = HttpServer.create(address, BACKLOG);
+        this.server.createContext(ACCOUNTS_PATH, this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor via reflection, so the code still builds and
+    // runs on JDKs before 21; returns null there
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformThreadExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "bank-http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    // Stops accepting, gives in-flight exchanges up to a second, then stops the request threads
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            route(exchange);
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            respond(exchange, 500, error("An unexpected error occurred."));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        // "/accounts" -> [""], "/accounts/ID" -> ["", "ID"], "/accounts/ID/deposit" -> ["", "ID", "deposit"]
+        String[] segments = path.substring(ACCOUNTS_PATH.length()).split("/", -1);
+
+        if (segments.length == 1 && segments[0].isEmpty()) {
+            if (!method.equals("POST")) {
+                respond(exchange, 405, error("Method not allowed."));
+                return;
+            }
+            createAccount(exchange, readBody(exchange));
+            return;
+        }
+        if (!segments[0].isEmpty() || segments.length > 3) {
+            respond(exchange, 404, error("Not found."));
+            return;
+        }
+        String accountId = ValidationUtils.validateInput(segments[1], ValidationUtils.getAccountIdPattern());
+        if (accountId == null) {
+            respond(exchange, 404, error("Account not found."));
+            return;
+        }
+        if (segments.length == 2) {
+            if (!method.equals("GET")) {
+                respond(exchange, 405, error("Method not allowed."));
+                return;
+            }
+            Account account = accountService.findAccount(accountId);
+            if (account == null) {
+                respond(exchange, 404, error("Account not found."));
+            } else {
+                respond(exchange, 200, accountJson(account));
+            }
+            return;
+        }
+        if (segments[2].equals("holdings")) {
+            if (!method.equals("GET")) {
+                respond(exchange, 405, error("Method not allowed."));
+                return;
+            }
+            Account account = accountService.findAccount(accountId);
+            if (account == null) {
+                respond(exchange, 404, error("Account not found."));
+            } else {
+                respond(exchange, 200, holdingsJson(account));
+            }
+            return;
+        }
+        if (segments[2].equals("statement") && statementReader != null) {
+            if (!method.equals("GET")) {
+                respond(exchange, 405, error("Method not allowed."));
+                return;
+            }
+            statement(exchange, accountId);
+            return;
+        }
+        if (!method.equals("POST")) {
+            respond(exchange, 405, error("Method not allowed."));
+            return;
+        }
+        Map<String, String> body = readBody(exchange);
+        TransactionOperation operation;
+        switch (segments[2]) {
+            case "deposit":
+                operation = TransactionOperation.deposit(accountId, positive(body, "amount"));
+                break;
+            case "withdraw":
+                operation = withdrawal(accountId, body);
+                break;
+            case "tax":
+                operation = TransactionOperation.payTax(accountId);
+                break;
+            case "transfer":
+                String to = ValidationUtils.validateInput(required(body, "to"), ValidationUtils.getAccountIdPattern());
+                if (to == null) {
+                    throw new IllegalArgumentException("Invalid recipient account ID.");
+                }
+                operation = TransactionOperation.transfer(accountId, to, positive(body, "amount"));
+                break;
+            default:
+                respond(exchange, 404, error("Not found."));
+                return;
+        }
+        String idempotencyKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+        if (idempotencyKey != null) {
+            operation = operation.withIdempotencyKey(idempotencyKey);
+        }
+        TransactionResult result = transactionService.execute(operation);
+        if (result.isReplayed()) {
+            exchange.getResponseHeaders().set("Idempotent-Replayed", "true");
+        }
+        respond(exchange, statusOf(result), resultJson(result));
+    }
+
+    private void createAccount(HttpExchange exchange, Map<String, String> body) throws IOException {
+        String type = required(body, "type");
+        String accNo = ValidationUtils.validateInput(required(body, "accountNumber"),
+                ValidationUtils.getAccountNumberPattern());
+        if (accNo == null) {
+            throw new IllegalArgumentException("Invalid account number.");
+        }
+        String name = ValidationUtils.validateInput(required(body, "name"), ValidationUtils.getNamePattern());
+        if (name == null) {
+            throw new IllegalArgumentException("Invalid name.");
+        }
+        long balance = money(required(body, "balance"), 0, "balance");
+        String upiId = null;
+        if (body.get("upiId") != null) {
+            upiId = ValidationUtils.validateInput(body.get("upiId"), ValidationUtils.getUpiPattern());
+            if (upiId == null || upiId.length() > 50) {
+                throw new IllegalArgumentException("Invalid UPI ID.");
+            }
+        }
+        int creditCard = body.get("creditCard") != null ? number(body.get("creditCard"), 0, "creditCard") : -1;
+
+        Account account;
+        switch (type) {
+            case "MAIN":
+                account = accountService.createMainAccount(accNo, name, balance, upiId, creditCard);
+                break;
+            case "SAVINGS":
+                account = accountService.createSavingsAccount(accNo, name, balance, upiId, creditCard);
+                break;
+            case "CURRENT":
+                account = accountService.createCurrentAccount(accNo, name, balance, upiId, creditCard);
+                break;
+            default:
+                throw new IllegalArgumentException("Account type must be MAIN, SAVINGS or CURRENT.");
+        }
+        if (account == null) {
+            respond(exchange, 409, error("Account already exists."));
+        } else {
+            respond(exchange, 201, accountJson(account));
+        }
+    }
+
+    private void statement(HttpExchange exchange, String accountId) throws IOException {
+        if (accountService.findAccount(accountId) == null) {
+            respond(exchange, 404, error("Account not found."));
+            return;
+        }
+        Map<String, String> query = readQuery(exchange);
+        LocalDate from = date(query.get("from"), "from");
+        LocalDate to = date(query.get("to"), "to");
+        int limit = query.get("limit") != null ? number(query.get("limit"), 1, "limit")
+                : DEFAULT_STATEMENT_PAGE_SIZE;
+        if (limit > StatementReader.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Invalid limit.");
+        }
+        StatementPage page;
+        try {
+            page = statementReader.read(accountId, from, to, query.get("cursor"), limit);
+        } catch (IOException e) {
+            respond(exchange, 500, error("Could not read the audit log."));
+            return;
+        }
+        respond(exchange, 200, statementJson(accountId, page));
+    }
+
+    private static TransactionOperation withdrawal(String accountId, Map<String, String> body) {
+        long amount = positive(body, "amount");
+        String upiId = body.get("upiId");
+        String creditCard = body.get("creditCard");
+        if (upiId != null && creditCard != null) {
+            throw new IllegalArgumentException("Give either upiId or creditCard, not both.");
+        }
+        if (upiId != null) {
+            return TransactionOperation.withdrawWithUpi(accountId, upiId, amount);
+        }
+        if (creditCard != null) {
+            return TransactionOperation.withdrawWithCard(accountId, number(creditCard, 0, "creditCard"), amount);
+        }
+        return TransactionOperation.withdraw(accountId, amount);
+    }
+
+    private static int statusOf(TransactionResult result) {
+        if (result.isSuccess()) {
+            return 200;
+        }
+        switch (result.getFailure()) {
+            case NOT_FOUND:
+                return 404;
+            case UNAUTHORIZED:
+                return 403;
+            case KEY_REUSED:
+                return 409;
+            case LIMIT_EXCEEDED:
+                return 429;
+            case UNEXPECTED:
+                return 500;
+            default:
+                return 422;
+        }
+    }
+
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("Request body too large.");
+        }
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        return text.trim().isEmpty() ? Map.of() : Json.parseObject(text);
+    }
+
+    private static Map<String, String> readQuery(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return query;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            query.put(name, value);
+        }
+        return query;
+    }
+
+    private static LocalDate date(String value, String field) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + field + " date.");
+        }
+    }
+
+    private static String required(Map<String, String> body, String field) {
+        String value = body.get(field);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field: " + field);
+        }
+        return value;
+    }
+
+    private static long positive(Map<String, String> body, String field) {
+        return money(required(body, field), 1, field);
+    }
+
+    private static long money(String value, long minPaise, String field) {
+        try {
+            long paise = Money.parse(value);
+            if (paise >= minPaise) {
+                return paise;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid " + field + ".");
+    }
+
+    private static int number(String value, int min, String field) {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed >= min) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid " + field + ".");
+    }
+
+    private static String accountJson(Account account) {
+        String parent = account.getParentAccountId();
+        return "{\"accountId\":" + Json.quote(account.getAccountId())
+                + ",\"name\":" + Json.quote(account.getName())
+                + ",\"balance\":" + Money.format(account.getBalance())
+                + (parent == null ? "" : ",\"parentAccountId\":" + Json.quote(parent)) + "}";
+    }
+
+    // The total is one consistent read; the balances listed are read one by one after it, so
+    // under concurrent updates they need not add up to it
+    private String holdingsJson(Account account) {
+        long total = account.getCustomerHoldings();
+        StringBuilder json = new StringBuilder(160)
+                .append("{\"accountNumber\":").append(Json.quote(account.getAccountNumber()))
+                .append(",\"total\":").append(Money.format(total)).append(",\"accounts\":[");
+        List<Account> accounts = accountService.findCustomerAccounts(account.getAccountNumber());
+        for (int i = 0; i < accounts.size(); i++) {
+            json.append(i == 0 ? "" : ",").append(accountJson(accounts.get(i)));
+        }
+        return json.append("]}").toString();
+    }
+
+    // A balance of -1 means the account was not found; it is reported as null
+    private static String resultJson(TransactionResult result) {
+        return "{\"success\":" + result.isSuccess()
+                + ",\"amount\":" + Money.format(result.getAmount())
+                + ",\"balance\":" + (result.getBalance() < 0 ? "null" : Money.format(result.getBalance()))
+                + ",\"message\":" + Json.quote(result.getMessage()) + "}";
+    }
+
+    // Balance is null where the log does not record it
+    private static String statementJson(String accountId, StatementPage page) {
+        StringBuilder json = new StringBuilder(64 + page.getEntries().size() * 128)
+                .append("{\"accountId\":").append(Json.quote(accountId)).append(",\"entries\":[");
+        for (int i = 0; i < page.getEntries().size(); i++) {
+            StatementEntry entry = page.getEntries().get(i);
+            json.append(i == 0 ? "{" : ",{")
+                    .append("\"time\":").append(Json.quote(entry.getTime().toString()))
+                    .append(",\"type\":").append(Json.quote(entry.getKind().name()))
+                    .append(",\"credit\":").append(entry.isCredit())
+                    .append(",\"amount\":").append(Money.format(entry.getAmount()))
+                    .append(",\"balance\":")
+                    .append(entry.getBalance() < 0 ? "null" : Money.format(entry.getBalance()));
+            if (entry.getMethod() != null) {
+                json.append(",\"method\":").append(Json.quote(entry.getMethod()));
+            }
+            if (entry.getCounterpartyId() != null) {
+                json.append(",\"counterparty\":").append(Json.quote(entry.getCounterpartyId()));
+            }
+            json.append('}');
+        }
+        return json.append("],\"nextCursor\":").append(Json.quote(page.getNextCursor())).append('}').toString();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + Json.quote(message) + "}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.bankingsystem.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Latency histogram plus success/failure counters for each MeteredOperation. Callers take
+// System.nanoTime() before the operation and pass it to record(); everything else is
+// lock-free adders, so recording stays in the tens of nanoseconds.
+public final class BankMetrics implements BankMetricsMXBean {
+    public static final String OBJECT_NAME = "com.bankingsystem:type=BankMetrics";
+
+    private final Map<MeteredOperation, Meter> meters = new EnumMap<>(MeteredOperation.class);
+
+    public BankMetrics() {
+        for (MeteredOperation operation : MeteredOperation.values()) {
+            meters.put(operation, new Meter());
+        }
+    }
+
+    public void record(MeteredOperation operation, long startNanos, boolean success) {
+        Meter meter = meters.get(operation);
+        meter.latency.record(System.nanoTime() - startNanos);
+        if (success) {
+            meter.successes.increment();
+        } else {
+            meter.failures.increment();
+        }
+    }
+
+    public OperationStats getStats(MeteredOperation operation) {
+        Meter meter = meters.get(operation);
+        return OperationStats.of(operation, meter.successes.sum(), meter.failures.sum(), meter.latency.snapshot());
+    }
+
+    @Override
+    public List<OperationStats> getOperations() {
+        List<OperationStats> stats = new ArrayList<>(meters.size());
+        for (MeteredOperation operation : MeteredOperation.values()) {
+            stats.add(getStats(operation));
+        }
+        return stats;
+    }
+
+    @Override
+    public long getTotalSuccesses() {
+        long total = 0;
+        for (Meter meter : meters.values()) {
+            total += meter.successes.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getTotalFailures() {
+        long total = 0;
+        for (Meter meter : meters.values()) {
+            total += meter.failures.sum();
+        }
+        return total;
+    }
+
+    // Fixed-width table, one row per operation that has been recorded at least once
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%-17s %10s %8s %10s %10s %10s %10s %10s%n",
+                "operation", "ok", "failed", "mean(us)", "p50(us)", "p99(us)", "p999(us)", "max(us)"));
+        for (OperationStats stats : getOperations()) {
+            if (stats.getSuccesses() + stats.getFailures() == 0) {
+                continue;
+            }
+            report.append(String.format(Locale.ROOT, "%-17s %10d %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    stats.getOperation(), stats.getSuccesses(), stats.getFailures(), stats.getMeanMicros(),
+                    stats.getP50Micros(), stats.getP99Micros(), stats.getP999Micros(), stats.getMaxMicros()));
+        }
+        return report.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (Meter meter : meters.values()) {
+            meter.latency.reset();
+            meter.successes.reset();
+            meter.failures.reset();
+        }
+    }
+
+    // Returns false if JMX is unavailable or the name is already taken (e.g. a second instance)
+    public boolean registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+            return true;
+        } catch (JMException | SecurityException e) {
+            return false;
+        }
+    }
+
+    public void unregisterMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException | SecurityException e) {
+            // Nothing to clean up
+        }
+    }
+
+    private static final class Meter {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder successes = new LongAdder();
+        final LongAdder failures = new LongAdder();
+    }
+}
@@ -0,0 +1,16 @@
+package com.bankingsystem.metrics;
+
+import java.util.List;
+
+// Registered as com.bankingsystem:type=BankMetrics; visible in jconsole/VisualVM
+public interface BankMetricsMXBean {
+    List<OperationStats> getOperations();
+
+    long getTotalSuccesses();
+
+    long getTotalFailures();
+
+    String getReport();
+
+    void reset();
+}
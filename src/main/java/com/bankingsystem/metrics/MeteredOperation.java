@@ -0,0 +1,16 @@
+package com.bankingsystem.metrics;
+
+public enum MeteredOperation {
+    DEPOSIT,
+    WITHDRAW,
+    WITHDRAW_UPI,
+    WITHDRAW_CARD,
+    PAY_TAX,
+    TRANSFER,
+    ACCOUNT_CREATION,
+    LOG_WRITE,
+    // One sample per end-of-day run over every account (TaxRunner)
+    TAX_RUN,
+    // One sample per InterestEngine run
+    INTEREST_RUN
+}
@@ -0,0 +1,67 @@
+package com.bankingsystem.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Appends BankMetrics.getReport() to a text file on a fixed schedule (if the interval is
+// positive) and once more on close, so latency history is on disk even when nobody is
+// connected over JMX.
+public final class MetricsReporter implements AutoCloseable {
+    private final BankMetrics metrics;
+    private final Path reportFile;
+    private final ScheduledExecutorService scheduler;
+
+    public MetricsReporter(BankMetrics metrics, Path reportFile, long intervalMillis) {
+        this.metrics = metrics;
+        this.reportFile = reportFile;
+        if (intervalMillis > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "bank-metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.scheduler.scheduleAtFixedRate(this::runScheduledDump, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public void dump() throws IOException {
+        try (Writer writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write("=== " + LocalDateTime.now() + " ===\n");
+            writer.write(metrics.getReport());
+            writer.write("\n");
+        }
+    }
+
+    private void runScheduledDump() {
+        try {
+            dump();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Metrics dump failed.");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        runScheduledDump();
+    }
+}
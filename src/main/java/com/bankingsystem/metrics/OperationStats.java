@@ -0,0 +1,72 @@
+package com.bankingsystem.metrics;
+
+// Point-in-time view of one operation's counters and latency percentiles, in microseconds.
+// Getter-only so the JMX MXBean layer can present it as CompositeData.
+public final class OperationStats {
+    private final String operation;
+    private final long successes;
+    private final long failures;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+
+    public OperationStats(String operation, long successes, long failures, double meanMicros, double p50Micros,
+            double p99Micros, double p999Micros, double maxMicros) {
+        this.operation = operation;
+        this.successes = successes;
+        this.failures = failures;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    static OperationStats of(MeteredOperation operation, long successes, long failures,
+            LatencyHistogram.Snapshot latency) {
+        return new OperationStats(operation.name(), successes, failures,
+                micros(latency.getMeanNanos()),
+                micros(latency.valueAtQuantile(0.50)),
+                micros(latency.valueAtQuantile(0.99)),
+                micros(latency.valueAtQuantile(0.999)),
+                micros(latency.getMaxNanos()));
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+}
@@ -3,146 +3,392 @@ package com.bankingsystem.model;
 import com.bankingsystem.util.EncryptionUtils;
 
 public abstract class Account {
-    protected String acc_no;
-    protected String name;
-    protected int amount;
-    protected String upi_id;
-    protected int credit_card_no = -1;
+    // The balance, account flags and card number live in the shared BalanceStore at this
+    // handle; the object itself only keeps what cannot be a primitive column. Balance updates
+    // are lock-free CAS loops on the store slot, so threads working on different accounts never
+    // contend and threads sharing an account never lose updates.
+    private static final BalanceStore STORE = BalanceStore.shared();
+    // Deposits, transfers in and interest never take a balance above this; the headroom above
+    // it is what lets TransferEngine put a failed transfer's debit back without overflowing
+    public static final long MAX_BALANCE = Long.MAX_VALUE / 2;
+
+    protected final String name;
+    protected final String upi_id;
+    private final int handle;
+
+    // Shared by every account; NONE unless a front end (e.g. the CLI) installs a listener
+    private static volatile AccountEventListener eventListener = AccountEventListener.NONE;
+    // Checked on every withdrawal and outgoing transfer; NONE unless the application installs limits
+    private static volatile VelocityLimits velocityLimits = VelocityLimits.NONE;
 
     protected abstract int getMinBalance();
     protected abstract int getInterestRate();
     public abstract String getAccountId();
 
-    Account(String acc_no, String name, int amount) {
-        this.acc_no = acc_no;
+    // type is one of the BalanceStore.TYPE_* constants; credit_card_no is -1 when not set
+    Account(int type, String name, long balance, String upi_id, int credit_card_no) {
         this.name = name;
-        this.amount = amount;
-        System.out.println("Account created with balance: " + amount);
+        this.upi_id = upi_id;
+        int flags = type;
+        if (upi_id != null) {
+            flags |= BalanceStore.HAS_UPI;
+        }
+        if (credit_card_no != -1) {
+            flags |= BalanceStore.HAS_CARD;
+        }
+        if (balance < 0) {
+            throw new IllegalArgumentException("Opening balance cannot be negative.");
+        }
+        this.handle = STORE.allocate(balance, flags, credit_card_no);
     }
 
-    Account(String acc_no, String name, int amount, String upi_id) {
-        this(acc_no, name, amount);
-        this.upi_id = upi_id;
-        System.out.println("UPI ID added: " + upi_id);
+    // Balance in paise (see Money)
+    public long getBalance() {
+        return STORE.get(handle);
+    }
+
+    // Index of this account's columns in BalanceStore.shared()
+    public int getHandle() {
+        return handle;
     }
 
-    Account(String acc_no, String name, int amount, int credit_card_no) {
-        this(acc_no, name, amount);
-        this.credit_card_no = credit_card_no;
-        System.out.println("Credit card added: [ENCRYPTED]");
+    // The raw number the account was opened with: the account ID without its MAIN/SAV/CUR prefix
+    public String getAccountNumber() {
+        String accountId = getAccountId();
+        return accountId.substring(accountId.startsWith("MAIN") ? 4 : 3);
     }
 
-    Account(String acc_no, String name, int amount, String upi_id, int credit_card_no) {
-        this(acc_no, name, amount, upi_id);
-        this.credit_card_no = credit_card_no;
-        System.out.println("Credit card added: [ENCRYPTED]");
+    // The main account this one belongs to: "MAIN" + the account number for savings and current
+    // accounts, null for a main account
+    public String getParentAccountId() {
+        return (STORE.flags(handle) & BalanceStore.TYPE_MASK) == BalanceStore.TYPE_MAIN ? null
+                : "MAIN" + getAccountNumber();
     }
 
-    public int getAmount() {
-        return this.amount;
+    // Combined balance of every account of this account's customer, once registered (see
+    // AccountRegistry); before that, just this account's balance. O(1) and consistent with the
+    // balances at one instant, even while they are changing.
+    public long getCustomerHoldings() {
+        return STORE.rollupTotal(handle);
     }
 
     public String getName() {
         return this.name;
     }
 
-    public int deposit(int amount) {
+    private int creditCard() {
+        return STORE.card(handle);
+    }
+
+    public static void setEventListener(AccountEventListener listener) {
+        eventListener = listener == null ? AccountEventListener.NONE : listener;
+    }
+
+    static AccountEventListener events() {
+        return eventListener;
+    }
+
+    public static void setVelocityLimits(VelocityLimits limits) {
+        velocityLimits = limits == null ? VelocityLimits.NONE : limits;
+    }
+
+    public static VelocityLimits getVelocityLimits() {
+        return velocityLimits;
+    }
+
+    // Subclass constructors call this last, once the account ID is set
+    protected final void publishCreated() {
+        eventListener.accountCreated(this, this.upi_id, (STORE.flags(handle) & BalanceStore.HAS_CARD) != 0);
+    }
+
+    public long deposit(long amount) {
         try {
-            if (amount <= 0) {
-                throw new IllegalArgumentException("Deposit amount must be positive.");
-            }
-            this.amount += amount;
-            System.out.println("Deposited: " + amount + ", New balance: " + this.amount);
+            long newBalance = applyDeposit(amount);
+            eventListener.deposited(this, amount, newBalance);
+            return newBalance;
         } catch (IllegalArgumentException e) {
-            System.err.println("Deposit failed.");
+            eventListener.operationRejected(this, "Deposit", "Deposit failed.");
         } catch (Throwable t) {
-            System.err.println("An unexpected error occurred during deposit.");
+            eventListener.operationRejected(this, "Deposit", "An unexpected error occurred during deposit.");
         }
-        return this.amount;
+        return getBalance();
     }
 
-    public int withdraw(String upi_id, int amount) {
+    public long withdraw(String upi_id, long amount) {
         try {
-            if (upi_id == null || upi_id.trim().isEmpty()) {
-                throw new IllegalArgumentException("Provided UPI ID is null or empty.");
-            }
-            if (this.upi_id == null) {
-                throw new IllegalStateException("No UPI ID is associated with this account.");
-            }
-            if (!this.upi_id.equals(upi_id)) {
-                throw new SecurityException("Provided UPI ID does not match the account's UPI ID.");
-            }
-            if (amount <= 0) {
-                throw new IllegalArgumentException("Withdrawal amount must be positive.");
-            }
-            if (this.amount >= amount) {
-                this.amount -= amount;
-            } else {
-                throw new ArithmeticException("Insufficient balance.");
-            }
+            long newBalance = applyWithdrawal(upi_id, amount);
+            eventListener.withdrawn(this, "UPI", amount, newBalance);
+            return newBalance;
+        } catch (VelocityLimitException e) {
+            eventListener.operationRejected(this, "Withdrawal", limitReached(e));
         } catch (IllegalArgumentException | IllegalStateException | SecurityException | ArithmeticException e) {
-            System.err.println("Withdrawal failed.");
+            eventListener.operationRejected(this, "Withdrawal", "Withdrawal failed.");
         } catch (Throwable t) {
-            System.err.println("An unexpected error occurred during withdrawal.");
-        } finally {
-            System.out.println("UPI ID: " + this.upi_id);
+            eventListener.operationRejected(this, "Withdrawal", "An unexpected error occurred during withdrawal.");
         }
-        return this.amount;
+        return getBalance();
     }
 
-    public int withdraw(int credit_card_no, int amount) {
+    public long withdraw(int credit_card_no, long amount) {
         try {
-            if (this.credit_card_no != credit_card_no) {
-                throw new SecurityException("Provided credit card number does not match the account's credit card.");
-            }
-            if (credit_card_no < 0) {
-                throw new IllegalArgumentException("Credit card number cannot be negative.");
-            }
-            if (amount <= 0) {
-                throw new IllegalArgumentException("Withdrawal amount must be positive.");
-            }
-            if (this.amount >= amount) {
-                this.amount -= amount;
-            } else {
-                throw new ArithmeticException("Insufficient balance.");
-            }
+            long newBalance = applyWithdrawal(credit_card_no, amount);
+            eventListener.withdrawn(this, "Credit Card", amount, newBalance);
+            return newBalance;
+        } catch (VelocityLimitException e) {
+            eventListener.operationRejected(this, "Withdrawal", limitReached(e));
         } catch (IllegalArgumentException | ArithmeticException | SecurityException e) {
-            System.err.println("Withdrawal failed.");
+            eventListener.operationRejected(this, "Withdrawal", "Withdrawal failed.");
         } catch (Throwable t) {
-            System.err.println("An unexpected error occurred during withdrawal.");
-        } finally {
-            System.out.println("Credit card number: [ENCRYPTED]");
+            eventListener.operationRejected(this, "Withdrawal", "An unexpected error occurred during withdrawal.");
+        }
+        return getBalance();
+    }
+
+    public long withdraw(long amount) {
+        try {
+            long newBalance = applyWithdrawal(amount);
+            eventListener.withdrawn(this, "Simple", amount, newBalance);
+            return newBalance;
+        } catch (VelocityLimitException e) {
+            eventListener.operationRejected(this, "Withdrawal", limitReached(e));
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            eventListener.operationRejected(this, "Withdrawal", "Withdrawal failed.");
+        } catch (Throwable t) {
+            eventListener.operationRejected(this, "Withdrawal", "An unexpected error occurred during withdrawal.");
+        }
+        return getBalance();
+    }
+
+    static String limitReached(VelocityLimitException e) {
+        return "Limit of " + e.getRule() + " reached; try again later.";
+    }
+
+    // The apply* methods are the non-interactive forms of deposit/withdraw: they print nothing,
+    // return the new balance on success and throw on failure so callers can tell the two apart.
+    // Withdrawals throw VelocityLimitException when they would break the velocity limits.
+    public long applyDeposit(long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be positive.");
+        }
+        return credit(amount);
+    }
+
+    public long applyWithdrawal(String upi_id, long amount) {
+        if (upi_id == null || upi_id.trim().isEmpty()) {
+            throw new IllegalArgumentException("Provided UPI ID is null or empty.");
+        }
+        if (this.upi_id == null) {
+            throw new IllegalStateException("No UPI ID is associated with this account.");
+        }
+        if (!this.upi_id.equals(upi_id)) {
+            throw new SecurityException("Provided UPI ID does not match the account's UPI ID.");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be positive.");
         }
-        return this.amount;
+        return debitWithinLimits(amount);
     }
 
-    public int withdraw(int amount) {
+    public long applyWithdrawal(int credit_card_no, long amount) {
+        if (creditCard() != credit_card_no) {
+            throw new SecurityException("Provided credit card number does not match the account's credit card.");
+        }
+        if (credit_card_no < 0) {
+            throw new IllegalArgumentException("Credit card number cannot be negative.");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be positive.");
+        }
+        return debitWithinLimits(amount);
+    }
+
+    public long applyWithdrawal(long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be positive.");
+        }
+        return debitWithinLimits(amount);
+    }
+
+    // Withdrawals: the debit is counted against the velocity limits first, and taken back off
+    // them if it then fails
+    private long debitWithinLimits(long amount) {
+        VelocityLimits limits = velocityLimits;
+        if (limits.isEmpty()) {
+            return debit(amount);
+        }
+        long now = reserve(limits, amount);
+        try {
+            return debit(amount);
+        } catch (RuntimeException e) {
+            limits.release(handle, amount, now);
+            throw e;
+        }
+    }
+
+    // The sending side of a transfer, likewise; returns the sender's new balance
+    final long transferWithinLimits(Account recipient, long amount) {
+        VelocityLimits limits = velocityLimits;
+        if (limits.isEmpty()) {
+            return TransferEngine.transfer(this, recipient, amount);
+        }
+        long now = reserve(limits, amount);
+        try {
+            return TransferEngine.transfer(this, recipient, amount);
+        } catch (RuntimeException e) {
+            limits.release(handle, amount, now);
+            throw e;
+        }
+    }
+
+    // Returns the time the debit was counted at, for release
+    private long reserve(VelocityLimits limits, long amount) {
+        long now = System.nanoTime();
+        VelocityLimits.Rule broken = limits.reserve(handle, amount, now);
+        if (broken != null) {
+            throw new VelocityLimitException(broken);
+        }
+        return now;
+    }
+
+    // The balance updates below also keep the account's rollup in BalanceStore, when it has
+    // joined one, in step with the balance (see BalanceStore.rollupTotal)
+
+    // Adds to the balance atomically and returns the new balance; throws ArithmeticException if
+    // that would take it above MAX_BALANCE
+    protected final long credit(long amount) {
+        return credit(amount, MAX_BALANCE);
+    }
+
+    // Puts back what a transfer's debit took when its credit leg fails. Not held to MAX_BALANCE,
+    // and it cannot overflow: see TransferEngine.applyLegsUnheld.
+    final void restore(long amount) {
+        credit(amount, Long.MAX_VALUE);
+    }
+
+    private long credit(long amount, long ceiling) {
+        int root = STORE.rollupRoot(handle);
+        if (root < 0) {
+            return add(amount, ceiling);
+        }
+        STORE.enterRollup(root);
+        long delta = 0;
         try {
-            if (amount <= 0) {
-                throw new IllegalArgumentException("Withdrawal amount must be positive.");
+            long updated = add(amount, ceiling);
+            delta = amount;
+            return updated;
+        } finally {
+            STORE.exitRollup(root, delta);
+        }
+    }
+
+    private long add(long amount, long ceiling) {
+        long current;
+        do {
+            current = STORE.get(handle);
+            // Balances are never negative, so ceiling - current cannot overflow
+            if (amount > ceiling - current) {
+                throw new ArithmeticException("Balance limit exceeded.");
             }
-            if (this.amount >= amount) {
-                this.amount -= amount;
-                System.out.println("Withdrawn: " + amount + ", New balance: " + this.amount);
-            } else {
+        } while (!STORE.compareAndSet(handle, current, current + amount));
+        return current + amount;
+    }
+
+    // Subtracts from the balance atomically, never letting it go below zero
+    protected final long debit(long amount) {
+        int root = STORE.rollupRoot(handle);
+        if (root < 0) {
+            return subtract(amount);
+        }
+        STORE.enterRollup(root);
+        long delta = 0;
+        try {
+            long updated = subtract(amount);
+            delta = -amount;
+            return updated;
+        } finally {
+            STORE.exitRollup(root, delta);
+        }
+    }
+
+    private long subtract(long amount) {
+        long current;
+        do {
+            current = STORE.get(handle);
+            if (current < amount) {
                 throw new ArithmeticException("Insufficient balance.");
             }
-        } catch (IllegalArgumentException | ArithmeticException e) {
-            System.err.println("Withdrawal failed.");
-        } catch (Throwable t) {
-            System.err.println("An unexpected error occurred during withdrawal.");
+        } while (!STORE.compareAndSet(handle, current, current - amount));
+        return current - amount;
+    }
+
+    // Debits the tax on the current balance (Money.percentage, rounded half-up to the paisa),
+    // computed from the same balance snapshot that is replaced. Returns the tax deducted.
+    protected final long deductTax(int basisPoints) {
+        int root = STORE.rollupRoot(handle);
+        if (root >= 0) {
+            STORE.enterRollup(root);
+        }
+        long deducted = 0;
+        try {
+            long current;
+            long tax;
+            do {
+                current = STORE.get(handle);
+                tax = Money.percentage(current, basisPoints);
+            } while (!STORE.compareAndSet(handle, current, current - tax));
+            deducted = tax;
+            return tax;
+        } finally {
+            if (root >= 0) {
+                STORE.exitRollup(root, -deducted);
+            }
+        }
+    }
+
+    // Credits days of interest on the current balance, computed from the same balance snapshot
+    // that is replaced; nothing while the balance is below minimumBalance. Returns the interest
+    // credited.
+    protected final long creditInterest(int annualBasisPoints, long minimumBalance, int days) {
+        int root = STORE.rollupRoot(handle);
+        if (root >= 0) {
+            STORE.enterRollup(root);
+        }
+        long credited = 0;
+        try {
+            long current;
+            long interest;
+            do {
+                current = STORE.get(handle);
+                if (current < minimumBalance) {
+                    return 0;
+                }
+                interest = Money.interest(current, annualBasisPoints, days);
+                if (interest == 0) {
+                    return 0;
+                }
+                if (interest > MAX_BALANCE - current) {
+                    throw new ArithmeticException("Balance limit exceeded.");
+                }
+            } while (!STORE.compareAndSet(handle, current, current + interest));
+            credited = interest;
+            return interest;
+        } finally {
+            if (root >= 0) {
+                STORE.exitRollup(root, credited);
+            }
         }
-        return this.amount;
     }
 
     public void display() {
         System.out.println("Account Details:");
-        System.out.println("  Account Number: " + acc_no);
+        System.out.println("  Account Number: " + getAccountNumber());
         System.out.println("  Name: " + name);
-        System.out.println("  Balance: " + amount);
+        System.out.println("  Balance: " + Money.format(getBalance()));
+        System.out.println("  Customer Holdings: " + Money.format(getCustomerHoldings()));
         if (upi_id != null) {
             System.out.println("  UPI ID: " + upi_id);
         }
+        int credit_card_no = creditCard();
         if (credit_card_no != -1) {
             System.out.println("  Credit Card: " + EncryptionUtils.maskCreditCard(credit_card_no));
         }
@@ -150,9 +396,10 @@ public abstract class Account {
 
     @Override
     public String toString() {
-        String str = "Account(" + name + ", Balance: ₹" + amount;
+        String str = "Account(" + name + ", Balance: ₹" + Money.format(getBalance());
         if (upi_id != null)
             str += ", UPI: " + upi_id;
+        int credit_card_no = creditCard();
         if (credit_card_no != -1)
             str += ", Card: " + EncryptionUtils.maskCreditCard(credit_card_no);
         return str + ")";
@@ -0,0 +1,30 @@
+package com.bankingsystem.model;
+
+// Receives what the model used to print. Accounts publish to the listener installed with
+// Account.setEventListener; the default is NONE, so a headless deployment does no console I/O.
+// Implementations are called on the thread doing the operation and must be thread-safe.
+// All amounts and balances are in paise (see Money).
+public interface AccountEventListener {
+    AccountEventListener NONE = new AccountEventListener() {
+    };
+
+    default void accountCreated(Account account, String upiId, boolean creditCardAdded) {
+    }
+
+    default void deposited(Account account, long amount, long newBalance) {
+    }
+
+    // method is "Simple", "UPI" or "Credit Card", as in the audit log
+    default void withdrawn(Account account, String method, long amount, long newBalance) {
+    }
+
+    default void taxPaid(Account account, long taxPaid, long newBalance) {
+    }
+
+    default void transferred(Account from, Account to, long amount) {
+    }
+
+    // reason is safe to show the account holder; it never names the failing credential
+    default void operationRejected(Account account, String operation, String reason) {
+    }
+}
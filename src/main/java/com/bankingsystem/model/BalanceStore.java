@@ -0,0 +1,342 @@
+package com.bankingsystem.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+// Column store behind every Account: balances, flags and card numbers live in primitive arrays
+// indexed by a dense handle, so an Account object is only a thin view (handle, name, ID, UPI)
+// and bulk scans walk contiguous long[] chunks instead of chasing one pointer per account.
+// Columns grow in fixed-size chunks, so growing never copies balances that other threads are
+// CASing. Handles are never reused: accounts are never deleted in this system, and a closed
+// account would simply keep its slot.
+//
+// Accounts can also be joined into a rollup, one per customer (see AccountRegistry): each member
+// points at its rollup's root handle, whose rollup words hold the combined balance of the members
+// plus a state word counting writers in flight (low bits) and completed writes (high bits). Every
+// balance change of a member enters the state, CASes the balance, adds its delta to the total and
+// leaves, so a reader that sees no writers and the same state before and after reading the total
+// has read a total that matched the members' balances at that instant.
+//
+// Every allocation and balance change also marks its handle in a changed-set: one bit per handle,
+// plus a summary bit per 64-handle word, so drainChanged finds the marked handles without reading
+// the columns of the ones that did not change. Marking an already marked handle is a plain read.
+public final class BalanceStore {
+    public static final int TYPE_MAIN = 1;
+    public static final int TYPE_SAVINGS = 2;
+    public static final int TYPE_CURRENT = 3;
+    public static final int TYPE_MASK = 0x3;
+    public static final int HAS_UPI = 0x4;
+    public static final int HAS_CARD = 0x8;
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int CHANGED_WORDS = CHUNK_SIZE >>> 6;
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    // Rollup state word: writers in flight below, completed writes above
+    private static final int WRITER_BITS = 20;
+    private static final long WRITERS_MASK = (1L << WRITER_BITS) - 1;
+    private static final long WRITE_DONE = (1L << WRITER_BITS) - 1;
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    private static final BalanceStore SHARED = new BalanceStore();
+
+    // Replaced (never mutated in place) under the allocation lock; readers see a consistent set
+    private static final class Columns {
+        final long[][] balances;
+        final int[][] flags;
+        final int[][] cards;
+        // Root handle + 1 of the account's rollup, 0 for none
+        final int[][] roots;
+        // [2 * slot] state and [2 * slot + 1] total of the rollup rooted at the slot
+        final long[][] rollups;
+        // Changed-set bits by slot, and a bit per non-zero word of them
+        final long[][] changed;
+        final long[][] changedWords;
+
+        Columns(long[][] balances, int[][] flags, int[][] cards, int[][] roots, long[][] rollups, long[][] changed,
+                long[][] changedWords) {
+            this.balances = balances;
+            this.flags = flags;
+            this.cards = cards;
+            this.roots = roots;
+            this.rollups = rollups;
+            this.changed = changed;
+            this.changedWords = changedWords;
+        }
+    }
+
+    private volatile Columns columns = new Columns(new long[0][], new int[0][], new int[0][], new int[0][],
+            new long[0][], new long[0][], new long[0][]);
+    private volatile int size;
+
+    // Receives each live account's columns during a scan
+    public interface Visitor {
+        void visit(int handle, long balance, int flags);
+    }
+
+    public BalanceStore() {
+    }
+
+    // The store every Account is allocated in
+    public static BalanceStore shared() {
+        return SHARED;
+    }
+
+    synchronized int allocate(long balance, int flags, int card) {
+        int handle = size;
+        if (handle == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Balance store is full.");
+        }
+        int chunk = handle >>> CHUNK_BITS;
+        Columns current = columns;
+        if (chunk == current.balances.length) {
+            current = grow(current);
+        }
+        int slot = handle & CHUNK_MASK;
+        current.flags[chunk][slot] = flags;
+        current.cards[chunk][slot] = card;
+        LONGS.setVolatile(current.balances[chunk], slot, balance);
+        // Publishing size last (after columns) makes the slot visible to scans only once it is
+        // fully written; scans read size before columns for the same reason
+        size = handle + 1;
+        markChanged(handle);
+        return handle;
+    }
+
+    private Columns grow(Columns current) {
+        int chunks = current.balances.length;
+        long[][] balances = Arrays.copyOf(current.balances, chunks + 1);
+        int[][] flags = Arrays.copyOf(current.flags, chunks + 1);
+        int[][] cards = Arrays.copyOf(current.cards, chunks + 1);
+        int[][] roots = Arrays.copyOf(current.roots, chunks + 1);
+        long[][] rollups = Arrays.copyOf(current.rollups, chunks + 1);
+        long[][] changed = Arrays.copyOf(current.changed, chunks + 1);
+        long[][] changedWords = Arrays.copyOf(current.changedWords, chunks + 1);
+        balances[chunks] = new long[CHUNK_SIZE];
+        flags[chunks] = new int[CHUNK_SIZE];
+        cards[chunks] = new int[CHUNK_SIZE];
+        roots[chunks] = new int[CHUNK_SIZE];
+        rollups[chunks] = new long[2 * CHUNK_SIZE];
+        changed[chunks] = new long[CHANGED_WORDS];
+        changedWords[chunks] = new long[CHANGED_WORDS >>> 6];
+        Columns grown = new Columns(balances, flags, cards, roots, rollups, changed, changedWords);
+        columns = grown;
+        return grown;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long get(int handle) {
+        return (long) LONGS.getVolatile(columns.balances[handle >>> CHUNK_BITS], handle & CHUNK_MASK);
+    }
+
+    // Flags and cards are written once, before the handle is published, and never change
+    public int flags(int handle) {
+        return columns.flags[handle >>> CHUNK_BITS][handle & CHUNK_MASK];
+    }
+
+    int card(int handle) {
+        return columns.cards[handle >>> CHUNK_BITS][handle & CHUNK_MASK];
+    }
+
+    boolean compareAndSet(int handle, long expected, long updated) {
+        Columns current = columns;
+        if (!LONGS.compareAndSet(current.balances[handle >>> CHUNK_BITS], handle & CHUNK_MASK, expected, updated)) {
+            return false;
+        }
+        markChanged(current, handle);
+        return true;
+    }
+
+    // Adds the handle to the changed-set. The slot bit is set before the summary bit, and
+    // drainChanged clears them in the opposite order, so a mark is never lost: it is either
+    // drained by a drain in progress or left for the next one.
+    public void markChanged(int handle) {
+        markChanged(columns, handle);
+    }
+
+    private static void markChanged(Columns current, int handle) {
+        int chunk = handle >>> CHUNK_BITS;
+        int word = (handle & CHUNK_MASK) >>> 6;
+        long[] bits = current.changed[chunk];
+        long bit = 1L << handle;
+        if (((long) LONGS.getVolatile(bits, word) & bit) != 0) {
+            return;
+        }
+        LONGS.getAndBitwiseOr(bits, word, bit);
+        long[] words = current.changedWords[chunk];
+        long wordBit = 1L << word;
+        if (((long) LONGS.getVolatile(words, word >>> 6) & wordBit) == 0) {
+            LONGS.getAndBitwiseOr(words, word >>> 6, wordBit);
+        }
+    }
+
+    // Visits every handle marked since the previous drain, in handle order, and unmarks it.
+    // Reads 1/4096 of a word per allocated handle plus one word per 64 handles that changed, so the
+    // cost follows the number of changed accounts. A store has a single drainer (InterestEngine);
+    // a handle changed during the drain is visited now or stays marked for the next one.
+    public void drainChanged(Visitor visitor) {
+        int limit = size;
+        Columns current = columns;
+        for (int c = 0; c << CHUNK_BITS < limit; c++) {
+            long[] words = current.changedWords[c];
+            long[] bits = current.changed[c];
+            for (int s = 0; s < words.length; s++) {
+                if ((long) LONGS.getVolatile(words, s) == 0) {
+                    continue;
+                }
+                for (long summary = (long) LONGS.getAndSet(words, s, 0L); summary != 0; summary &= summary - 1) {
+                    int word = (s << 6) | Long.numberOfTrailingZeros(summary);
+                    for (long marked = (long) LONGS.getAndSet(bits, word, 0L); marked != 0; marked &= marked - 1) {
+                        int handle = (c << CHUNK_BITS) | (word << 6) | Long.numberOfTrailingZeros(marked);
+                        visitor.visit(handle, get(handle), flags(handle));
+                    }
+                }
+            }
+        }
+    }
+
+    // Root handle of the account's rollup, or -1 when it is in none
+    public int rollupRoot(int handle) {
+        return (int) INTS.getVolatile(columns.roots[handle >>> CHUNK_BITS], handle & CHUNK_MASK) - 1;
+    }
+
+    // Adds the account at handle, with its current balance, to the rollup rooted at root; root ==
+    // handle starts a new rollup. An account joins at most once, and must not be changing while it
+    // does: callers join accounts before anyone else can reach them (AccountRegistry.register).
+    public void joinRollup(int handle, int root) {
+        if (rollupRoot(handle) >= 0) {
+            throw new IllegalStateException("Account is already in a rollup.");
+        }
+        if (root != handle && rollupRoot(root) != root) {
+            throw new IllegalArgumentException("Not the root of a rollup.");
+        }
+        enterRollup(root);
+        INTS.setVolatile(columns.roots[handle >>> CHUNK_BITS], handle & CHUNK_MASK, root + 1);
+        exitRollup(root, get(handle));
+    }
+
+    // Writers bracket each balance change of a member with these, passing the change made (0 if
+    // none) on exit. Brackets may nest, e.g. a transfer between two members of one rollup holds
+    // it around both legs so no reader sees the money in neither account.
+    void enterRollup(int root) {
+        LONGS.getAndAdd(columns.rollups[root >>> CHUNK_BITS], 2 * (root & CHUNK_MASK), 1L);
+    }
+
+    void exitRollup(int root, long delta) {
+        long[] chunk = columns.rollups[root >>> CHUNK_BITS];
+        int slot = 2 * (root & CHUNK_MASK);
+        if (delta != 0) {
+            LONGS.getAndAdd(chunk, slot + 1, delta);
+        }
+        LONGS.getAndAdd(chunk, slot, WRITE_DONE);
+    }
+
+    // Combined balance of the members of the account's rollup (its own balance when it is in
+    // none), as of one instant. Waits out writers in flight, which hold the rollup for one CAS.
+    public long rollupTotal(int handle) {
+        int root = rollupRoot(handle);
+        if (root < 0) {
+            return get(handle);
+        }
+        long[] chunk = columns.rollups[root >>> CHUNK_BITS];
+        int slot = 2 * (root & CHUNK_MASK);
+        for (int spins = 0;; spins++) {
+            long state = (long) LONGS.getVolatile(chunk, slot);
+            if ((state & WRITERS_MASK) == 0) {
+                long total = (long) LONGS.getVolatile(chunk, slot + 1);
+                if ((long) LONGS.getVolatile(chunk, slot) == state) {
+                    return total;
+                }
+            }
+            if (spins < SPINS_BEFORE_YIELD) {
+                Thread.onSpinWait();
+            } else {
+                // A writer was preempted mid-change
+                Thread.yield();
+            }
+        }
+    }
+
+    // Bulk reads are plain array loads over whole chunks: each balance is read atomically but the
+    // total is not a point-in-time snapshot while updates are running, like any unlocked scan.
+    // They count every allocated slot, so callers must not build an Account they may not register:
+    // AccountService goes through AccountRegistry.registerNew, which rejects a taken ID first.
+    public long sum() {
+        int remaining = size;
+        Columns current = columns;
+        long total = 0;
+        for (int c = 0; remaining > 0; c++) {
+            long[] chunk = current.balances[c];
+            int limit = Math.min(remaining, CHUNK_SIZE);
+            for (int i = 0; i < limit; i++) {
+                total += chunk[i];
+            }
+            remaining -= limit;
+        }
+        return total;
+    }
+
+    // Sum of balances for one account type (TYPE_MAIN, TYPE_SAVINGS or TYPE_CURRENT)
+    public long sumOfType(int type) {
+        int remaining = size;
+        Columns current = columns;
+        long total = 0;
+        for (int c = 0; remaining > 0; c++) {
+            long[] chunk = current.balances[c];
+            int[] chunkFlags = current.flags[c];
+            int limit = Math.min(remaining, CHUNK_SIZE);
+            for (int i = 0; i < limit; i++) {
+                // Branch-free select keeps the loop vectorizable
+                long match = ((chunkFlags[i] & TYPE_MASK) == type) ? -1L : 0L;
+                total += chunk[i] & match;
+            }
+            remaining -= limit;
+        }
+        return total;
+    }
+
+    public int countOfType(int type) {
+        int remaining = size;
+        Columns current = columns;
+        int count = 0;
+        for (int c = 0; remaining > 0; c++) {
+            int[] chunkFlags = current.flags[c];
+            int limit = Math.min(remaining, CHUNK_SIZE);
+            for (int i = 0; i < limit; i++) {
+                if ((chunkFlags[i] & TYPE_MASK) == type) {
+                    count++;
+                }
+            }
+            remaining -= limit;
+        }
+        return count;
+    }
+
+    // Visits handles [from, to) in order, e.g. one range per worker for a partitioned tax run
+    public void scan(int from, int to, Visitor visitor) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Invalid handle range.");
+        }
+        Columns current = columns;
+        int handle = from;
+        while (handle < to) {
+            int c = handle >>> CHUNK_BITS;
+            long[] chunk = current.balances[c];
+            int[] chunkFlags = current.flags[c];
+            int limit = Math.min(to - (c << CHUNK_BITS), CHUNK_SIZE);
+            for (int i = handle & CHUNK_MASK; i < limit; i++, handle++) {
+                visitor.visit(handle, chunk[i], chunkFlags[i]);
+            }
+        }
+    }
+
+    public void scan(Visitor visitor) {
+        scan(0, size, visitor);
+    }
+}
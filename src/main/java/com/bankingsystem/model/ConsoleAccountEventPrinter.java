@@ -0,0 +1,52 @@
+package com.bankingsystem.model;
+
+// The interactive CLI's listener: prints account events the way the model always has
+public final class ConsoleAccountEventPrinter implements AccountEventListener {
+    @Override
+    public void accountCreated(Account account, String upiId, boolean creditCardAdded) {
+        System.out.println("Account created with balance: " + Money.format(account.getBalance()));
+        if (upiId != null) {
+            System.out.println("UPI ID added: " + upiId);
+        }
+        if (creditCardAdded) {
+            System.out.println("Credit card added: [ENCRYPTED]");
+        }
+        String type = account instanceof SavingsAccount ? "Savings"
+                : account instanceof CurrentAccount ? "Current" : "Main";
+        System.out.println(type + " account created with balance: " + Money.format(account.getBalance()));
+        if (!(account instanceof MainAccount)) {
+            System.out.println("Parent Account ID: MAIN" + account.getAccountNumber());
+        }
+        System.out.println(type + " Account ID: " + account.getAccountId());
+    }
+
+    @Override
+    public void deposited(Account account, long amount, long newBalance) {
+        System.out.println("Deposited: " + Money.format(amount) + ", New balance: " + Money.format(newBalance));
+    }
+
+    @Override
+    public void withdrawn(Account account, String method, long amount, long newBalance) {
+        System.out.println("Withdrawn (" + method + "): " + Money.format(amount) + ", New balance: " + Money.format(newBalance));
+    }
+
+    @Override
+    public void taxPaid(Account account, long taxPaid, long newBalance) {
+        System.out.println("Tax paid: ₹" + Money.format(taxPaid) + ", New balance: ₹" + Money.format(newBalance));
+    }
+
+    @Override
+    public void transferred(Account from, Account to, long amount) {
+        System.out.println("Transfer successful: ₹" + Money.format(amount) + " transferred to " + to.getAccountId());
+    }
+
+    @Override
+    public void operationRejected(Account account, String operation, String reason) {
+        // Deposit and withdrawal failures have always gone to stderr; tax and transfer reasons to stdout
+        if (operation.equals("Deposit") || operation.equals("Withdrawal")) {
+            System.err.println(reason);
+        } else {
+            System.out.println(reason);
+        }
+    }
+}
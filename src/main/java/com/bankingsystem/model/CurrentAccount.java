@@ -1,69 +1,56 @@
 package com.bankingsystem.model;
 
 public class CurrentAccount extends Account implements Taxable {
-    private final int interest_rate = 0;
-    private final int min_balance = 0;
-    private String current_account_id;
-    private String parent_account_id;
-    private final double taxRate = 0.12;
+    private static final int INTEREST_RATE = 0;
+    private static final int MIN_BALANCE = 0;
+    private static final int TAX_RATE_BASIS_POINTS = 1200;
+    private final String current_account_id;
 
-    public CurrentAccount(String parent_acc_no, String name, int amount) {
-        super(parent_acc_no, name, amount);
-        this.parent_account_id = "MAIN" + parent_acc_no;
+    public CurrentAccount(String parent_acc_no, String name, long balance) {
+        super(BalanceStore.TYPE_CURRENT, name, balance, null, -1);
         this.current_account_id = "CUR" + parent_acc_no;
-        System.out.println("Current account created with balance: " + amount);
-        System.out.println("Parent Account ID: " + this.parent_account_id);
-        System.out.println("Current Account ID: " + this.current_account_id);
+        publishCreated();
     }
 
-    CurrentAccount(String parent_acc_no, String name, int amount, String upi_id) {
-        super(parent_acc_no, name, amount, upi_id);
-        this.parent_account_id = "MAIN" + parent_acc_no;
+    CurrentAccount(String parent_acc_no, String name, long balance, String upi_id) {
+        super(BalanceStore.TYPE_CURRENT, name, balance, upi_id, -1);
         this.current_account_id = "CUR" + parent_acc_no;
-        System.out.println("Current account created with balance: " + amount);
-        System.out.println("Parent Account ID: " + this.parent_account_id);
-        System.out.println("Current Account ID: " + this.current_account_id);
+        publishCreated();
     }
 
-    CurrentAccount(String parent_acc_no, String name, int amount, int credit_card_no) {
-        super(parent_acc_no, name, amount, credit_card_no);
-        this.parent_account_id = "MAIN" + parent_acc_no;
+    CurrentAccount(String parent_acc_no, String name, long balance, int credit_card_no) {
+        super(BalanceStore.TYPE_CURRENT, name, balance, null, credit_card_no);
         this.current_account_id = "CUR" + parent_acc_no;
-        System.out.println("Current account created with balance: " + amount);
-        System.out.println("Parent Account ID: " + this.parent_account_id);
-        System.out.println("Current Account ID: " + this.current_account_id);
+        publishCreated();
     }
 
-    CurrentAccount(String parent_acc_no, String name, int amount, String upi_id, int credit_card_no) {
-        super(parent_acc_no, name, amount, upi_id, credit_card_no);
-        this.parent_account_id = "MAIN" + parent_acc_no;
+    CurrentAccount(String parent_acc_no, String name, long balance, String upi_id, int credit_card_no) {
+        super(BalanceStore.TYPE_CURRENT, name, balance, upi_id, credit_card_no);
         this.current_account_id = "CUR" + parent_acc_no;
-        System.out.println("Current account created with balance: " + amount);
-        System.out.println("Parent Account ID: " + this.parent_account_id);
-        System.out.println("Current Account ID: " + this.current_account_id);
+        publishCreated();
     }
 
     // Factory method for safer instantiation
-    public static CurrentAccount createAccount(String parent_acc_no, String name, int amount, String upi_id, int credit_card_no) {
+    public static CurrentAccount createAccount(String parent_acc_no, String name, long balance, String upi_id, int credit_card_no) {
         if (upi_id != null && credit_card_no != -1) {
-            return new CurrentAccount(parent_acc_no, name, amount, upi_id, credit_card_no);
+            return new CurrentAccount(parent_acc_no, name, balance, upi_id, credit_card_no);
         } else if (upi_id != null) {
-            return new CurrentAccount(parent_acc_no, name, amount, upi_id);
+            return new CurrentAccount(parent_acc_no, name, balance, upi_id);
         } else if (credit_card_no != -1) {
-            return new CurrentAccount(parent_acc_no, name, amount, credit_card_no);
+            return new CurrentAccount(parent_acc_no, name, balance, credit_card_no);
         } else {
-            return new CurrentAccount(parent_acc_no, name, amount);
+            return new CurrentAccount(parent_acc_no, name, balance);
         }
     }
 
     @Override
     protected int getInterestRate() {
-        return this.interest_rate;
+        return INTEREST_RATE;
     }
 
     @Override
     protected int getMinBalance() {
-        return this.min_balance;
+        return MIN_BALANCE;
     }
 
     @Override
@@ -72,64 +59,28 @@ public class CurrentAccount extends Account implements Taxable {
     }
 
     @Override
-    public double calculateTax() {
-        return this.amount * taxRate;
+    public long calculateTax() {
+        return Money.percentage(getBalance(), TAX_RATE_BASIS_POINTS);
     }
 
     @Override
     public double getTaxRate() {
-        return taxRate * 100;
+        return Money.toPercent(TAX_RATE_BASIS_POINTS);
     }
 
     @Override
     public void payTax() {
-        double taxAmount = calculateTax();
-        if (this.amount >= taxAmount) {
-            this.amount -= taxAmount;
-            System.out.println("Tax paid: ₹" + taxAmount + ", New balance: ₹" + this.amount);
-        } else {
-            System.out.println("Insufficient balance to pay tax!");
-        }
+        long taxPaid = applyTax();
+        events().taxPaid(this, taxPaid, getBalance());
     }
 
     @Override
-    public String getTaxDetails() {
-        return "Current Account Tax - Rate: " + getTaxRate() + "%, Taxable Amount: ₹" + this.amount;
+    public long applyTax() {
+        return deductTax(TAX_RATE_BASIS_POINTS);
     }
 
     @Override
-    public int deposit(int amount) {
-        try {
-            if (amount <= 0) {
-                throw new IllegalArgumentException("Deposit amount must be positive.");
-            }
-            this.amount += amount;
-            System.out.println("Deposited: " + amount + ", New balance: " + this.amount);
-        } catch (IllegalArgumentException e) {
-            System.err.println("Deposit failed.");
-        } catch (Throwable t) {
-            System.err.println("An unexpected error occurred during deposit.");
-        }
-        return this.amount;
-    }
-
-    @Override
-    public int withdraw(int amount) {
-        try {
-            if (amount <= 0) {
-                throw new IllegalArgumentException("Withdrawal amount must be positive.");
-            }
-            if (this.amount >= amount) {
-                this.amount -= amount;
-                System.out.println("Withdrawn: " + amount + ", New balance: " + this.amount);
-            } else {
-                throw new ArithmeticException("Insufficient balance.");
-            }
-        } catch (IllegalArgumentException | ArithmeticException e) {
-            System.err.println("Withdrawal failed.");
-        } catch (Throwable t) {
-            System.err.println("An unexpected error occurred during withdrawal.");
-        }
-        return this.amount;
+    public String getTaxDetails() {
+        return "Current Account Tax - Rate: " + getTaxRate() + "%, Taxable Amount: ₹" + Money.format(getBalance());
     }
 }
\ No newline at end of file
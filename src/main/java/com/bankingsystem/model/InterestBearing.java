@@ -0,0 +1,13 @@
+package com.bankingsystem.model;
+
+public interface InterestBearing {
+    // Annual rate in basis points (200 = 2% a year)
+    int getInterestRateBasisPoints();
+
+    // Interest accrues on the whole balance only while it is at least this, in paise
+    long getMinimumBalance();
+
+    // Credits the given number of days of interest (Money.interest) on the current balance and
+    // returns it in paise; 0, with nothing credited, while the balance is below the minimum.
+    long applyInterest(int days);
+}
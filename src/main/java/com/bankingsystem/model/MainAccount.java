@@ -1,48 +1,44 @@
 package com.bankingsystem.model;
 
 public class MainAccount extends Account implements Taxable, Transferable {
-    private String main_account_id;
-    private final double taxRate = 0.15;
-    private final double transferLimit = 1000000;
+    private static final int TAX_RATE_BASIS_POINTS = 1500;
+    private static final long TRANSFER_LIMIT = Money.ofRupees(1_000_000);
+    private final String main_account_id;
 
-    public MainAccount(String acc_no, String name, int amount) {
-        super(acc_no, name, amount);
+    public MainAccount(String acc_no, String name, long balance) {
+        super(BalanceStore.TYPE_MAIN, name, balance, null, -1);
         this.main_account_id = "MAIN" + acc_no;
-        System.out.println("Main account created with balance: " + amount);
-        System.out.println("Main Account ID: " + this.main_account_id);
+        publishCreated();
     }
 
-    MainAccount(String acc_no, String name, int amount, String upi_id) {
-        super(acc_no, name, amount, upi_id);
+    MainAccount(String acc_no, String name, long balance, String upi_id) {
+        super(BalanceStore.TYPE_MAIN, name, balance, upi_id, -1);
         this.main_account_id = "MAIN" + acc_no;
-        System.out.println("Main account created with balance: " + amount);
-        System.out.println("Main Account ID: " + this.main_account_id);
+        publishCreated();
     }
 
-    MainAccount(String acc_no, String name, int amount, int credit_card_no) {
-        super(acc_no, name, amount, credit_card_no);
+    MainAccount(String acc_no, String name, long balance, int credit_card_no) {
+        super(BalanceStore.TYPE_MAIN, name, balance, null, credit_card_no);
         this.main_account_id = "MAIN" + acc_no;
-        System.out.println("Main account created with balance: " + amount);
-        System.out.println("Main Account ID: " + this.main_account_id);
+        publishCreated();
     }
 
-    MainAccount(String acc_no, String name, int amount, String upi_id, int credit_card_no) {
-        super(acc_no, name, amount, upi_id, credit_card_no);
+    MainAccount(String acc_no, String name, long balance, String upi_id, int credit_card_no) {
+        super(BalanceStore.TYPE_MAIN, name, balance, upi_id, credit_card_no);
         this.main_account_id = "MAIN" + acc_no;
-        System.out.println("Main account created with balance: " + amount);
-        System.out.println("Main Account ID: " + this.main_account_id);
+        publishCreated();
     }
 
     // Factory method for safer instantiation
-    public static MainAccount createAccount(String acc_no, String name, int amount, String upi_id, int credit_card_no) {
+    public static MainAccount createAccount(String acc_no, String name, long balance, String upi_id, int credit_card_no) {
         if (upi_id != null && credit_card_no != -1) {
-            return new MainAccount(acc_no, name, amount, upi_id, credit_card_no);
+            return new MainAccount(acc_no, name, balance, upi_id, credit_card_no);
         } else if (upi_id != null) {
-            return new MainAccount(acc_no, name, amount, upi_id);
+            return new MainAccount(acc_no, name, balance, upi_id);
         } else if (credit_card_no != -1) {
-            return new MainAccount(acc_no, name, amount, credit_card_no);
+            return new MainAccount(acc_no, name, balance, credit_card_no);
         } else {
-            return new MainAccount(acc_no, name, amount);
+            return new MainAccount(acc_no, name, balance);
         }
     }
 
@@ -62,59 +58,69 @@ public class MainAccount extends Account implements Taxable, Transferable {
     }
 
     @Override
-    public double calculateTax() {
-        return this.amount * taxRate;
+    public long calculateTax() {
+        return Money.percentage(getBalance(), TAX_RATE_BASIS_POINTS);
     }
 
     @Override
     public double getTaxRate() {
-        return taxRate * 100;
+        return Money.toPercent(TAX_RATE_BASIS_POINTS);
     }
 
     @Override
     public void payTax() {
-        double taxAmount = calculateTax();
-        if (this.amount >= taxAmount) {
-            this.amount -= taxAmount;
-            System.out.println("Tax paid: ₹" + taxAmount + ", New balance: ₹" + this.amount);
-        } else {
-            System.out.println("Insufficient balance to pay tax!");
-        }
+        long taxPaid = applyTax();
+        events().taxPaid(this, taxPaid, getBalance());
+    }
+
+    @Override
+    public long applyTax() {
+        return deductTax(TAX_RATE_BASIS_POINTS);
     }
 
     @Override
     public String getTaxDetails() {
-        return "Main Account Tax - Rate: " + getTaxRate() + "%, Taxable Amount: ₹" + this.amount;
+        return "Main Account Tax - Rate: " + getTaxRate() + "%, Taxable Amount: ₹" + Money.format(getBalance());
+    }
+
+    @Override
+    public boolean transfer(Account recipient, long amount) {
+        try {
+            applyTransfer(recipient, amount);
+            events().transferred(this, recipient, amount);
+            return true;
+        } catch (IllegalArgumentException e) {
+            events().operationRejected(this, "Transfer", e.getMessage());
+        } catch (VelocityLimitException e) {
+            events().operationRejected(this, "Transfer", limitReached(e));
+        } catch (ArithmeticException e) {
+            events().operationRejected(this, "Transfer", "Insufficient balance for transfer.");
+        }
+        return false;
     }
 
     @Override
-    public boolean transfer(Account recipient, double amount) {
+    public long applyTransfer(Account recipient, long amount) {
         if (amount <= 0) {
-            System.out.println("Transfer amount must be positive.");
-            return false;
+            throw new IllegalArgumentException("Transfer amount must be positive.");
         }
-        if (amount > transferLimit) {
-            System.out.println("Transfer amount exceeds limit of ₹" + transferLimit);
-            return false;
+        if (amount > TRANSFER_LIMIT) {
+            throw new IllegalArgumentException("Transfer amount exceeds limit of ₹" + Money.format(TRANSFER_LIMIT));
         }
-        if (this.amount >= amount) {
-            this.amount -= amount;
-            recipient.amount += amount;
-            System.out.println("Transfer successful: ₹" + amount + " transferred to " + recipient.getAccountId());
-            return true;
-        } else {
-            System.out.println("Insufficient balance for transfer.");
-            return false;
+        if (recipient == null || recipient == this) {
+            throw new IllegalArgumentException("Transfer recipient must be a different account.");
         }
+        return transferWithinLimits(recipient, amount);
     }
 
     @Override
-    public double getTransferLimit() {
-        return transferLimit;
+    public long getTransferLimit() {
+        return TRANSFER_LIMIT;
     }
 
     @Override
     public String getTransferDetails() {
-        return "Main Account Transfer - Limit: ₹" + transferLimit + ", Current Balance: ₹" + this.amount;
+        return "Main Account Transfer - Limit: ₹" + Money.format(TRANSFER_LIMIT) + ", Current Balance: ₹"
+                + Money.format(getBalance());
     }
 }
\ No newline at end of file
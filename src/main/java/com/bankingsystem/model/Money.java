@@ -0,0 +1,134 @@
+package com.bankingsystem.model;
+
+// Money is a plain long count of paise everywhere in the system: balances, amounts, tax,
+// transfer limits, journal records and log events. This class holds the conversions and the
+// few operations that need a rounding rule, all on primitives, so no hot path boxes a value
+// or builds a BigDecimal.
+//
+// Rules:
+//   - amounts are exact paise; parsing accepts at most two decimal places and never rounds
+//   - percentage charges (tax) are computed in basis points and rounded half-up to the paisa
+//   - interest is simple daily interest on an annual basis-point rate, actual/365, rounded
+//     half-up to the paisa
+//   - every addition or subtraction that could overflow uses Math.addExact/subtractExact,
+//     so an overflow is an ArithmeticException, never a wrapped balance
+public final class Money {
+    public static final long PAISE_PER_RUPEE = 100;
+    public static final int BASIS_POINTS_PER_UNIT = 10_000;
+    public static final int DAYS_PER_YEAR = 365;
+    // Largest rupee value whose paise, plus any fraction, still fit in a long
+    private static final long MAX_RUPEES = (Long.MAX_VALUE - (PAISE_PER_RUPEE - 1)) / PAISE_PER_RUPEE;
+    // Below this (about ₹9.2 lakh crore) paise * basisPoints cannot overflow
+    private static final long MAX_DIRECT_PERCENTAGE = (Long.MAX_VALUE - BASIS_POINTS_PER_UNIT) / BASIS_POINTS_PER_UNIT;
+    private static final long INTEREST_DIVISOR = (long) BASIS_POINTS_PER_UNIT * DAYS_PER_YEAR;
+
+    private Money() {
+    }
+
+    public static long ofRupees(long rupees) {
+        return Math.multiplyExact(rupees, PAISE_PER_RUPEE);
+    }
+
+    // Parses "1234", "1234.5" or "1234.56" (an optional leading ₹ is ignored) into paise.
+    // Throws NumberFormatException for anything else, including negatives and a third decimal.
+    public static long parse(String text) {
+        if (text == null) {
+            throw new NumberFormatException("Amount is missing.");
+        }
+        String value = text.trim();
+        int position = value.startsWith("₹") ? 1 : 0;
+        int end = value.length();
+        if (position == end) {
+            throw new NumberFormatException("Amount is missing.");
+        }
+        long rupees = 0;
+        int integerDigits = 0;
+        while (position < end && value.charAt(position) != '.') {
+            int digit = value.charAt(position++) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid amount.");
+            }
+            if (rupees > (MAX_RUPEES - digit) / 10) {
+                throw new NumberFormatException("Amount too large.");
+            }
+            rupees = rupees * 10 + digit;
+            integerDigits++;
+        }
+        long paise = 0;
+        if (position < end) {
+            // Skip the point; then one or two fraction digits
+            position++;
+            int fractionDigits = end - position;
+            if (fractionDigits < 1) {
+                throw new NumberFormatException("Invalid amount.");
+            }
+            if (fractionDigits > 2) {
+                throw new NumberFormatException("Amounts have at most two decimal places.");
+            }
+            for (int i = 0; i < 2; i++) {
+                int digit = i < fractionDigits ? value.charAt(position + i) - '0' : 0;
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException("Invalid amount.");
+                }
+                paise = paise * 10 + digit;
+            }
+        } else if (integerDigits == 0) {
+            throw new NumberFormatException("Invalid amount.");
+        }
+        return rupees * PAISE_PER_RUPEE + paise;
+    }
+
+    // "1234.50", "-0.05": always two decimals, no grouping, no currency symbol
+    public static String format(long paise) {
+        StringBuilder text = new StringBuilder(24);
+        appendTo(text, paise);
+        return text.toString();
+    }
+
+    public static StringBuilder appendTo(StringBuilder text, long paise) {
+        if (paise < 0) {
+            text.append('-');
+        }
+        // Divide before taking absolute values so Long.MIN_VALUE formats correctly too
+        long rupees = Math.abs(paise / PAISE_PER_RUPEE);
+        int fraction = (int) Math.abs(paise % PAISE_PER_RUPEE);
+        text.append(rupees).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction);
+    }
+
+    // basisPoints / 10000 of a non-negative amount, rounded half-up to the paisa. Exact for any
+    // amount: balances too large for the direct product are split so nothing can overflow.
+    public static long percentage(long paise, int basisPoints) {
+        if (paise < 0 || basisPoints < 0 || basisPoints > BASIS_POINTS_PER_UNIT) {
+            throw new IllegalArgumentException("Percentage needs a non-negative amount and a rate of 0-100%.");
+        }
+        if (paise <= MAX_DIRECT_PERCENTAGE) {
+            return (paise * basisPoints + BASIS_POINTS_PER_UNIT / 2) / BASIS_POINTS_PER_UNIT;
+        }
+        long whole = paise / BASIS_POINTS_PER_UNIT;
+        long remainder = paise % BASIS_POINTS_PER_UNIT;
+        return whole * basisPoints + (remainder * basisPoints + BASIS_POINTS_PER_UNIT / 2) / BASIS_POINTS_PER_UNIT;
+    }
+
+    // Interest on a non-negative amount for the given number of days at an annual rate in basis
+    // points: paise * annualBasisPoints * days / (10000 * 365), rounded half-up to the paisa.
+    // Split like percentage so only a result that cannot fit in a long overflows.
+    public static long interest(long paise, int annualBasisPoints, int days) {
+        if (paise < 0 || annualBasisPoints < 0 || days < 0) {
+            throw new IllegalArgumentException("Interest needs a non-negative amount, rate and period.");
+        }
+        long rate = (long) annualBasisPoints * days;
+        long whole = paise / INTEREST_DIVISOR;
+        long remainder = paise % INTEREST_DIVISOR;
+        return Math.addExact(Math.multiplyExact(whole, rate),
+                (Math.multiplyExact(remainder, rate) + INTEREST_DIVISOR / 2) / INTEREST_DIVISOR);
+    }
+
+    // The rate as a percentage for display, e.g. 1500 basis points -> 15.0
+    public static double toPercent(int basisPoints) {
+        return basisPoints / 100.0;
+    }
+}
@@ -1,11 +1,17 @@
 package com.bankingsystem.model;
 
 public interface Taxable {
-    double calculateTax();
+    // Tax due on the current balance, in paise
+    long calculateTax();
 
+    // Rate as a percentage, for display
     double getTaxRate();
 
     void payTax();
 
+    // Non-interactive payTax: returns the tax deducted, in paise. Tax is a fraction of the
+    // balance it is taken from, so it is always affordable.
+    long applyTax();
+
     String getTaxDetails();
-}
\ No newline at end of file
+}
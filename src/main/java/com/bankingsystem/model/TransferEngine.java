@@ -0,0 +1,80 @@
+package com.bankingsystem.model;
+
+// Applies both legs of a transfer as one unit with respect to other transfers.
+// Accounts hash onto a fixed array of lock stripes, and the two stripes are always taken
+// in ascending index order, so concurrent A->B and B->A transfers cannot deadlock.
+// Deposits and withdrawals stay lock-free; they CAS the same balances the legs do.
+// A transfer between two accounts of one customer also holds their rollup across both legs, so
+// the customer's holdings never show the money as missing.
+final class TransferEngine {
+    private static final BalanceStore STORE = BalanceStore.shared();
+    private static final int STRIPES = 4096;
+    private static final Object[] LOCKS = new Object[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new Object();
+        }
+    }
+
+    private TransferEngine() {
+    }
+
+    // Returns the sender's new balance; throws ArithmeticException if the sender cannot cover it
+    // or the recipient's balance would go above Account.MAX_BALANCE
+    static long transfer(Account from, Account to, long amount) {
+        int fromStripe = stripeOf(from);
+        int toStripe = stripeOf(to);
+        if (fromStripe == toStripe) {
+            synchronized (LOCKS[fromStripe]) {
+                return applyLegs(from, to, amount);
+            }
+        }
+        Object first = LOCKS[Math.min(fromStripe, toStripe)];
+        Object second = LOCKS[Math.max(fromStripe, toStripe)];
+        synchronized (first) {
+            synchronized (second) {
+                return applyLegs(from, to, amount);
+            }
+        }
+    }
+
+    private static long applyLegs(Account from, Account to, long amount) {
+        int root = STORE.rollupRoot(from.getHandle());
+        if (root < 0 || root != STORE.rollupRoot(to.getHandle())) {
+            return applyLegsUnheld(from, to, amount);
+        }
+        STORE.enterRollup(root);
+        try {
+            return applyLegsUnheld(from, to, amount);
+        } finally {
+            STORE.exitRollup(root, 0);
+        }
+    }
+
+    // The stripe locks exclude other transfers but not deposits, withdrawals or rollup readers,
+    // so the debit and credit are two visible steps. The recipient's headroom is checked before
+    // the debit, so the credit fails only if a concurrent deposit used that headroom up first.
+    // Putting the money back then cannot overflow: with both stripes held, the only credits to
+    // the sender since the debit are deposits and interest, which stop at MAX_BALANCE. With none,
+    // the balance is at most what it was before the debit; otherwise it is at most MAX_BALANCE,
+    // and amount is at most MAX_BALANCE too, so restoring it stays within Long.MAX_VALUE.
+    private static long applyLegsUnheld(Account from, Account to, long amount) {
+        if (amount > Account.MAX_BALANCE - to.getBalance()) {
+            throw new ArithmeticException("Balance limit exceeded.");
+        }
+        long newBalance = from.debit(amount);
+        try {
+            to.credit(amount);
+        } catch (ArithmeticException e) {
+            from.restore(amount);
+            throw e;
+        }
+        return newBalance;
+    }
+
+    private static int stripeOf(Account account) {
+        int h = account.getAccountId().hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+}
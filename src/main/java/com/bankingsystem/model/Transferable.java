@@ -1,9 +1,16 @@
 package com.bankingsystem.model;
 
 public interface Transferable {
-    boolean transfer(Account recipient, double amount);
+    // amount in paise
+    boolean transfer(Account recipient, long amount);
 
-    double getTransferLimit();
+    // Non-interactive form of transfer: publishes nothing, returns the sender's new balance and
+    // throws on failure (ArithmeticException when the balance cannot cover it,
+    // VelocityLimitException when it would break the velocity limits)
+    long applyTransfer(Account recipient, long amount);
+
+    // in paise
+    long getTransferLimit();
 
     String getTransferDetails();
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.bankingsystem.model;
+
+// Thrown by the apply* withdrawal and transfer methods when the debit would break one of the
+// installed VelocityLimits. The message is always MESSAGE; TransactionService reports it as a
+// LIMIT_EXCEEDED failure. getRule says which limit it was. There is no stack trace: rejections can arrive as fast as
+// the debits they stop, and the rule already says everything about where they came from.
+public final class VelocityLimitException extends IllegalStateException {
+    public static final String MESSAGE = "Velocity limit exceeded.";
+    private static final long serialVersionUID = 1L;
+
+    private final transient VelocityLimits.Rule rule;
+
+    VelocityLimitException(VelocityLimits.Rule rule) {
+        super(MESSAGE);
+        this.rule = rule;
+    }
+
+    public VelocityLimits.Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
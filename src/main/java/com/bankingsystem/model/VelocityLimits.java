@@ -0,0 +1,269 @@
+package com.bankingsystem.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+// Rolling-window limits on money leaving an account through withdrawals and transfers: at most
+// so many debits, or so much money, per account per window (e.g. 20 a minute, ₹25,00,000 a day).
+//
+// Each rule is a sliding-window counter: the window's count so far plus the previous window's,
+// weighted by how much of it still overlaps the last window length of time. That is exact at
+// window boundaries and otherwise assumes the previous window's debits were spread evenly, in
+// exchange for two longs per rule per account instead of a log of every debit. Each long packs
+// the window number it belongs to (high bits) with the running total (low bits); the two
+// alternate by window parity, so a new window simply overwrites the older one's slot. A check
+// is a couple of volatile reads and one CAS per rule, with nothing allocated and no lock; rules
+// that reject undo the ones already taken, so a rejected debit counts toward nothing.
+//
+// State lives in chunked long[] columns indexed by BalanceStore handle, like the store's own
+// balances, and belongs to this instance: installing new limits starts every account afresh.
+public final class VelocityLimits {
+    public static final VelocityLimits NONE = new VelocityLimits(new Rule[0]);
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int VALUE_BITS = 44;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+    // Window numbers are compared modulo 2^20: an account idle for exactly a multiple of 2^20
+    // windows (two years of one-minute windows) could see stale totals, which only err strict
+    private static final long EPOCH_MASK = (1L << (64 - VALUE_BITS)) - 1;
+    // Weight of the previous window in 1/65536ths
+    private static final int WEIGHT_BITS = 16;
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // One limit: at most max debits (count) or max paise (amount) per window
+    public static final class Rule {
+        private final boolean amount;
+        private final long max;
+        private final long windowNanos;
+
+        private Rule(boolean amount, long max, long windowMillis) {
+            if (max <= 0 || max > VALUE_MASK) {
+                throw new IllegalArgumentException("Velocity limit must be between 1 and " + VALUE_MASK + ".");
+            }
+            if (windowMillis < 1000) {
+                throw new IllegalArgumentException("Velocity window must be at least a second.");
+            }
+            this.amount = amount;
+            this.max = max;
+            this.windowNanos = Math.multiplyExact(windowMillis, 1_000_000L);
+        }
+
+        public static Rule count(long maxDebits, long windowMillis) {
+            return new Rule(false, maxDebits, windowMillis);
+        }
+
+        // maxPaise in paise (see Money)
+        public static Rule amount(long maxPaise, long windowMillis) {
+            return new Rule(true, maxPaise, windowMillis);
+        }
+
+        public boolean isAmount() {
+            return amount;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public long getWindowMillis() {
+            return windowNanos / 1_000_000L;
+        }
+
+        @Override
+        public String toString() {
+            long millis = getWindowMillis();
+            String window = millis % 86_400_000L == 0 ? millis / 86_400_000L + "d"
+                    : millis % 3_600_000L == 0 ? millis / 3_600_000L + "h"
+                    : millis % 60_000L == 0 ? millis / 60_000L + "m" : millis / 1000 + "s";
+            return (amount ? "₹" + Money.format(max) : max + " debits") + " per " + window;
+        }
+    }
+
+    private final Rule[] rules;
+    // Two slots per rule per account, [handle & CHUNK_MASK][rule][parity], one array per chunk
+    private final int stride;
+    private volatile long[][] chunks = new long[0][];
+
+    private VelocityLimits(Rule[] rules) {
+        this.rules = rules;
+        this.stride = rules.length * 2;
+    }
+
+    public static VelocityLimits of(Rule... rules) {
+        return rules.length == 0 ? NONE : new VelocityLimits(rules.clone());
+    }
+
+    // Comma-separated rules: count:<debits>/<window> or amount:<rupees>/<window>, with windows
+    // such as 30s, 10m, 1h or 1d, e.g. "count:20/1m,amount:2500000/1d"; "off" or "" for none
+    public static VelocityLimits parse(String spec) {
+        String trimmed = spec.trim();
+        if (trimmed.isEmpty() || trimmed.equalsIgnoreCase("off")) {
+            return NONE;
+        }
+        List<Rule> rules = new ArrayList<>();
+        for (String part : trimmed.split(",")) {
+            String rule = part.trim().toLowerCase(Locale.ROOT);
+            int colon = rule.indexOf(':');
+            int slash = rule.indexOf('/');
+            if (colon < 0 || slash < colon) {
+                throw new IllegalArgumentException("Invalid velocity rule: " + part.trim());
+            }
+            String kind = rule.substring(0, colon).trim();
+            String limit = rule.substring(colon + 1, slash).trim();
+            long windowMillis = parseWindow(rule.substring(slash + 1).trim(), part.trim());
+            try {
+                if (kind.equals("count")) {
+                    rules.add(Rule.count(Long.parseLong(limit), windowMillis));
+                } else if (kind.equals("amount")) {
+                    rules.add(Rule.amount(Money.parse(limit), windowMillis));
+                } else {
+                    throw new IllegalArgumentException("Invalid velocity rule: " + part.trim());
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid velocity rule: " + part.trim());
+            }
+        }
+        return of(rules.toArray(new Rule[0]));
+    }
+
+    private static long parseWindow(String window, String rule) {
+        long unit;
+        switch (window.isEmpty() ? ' ' : window.charAt(window.length() - 1)) {
+            case 's':
+                unit = 1000L;
+                break;
+            case 'm':
+                unit = 60_000L;
+                break;
+            case 'h':
+                unit = 3_600_000L;
+                break;
+            case 'd':
+                unit = 86_400_000L;
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid velocity window in rule: " + rule);
+        }
+        try {
+            return Math.multiplyExact(Long.parseLong(window.substring(0, window.length() - 1)), unit);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid velocity window in rule: " + rule);
+        }
+    }
+
+    public List<Rule> getRules() {
+        return Collections.unmodifiableList(Arrays.asList(rules));
+    }
+
+    public boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    // Counts a debit of amount at nowNanos (System.nanoTime) against every rule for the account
+    // at handle. Returns null when all rules allow it, or the first rule it would break, in which
+    // case nothing is counted.
+    Rule reserve(int handle, long amount, long nowNanos) {
+        long[] chunk = chunk(handle);
+        int base = (handle & CHUNK_MASK) * stride;
+        for (int r = 0; r < rules.length; r++) {
+            Rule rule = rules[r];
+            if (!tryAdd(chunk, base + r * 2, rule, rule.amount ? amount : 1, nowNanos)) {
+                for (int undo = 0; undo < r; undo++) {
+                    subtract(chunk, base + undo * 2, rules[undo], rules[undo].amount ? amount : 1, nowNanos);
+                }
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    // Takes back a reserve made with the same arguments, when the debit itself then failed
+    void release(int handle, long amount, long nowNanos) {
+        long[] chunk = chunk(handle);
+        int base = (handle & CHUNK_MASK) * stride;
+        for (int r = 0; r < rules.length; r++) {
+            subtract(chunk, base + r * 2, rules[r], rules[r].amount ? amount : 1, nowNanos);
+        }
+    }
+
+    private static boolean tryAdd(long[] chunk, int slots, Rule rule, long add, long nowNanos) {
+        if (add > rule.max) {
+            return false;
+        }
+        long epoch = Math.floorDiv(nowNanos, rule.windowNanos);
+        long elapsed = nowNanos - epoch * rule.windowNanos;
+        long tag = epoch & EPOCH_MASK;
+        int current = slots + (int) (epoch & 1);
+        int previous = slots + (int) (~epoch & 1);
+        while (true) {
+            long packed = (long) LONGS.getVolatile(chunk, current);
+            long total = packed >>> VALUE_BITS == tag ? packed & VALUE_MASK : 0;
+            long before = (long) LONGS.getVolatile(chunk, previous);
+            long previousTotal = before >>> VALUE_BITS == ((epoch - 1) & EPOCH_MASK) ? before & VALUE_MASK : 0;
+            if (previousTotal > 0) {
+                long weight = (rule.windowNanos - elapsed) / (rule.windowNanos >> WEIGHT_BITS);
+                // Rounded up, so the estimate never undercounts
+                total += (previousTotal * weight + (1L << WEIGHT_BITS) - 1) >>> WEIGHT_BITS;
+            }
+            if (total + add > rule.max) {
+                return false;
+            }
+            long counted = packed >>> VALUE_BITS == tag ? packed & VALUE_MASK : 0;
+            if (LONGS.compareAndSet(chunk, current, packed, tag << VALUE_BITS | (counted + add))) {
+                return true;
+            }
+        }
+    }
+
+    private static void subtract(long[] chunk, int slots, Rule rule, long sub, long nowNanos) {
+        long epoch = Math.floorDiv(nowNanos, rule.windowNanos);
+        long tag = epoch & EPOCH_MASK;
+        int current = slots + (int) (epoch & 1);
+        while (true) {
+            long packed = (long) LONGS.getVolatile(chunk, current);
+            // Its window's slot has since been reused by a later window: nothing left to undo
+            if (packed >>> VALUE_BITS != tag) {
+                return;
+            }
+            long counted = packed & VALUE_MASK;
+            if (LONGS.compareAndSet(chunk, current, packed, tag << VALUE_BITS | Math.max(0, counted - sub))) {
+                return;
+            }
+        }
+    }
+
+    private long[] chunk(int handle) {
+        long[][] current = chunks;
+        int index = handle >>> CHUNK_BITS;
+        long[] chunk = index < current.length ? current[index] : null;
+        return chunk != null ? chunk : allocate(index);
+    }
+
+    // Only chunks holding accounts that have debited are allocated. Chunks are never copied into,
+    // only the array of them, so allocating cannot lose a concurrent update.
+    private synchronized long[] allocate(int index) {
+        long[][] current = chunks;
+        if (index >= current.length) {
+            current = Arrays.copyOf(current, index + 1);
+        } else if (current[index] != null) {
+            return current[index];
+        } else {
+            current = current.clone();
+        }
+        current[index] = new long[CHUNK_SIZE * stride];
+        chunks = current;
+        return current[index];
+    }
+
+    @Override
+    public String toString() {
+        return rules.length == 0 ? "none" : Arrays.toString(rules);
+    }
+}
@@ -0,0 +1,226 @@
+package com.bankingsystem.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+// Compact point-in-time image of every account, covering all journal segments up to and
+// including coveredSequence. Files are named snapshot-<coveredSequence>.snap. Layout:
+//
+//   int    magic "BSNP"
+//   int    format version
+//   long   covered journal segment sequence
+//   long   epoch day interest has been accrued through (Long.MIN_VALUE if never)
+//   long   epoch day the tax run has been run for (Long.MIN_VALUE if never)
+//   int    account count
+//   per account: id, name, upi, encrypted card (length-prefixed UTF-8), long balance (paise)
+//   int    CRC32C of everything before it
+//
+// A snapshot is written to a temporary file and atomically renamed into place, so a crash
+// mid-write leaves the previous snapshot as the latest valid one. Reading one with another magic
+// or format version throws rather than fall back to an older snapshot.
+public final class AccountSnapshot {
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private static final int MAGIC = 0x42534E50;
+    private static final int VERSION = 4;
+    // Everything before the accounts, and the trailing CRC
+    private static final int MIN_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 4;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final long coveredSequence;
+    private final long interestAccruedThrough;
+    private final long taxedThrough;
+    private final Map<String, RecoveredAccount> accounts;
+
+    private AccountSnapshot(long coveredSequence, long interestAccruedThrough, long taxedThrough,
+            Map<String, RecoveredAccount> accounts) {
+        this.coveredSequence = coveredSequence;
+        this.interestAccruedThrough = interestAccruedThrough;
+        this.taxedThrough = taxedThrough;
+        this.accounts = accounts;
+    }
+
+    // Journal segments with a sequence at or below this are already folded into the snapshot
+    public long getCoveredSequence() {
+        return coveredSequence;
+    }
+
+    // Epoch day, or JournalReplayer.NO_INTEREST_RUN
+    long getInterestAccruedThrough() {
+        return interestAccruedThrough;
+    }
+
+    // Epoch day, or JournalReplayer.NO_TAX_RUN
+    long getTaxedThrough() {
+        return taxedThrough;
+    }
+
+    public Map<String, RecoveredAccount> getAccounts() {
+        return accounts;
+    }
+
+    static AccountSnapshot empty() {
+        return new AccountSnapshot(-1, JournalReplayer.NO_INTEREST_RUN, JournalReplayer.NO_TAX_RUN, new HashMap<>());
+    }
+
+    public static Path write(Path directory, long coveredSequence, long interestAccruedThrough, long taxedThrough,
+            Collection<RecoveredAccount> accounts) throws IOException {
+        Path target = directory.resolve(snapshotName(coveredSequence));
+        Path temp = directory.resolve(snapshotName(coveredSequence) + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            TransactionJournal.restrictToOwner(temp.toFile(), false);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(coveredSequence);
+            buffer.putLong(interestAccruedThrough);
+            buffer.putLong(taxedThrough);
+            buffer.putInt(accounts.size());
+            for (RecoveredAccount account : accounts) {
+                byte[] id = encode(account.getAccountId());
+                byte[] name = encode(account.getName());
+                byte[] upi = encode(account.getUpiId());
+                byte[] card = encode(account.getEncryptedCard());
+                int length = 2 + id.length + 2 + name.length + 2 + upi.length + 2 + card.length + 8;
+                if (buffer.remaining() < length) {
+                    drain(channel, buffer, crc);
+                }
+                putString(buffer, id);
+                putString(buffer, name);
+                putString(buffer, upi);
+                putString(buffer, card);
+                buffer.putLong(account.getBalance());
+            }
+            drain(channel, buffer, crc);
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return target;
+    }
+
+    // Loads the newest snapshot that passes its checksum, or an empty one if there is none
+    public static AccountSnapshot readLatest(Path directory) throws IOException {
+        List<Path> snapshots = listSnapshots(directory);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            AccountSnapshot snapshot = read(snapshots.get(i));
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        return empty();
+    }
+
+    private static AccountSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MIN_SIZE || size > Integer.MAX_VALUE) {
+                System.err.println("Ignoring invalid snapshot " + file.getFileName());
+                return null;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer body = mapped.duplicate();
+            body.limit((int) size - 4);
+            CRC32C crc = new CRC32C();
+            crc.update(body);
+            if ((int) crc.getValue() != mapped.getInt((int) size - 4)) {
+                System.err.println("Ignoring corrupt snapshot " + file.getFileName());
+                return null;
+            }
+            int magic = mapped.getInt();
+            int version = mapped.getInt();
+            if (magic != MAGIC || version != VERSION) {
+                throw new IOException("Unsupported snapshot " + file.getFileName());
+            }
+            long coveredSequence = mapped.getLong();
+            long interestAccruedThrough = mapped.getLong();
+            long taxedThrough = mapped.getLong();
+            int count = mapped.getInt();
+            Map<String, RecoveredAccount> accounts = new HashMap<>(Math.max(16, (int) (count / 0.75f) + 1));
+            for (int i = 0; i < count; i++) {
+                String id = getString(mapped);
+                String name = getString(mapped);
+                String upi = getString(mapped);
+                String card = getString(mapped);
+                long balance = mapped.getLong();
+                accounts.put(id, new RecoveredAccount(id, name, balance, upi, card));
+            }
+            return new AccountSnapshot(coveredSequence, interestAccruedThrough, taxedThrough, accounts);
+        }
+    }
+
+    static List<Path> listSnapshots(Path directory) throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            for (Path snapshot : stream) {
+                snapshots.add(snapshot);
+            }
+        }
+        // Zero-padded sequence numbers, so name order is sequence order
+        Collections.sort(snapshots);
+        return snapshots;
+    }
+
+    static long snapshotSequence(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    private static String snapshotName(long coveredSequence) {
+        return String.format("%s%020d%s", SNAPSHOT_PREFIX, coveredSequence, SNAPSHOT_SUFFIX);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,83 @@
+package com.bankingsystem.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Periodically folds sealed journal segments into a new snapshot and deletes what it replaces.
+//
+// A checkpoint never reads live Account objects, so transaction processing is not paused:
+// it rolls the journal (a brief lock inside TransactionJournal), then on this thread loads the
+// previous snapshot, replays the sealed segments on top of it, writes the result as the new
+// snapshot and finally removes the covered segments and older snapshots. A crash at any point
+// leaves either the old snapshot plus all its segments, or the new snapshot, as the latest
+// consistent state.
+public final class JournalCheckpointer implements AutoCloseable {
+    private final TransactionJournal journal;
+    private final Path directory;
+    private final ScheduledExecutorService scheduler;
+
+    public JournalCheckpointer(TransactionJournal journal, long intervalMillis) {
+        this.journal = journal;
+        this.directory = journal.getDirectory();
+        if (intervalMillis > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "bank-journal-checkpointer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.scheduler.scheduleWithFixedDelay(this::runScheduledCheckpoint, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    // Returns the number of accounts in the new snapshot
+    public synchronized int checkpoint() throws IOException {
+        long sealed = journal.roll();
+        AccountSnapshot previous = AccountSnapshot.readLatest(directory);
+        JournalReplayer replayer = new JournalReplayer(previous.getAccounts(), previous.getInterestAccruedThrough(),
+                previous.getTaxedThrough());
+        replayer.replaySegmentsAfter(directory, previous.getCoveredSequence(), sealed);
+        AccountSnapshot.write(directory, sealed, replayer.getInterestAccruedThroughDay(),
+                replayer.getTaxedThroughDay(), replayer.getAccounts().values());
+
+        for (Path segment : JournalReplayer.listSegments(directory)) {
+            if (JournalReplayer.segmentSequence(segment) <= sealed) {
+                Files.deleteIfExists(segment);
+            }
+        }
+        for (Path snapshot : AccountSnapshot.listSnapshots(directory)) {
+            if (AccountSnapshot.snapshotSequence(snapshot) < sealed) {
+                Files.deleteIfExists(snapshot);
+            }
+        }
+        return replayer.getAccounts().size();
+    }
+
+    private void runScheduledCheckpoint() {
+        try {
+            checkpoint();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Checkpoint failed; journal segments retained.");
+        }
+    }
+
+    // Stops the schedule and takes a final checkpoint so the next start loads a snapshot only
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        runScheduledCheckpoint();
+    }
+}
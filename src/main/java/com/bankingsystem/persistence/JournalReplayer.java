@@ -0,0 +1,263 @@
+package com.bankingsystem.persistence;
+
+import com.bankingsystem.model.Money;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+// Rebuilds account state by folding journal segments in sequence order.
+// Segments are memory-mapped and decoded in place; only one RecoveredAccount per account is
+// kept, so memory is proportional to the number of accounts, not the number of records.
+// Balance records carry per-segment account ordinals, so the hot loop is an array index and
+// an add - no string decoding or hashing per record.
+public final class JournalReplayer {
+    // Epoch day value meaning no interest run has been recorded
+    static final long NO_INTEREST_RUN = Long.MIN_VALUE;
+    // Likewise for tax runs
+    static final long NO_TAX_RUN = Long.MIN_VALUE;
+
+    private final Map<String, RecoveredAccount> accounts;
+    private RecoveredAccount[] byOrdinal = new RecoveredAccount[1024];
+    private int ordinalCount;
+    // Account ID -> ordinal in the segment being replayed, only to reuse an ID's first ordinal
+    private final Map<String, Integer> segmentOrdinals = new HashMap<>();
+    private long recordsApplied;
+    // Latest epoch day an interest run was started for
+    private long interestAccruedThrough;
+    // Latest epoch day a tax run was started for
+    private long taxedThrough;
+
+    public JournalReplayer() {
+        this(new HashMap<>(), NO_INTEREST_RUN, NO_TAX_RUN);
+    }
+
+    JournalReplayer(Map<String, RecoveredAccount> initialState, long interestAccruedThrough, long taxedThrough) {
+        this.accounts = initialState;
+        this.interestAccruedThrough = interestAccruedThrough;
+        this.taxedThrough = taxedThrough;
+    }
+
+    // Loads the latest snapshot and replays only the journal segments written after it.
+    // A missing directory means no accounts.
+    public static JournalReplayer replayDirectory(Path directory) throws IOException {
+        AccountSnapshot snapshot = AccountSnapshot.readLatest(directory);
+        JournalReplayer replayer = new JournalReplayer(snapshot.getAccounts(), snapshot.getInterestAccruedThrough(),
+                snapshot.getTaxedThrough());
+        replayer.replaySegmentsAfter(directory, snapshot.getCoveredSequence(), Long.MAX_VALUE);
+        return replayer;
+    }
+
+    // Replays segments with afterSequence < sequence <= throughSequence, in order
+    void replaySegmentsAfter(Path directory, long afterSequence, long throughSequence) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        for (Path segment : listSegments(directory)) {
+            long sequence = segmentSequence(segment);
+            if (sequence > afterSequence && sequence <= throughSequence) {
+                replaySegment(segment);
+            }
+        }
+    }
+
+    public Map<String, RecoveredAccount> getAccounts() {
+        return accounts;
+    }
+
+    public long getRecordsApplied() {
+        return recordsApplied;
+    }
+
+    // The last day interest has been run for, or null if it never has
+    public LocalDate getInterestAccruedThrough() {
+        return interestAccruedThrough == NO_INTEREST_RUN ? null : LocalDate.ofEpochDay(interestAccruedThrough);
+    }
+
+    long getInterestAccruedThroughDay() {
+        return interestAccruedThrough;
+    }
+
+    // The last day the end-of-day tax run has been run for, or null if it never has
+    public LocalDate getTaxedThrough() {
+        return taxedThrough == NO_TAX_RUN ? null : LocalDate.ofEpochDay(taxedThrough);
+    }
+
+    long getTaxedThroughDay() {
+        return taxedThrough;
+    }
+
+    // Applies one segment. Decoding stops at the first incomplete or corrupt record, which can
+    // only be the tail of a segment that was being written when the process died. Throws
+    // IOException for a segment that does not start with the AMOUNT_UNIT this version writes.
+    public void replaySegment(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Journal segment too large.");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            // Ordinals are scoped to one segment
+            Arrays.fill(byOrdinal, 0, ordinalCount, null);
+            ordinalCount = 0;
+            segmentOrdinals.clear();
+            boolean header = true;
+            CRC32C crc = new CRC32C();
+            while (mapped.remaining() >= 4) {
+                int start = mapped.position();
+                int payloadLength = mapped.getInt();
+                if (payloadLength <= 0 || mapped.remaining() < payloadLength + 4) {
+                    System.err.println("Ignoring truncated journal record in " + segment.getFileName());
+                    return;
+                }
+                ByteBuffer payload = mapped.slice();
+                payload.limit(payloadLength);
+                crc.reset();
+                crc.update(payload.duplicate());
+                mapped.position(start + 4 + payloadLength);
+                if ((int) crc.getValue() != mapped.getInt()) {
+                    System.err.println("Ignoring corrupt journal record in " + segment.getFileName());
+                    return;
+                }
+                if (header) {
+                    if (payload.get() != TransactionJournal.AMOUNT_UNIT || payload.getInt() != Money.PAISE_PER_RUPEE) {
+                        throw new IOException("Unsupported journal segment " + segment.getFileName());
+                    }
+                    header = false;
+                    continue;
+                }
+                apply(payload);
+            }
+        }
+    }
+
+    private void apply(ByteBuffer record) throws IOException {
+        byte type = record.get();
+        switch (type) {
+            case TransactionJournal.ACCOUNT_CREATED: {
+                String accountId = getString(record);
+                String name = getString(record);
+                long balance = record.getLong();
+                String upiId = emptyToNull(getString(record));
+                String encryptedCard = emptyToNull(getString(record));
+                RecoveredAccount account = accounts.get(accountId);
+                if (account == null) {
+                    account = new RecoveredAccount(accountId, name, balance, upiId, encryptedCard);
+                    accounts.put(accountId, account);
+                }
+                bindOrdinal(accountId, account);
+                break;
+            }
+            case TransactionJournal.ACCOUNT_REF: {
+                // Bookkeeping only, not counted as an applied operation
+                String accountId = getString(record);
+                bindOrdinal(accountId, accounts.get(accountId));
+                return;
+            }
+            case TransactionJournal.INTEREST_RUN:
+                // Bookkeeping only, like ACCOUNT_REF
+                interestAccruedThrough = Math.max(interestAccruedThrough, record.getLong());
+                return;
+            case TransactionJournal.TAX_RUN:
+                taxedThrough = Math.max(taxedThrough, record.getLong());
+                return;
+            case TransactionJournal.DEPOSIT:
+            case TransactionJournal.INTEREST_CREDITED:
+                adjust(record.getInt(), record.getLong());
+                break;
+            case TransactionJournal.WITHDRAWAL:
+            case TransactionJournal.TAX_PAID:
+                adjust(record.getInt(), -record.getLong());
+                break;
+            case TransactionJournal.TRANSFER: {
+                int from = record.getInt();
+                int to = record.getInt();
+                long amount = record.getLong();
+                adjust(from, -amount);
+                adjust(to, amount);
+                break;
+            }
+            default:
+                System.err.println("Ignoring unknown journal record type " + type);
+                return;
+        }
+        recordsApplied++;
+    }
+
+    // Same rule as the writer: an ID keeps the first ordinal the segment gave it, so an
+    // ACCOUNT_CREATED after an ACCOUNT_REF for the same ID takes over that ordinal
+    private void bindOrdinal(String accountId, RecoveredAccount account) {
+        Integer ordinal = segmentOrdinals.putIfAbsent(accountId, ordinalCount);
+        if (ordinal == null) {
+            addOrdinal(account);
+        } else {
+            byOrdinal[ordinal] = account;
+        }
+    }
+
+    private void addOrdinal(RecoveredAccount account) {
+        if (ordinalCount == byOrdinal.length) {
+            byOrdinal = Arrays.copyOf(byOrdinal, ordinalCount << 1);
+        }
+        byOrdinal[ordinalCount++] = account;
+    }
+
+    private void adjust(int ordinal, long delta) {
+        // Unknown ordinals or accounts referenced before creation are ignored
+        if (ordinal >= 0 && ordinal < ordinalCount) {
+            RecoveredAccount account = byOrdinal[ordinal];
+            if (account != null) {
+                account.adjustBalance(delta);
+            }
+        }
+    }
+
+    private static String getString(ByteBuffer record) {
+        int length = Short.toUnsignedInt(record.getShort());
+        if (length == 0) {
+            return "";
+        }
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                TransactionJournal.SEGMENT_PREFIX + "*" + TransactionJournal.SEGMENT_SUFFIX)) {
+            for (Path segment : stream) {
+                segments.add(segment);
+            }
+        }
+        // Zero-padded sequence numbers, so name order is sequence order
+        Collections.sort(segments);
+        return segments;
+    }
+
+    static long segmentSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(TransactionJournal.SEGMENT_PREFIX.length(),
+                name.length() - TransactionJournal.SEGMENT_SUFFIX.length()));
+    }
+}
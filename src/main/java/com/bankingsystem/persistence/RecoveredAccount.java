@@ -0,0 +1,43 @@
+package com.bankingsystem.persistence;
+
+// Account state rebuilt from disk: what AccountService needs to recreate the Account object.
+// The card stays in its encrypted form until the account is actually rebuilt.
+public final class RecoveredAccount {
+    private final String accountId;
+    private final String name;
+    private final String upiId;
+    private final String encryptedCard;
+    private long balance;
+
+    RecoveredAccount(String accountId, String name, long balance, String upiId, String encryptedCard) {
+        this.accountId = accountId;
+        this.name = name;
+        this.balance = balance;
+        this.upiId = upiId;
+        this.encryptedCard = encryptedCard;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public String getUpiId() {
+        return upiId;
+    }
+
+    public String getEncryptedCard() {
+        return encryptedCard;
+    }
+
+    void adjustBalance(long delta) {
+        this.balance += delta;
+    }
+}
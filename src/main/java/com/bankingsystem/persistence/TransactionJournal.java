@@ -0,0 +1,409 @@
+package com.bankingsystem.persistence;
+
+import com.bankingsystem.model.Money;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+// Binary write-ahead journal of every balance-changing operation.
+//
+// The journal is a directory of segment files (journal-<sequence>.wal). Each process start
+// and each roll() opens a fresh segment, so a torn record from a crash can only ever be at the end of a
+// segment that is no longer written to. Record layout (big-endian):
+//
+//   int    payload length
+//   byte   record type          \
+//   ...    type-specific fields  > payload
+//   int    CRC32C of the payload
+//
+// Every segment starts with an AMOUNT_UNIT record giving the number of journal amount units per
+// rupee, always 100: amounts and balances are paise. Replay rejects a segment that does not
+// start with one. Strings are an unsigned short byte length followed by UTF-8 bytes. Within a segment each
+// account ID is written once - by ACCOUNT_CREATED or ACCOUNT_REF, which assign it the next
+// ordinal - and balance records refer to it by that int ordinal. An INTEREST_RUN record (the
+// epoch day accrued) precedes the INTEREST_CREDITED records of each interest run, and a TAX_RUN
+// record (the epoch day being taxed) the TAX_PAID records of each end-of-day tax run. Appends are
+// encoded into an in-memory buffer under a lock and written to the FileChannel when the buffer
+// fills, on flush(), and every flushIntervalMillis from a background thread.
+//
+// A failed write leaves the buffer out of step with the segment, so after one the journal is
+// failed: the append that hit it throws UncheckedIOException and every later append throws
+// IllegalStateException. Callers that change balances call checkWritable() first, so once the
+// journal is closed or failed they refuse further changes instead of applying them unjournaled.
+public final class TransactionJournal implements AutoCloseable {
+    static final byte ACCOUNT_CREATED = 1;
+    static final byte DEPOSIT = 2;
+    static final byte WITHDRAWAL = 3;
+    static final byte TAX_PAID = 4;
+    static final byte TRANSFER = 5;
+    static final byte ACCOUNT_REF = 6;
+    static final byte AMOUNT_UNIT = 7;
+    static final byte INTEREST_CREDITED = 8;
+    static final byte INTEREST_RUN = 9;
+    static final byte TAX_RUN = 10;
+
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".wal";
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private final Path directory;
+    private final boolean forceOnFlush;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CRC32C crc = new CRC32C();
+    // Account ID -> ordinal for the current segment
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final ScheduledExecutorService flusher;
+    private FileChannel channel;
+    private long segmentSequence;
+    // Written under the lock; volatile so checkWritable() need not take it
+    private volatile boolean closed;
+    private volatile boolean failed;
+
+    private TransactionJournal(Path directory, long segmentSequence, long flushIntervalMillis, boolean forceOnFlush)
+            throws IOException {
+        this.directory = directory;
+        this.forceOnFlush = forceOnFlush;
+        this.segmentSequence = segmentSequence;
+        this.channel = openSegment(segmentSequence);
+        writeSegmentHeader();
+        if (flushIntervalMillis > 0) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "bank-journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    // Opens the journal in the given directory, starting a new segment after any existing ones.
+    // forceOnFlush additionally fsyncs the segment every time buffered records are written out.
+    public static TransactionJournal open(Path directory, long flushIntervalMillis, boolean forceOnFlush)
+            throws IOException {
+        if (!Files.exists(directory)) {
+            Files.createDirectories(directory);
+            restrictToOwner(directory.toFile(), true);
+        }
+        // Never reuse a sequence number a snapshot already covers, even if its segment is gone
+        long lastSequence = -1;
+        for (Path snapshot : AccountSnapshot.listSnapshots(directory)) {
+            lastSequence = Math.max(lastSequence, AccountSnapshot.snapshotSequence(snapshot));
+        }
+        for (Path segment : JournalReplayer.listSegments(directory)) {
+            lastSequence = Math.max(lastSequence, JournalReplayer.segmentSequence(segment));
+        }
+        return new TransactionJournal(directory, lastSequence + 1, flushIntervalMillis, forceOnFlush);
+    }
+
+    public void appendAccountCreated(String accountId, String name, long balance, String upiId, String encryptedCard) {
+        byte[] id = encode(accountId);
+        byte[] nameBytes = encode(name);
+        byte[] upi = encode(upiId);
+        byte[] card = encode(encryptedCard);
+        lock.lock();
+        try {
+            int start = beginRecord(1 + 2 + id.length + 2 + nameBytes.length + 8 + 2 + upi.length + 2 + card.length);
+            ordinals.putIfAbsent(accountId, ordinals.size());
+            buffer.put(ACCOUNT_CREATED);
+            putString(id);
+            putString(nameBytes);
+            buffer.putLong(balance);
+            putString(upi);
+            putString(card);
+            endRecord(start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void appendDeposit(String accountId, long amount) {
+        appendAmount(DEPOSIT, accountId, amount);
+    }
+
+    public void appendWithdrawal(String accountId, long amount) {
+        appendAmount(WITHDRAWAL, accountId, amount);
+    }
+
+    public void appendTaxPayment(String accountId, long amount) {
+        appendAmount(TAX_PAID, accountId, amount);
+    }
+
+    // Bulk form of appendTaxPayment for the first count entries: the lock is taken once for
+    // the whole group, so parallel tax-run workers do not contend on it per account
+    public void appendTaxPayments(String[] accountIds, long[] amounts, int count) {
+        appendAmounts(TAX_PAID, accountIds, amounts, count);
+    }
+
+    // Written before an interest run's credits: replay treats epochDay as accrued from here on
+    public void appendInterestRun(long epochDay) {
+        lock.lock();
+        try {
+            int start = beginRecord(1 + 8);
+            buffer.put(INTEREST_RUN);
+            buffer.putLong(epochDay);
+            endRecord(start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Written before a tax run's deductions: replay treats epochDay as taxed from here on
+    public void appendTaxRun(long epochDay) {
+        lock.lock();
+        try {
+            int start = beginRecord(1 + 8);
+            buffer.put(TAX_RUN);
+            buffer.putLong(epochDay);
+            endRecord(start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Interest credits for the first count entries, grouped like appendTaxPayments
+    public void appendInterestCredits(String[] accountIds, long[] amounts, int count) {
+        appendAmounts(INTEREST_CREDITED, accountIds, amounts, count);
+    }
+
+    public void appendTransfer(String fromAccountId, String toAccountId, long amount) {
+        lock.lock();
+        try {
+            int from = ordinalOf(fromAccountId);
+            int to = ordinalOf(toAccountId);
+            int start = beginRecord(1 + 4 + 4 + 8);
+            buffer.put(TRANSFER);
+            buffer.putInt(from);
+            buffer.putInt(to);
+            buffer.putLong(amount);
+            endRecord(start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void appendAmount(byte type, String accountId, long amount) {
+        lock.lock();
+        try {
+            int ordinal = ordinalOf(accountId);
+            int start = beginRecord(1 + 4 + 8);
+            buffer.put(type);
+            buffer.putInt(ordinal);
+            buffer.putLong(amount);
+            endRecord(start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void appendAmounts(byte type, String[] accountIds, long[] amounts, int count) {
+        lock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                int ordinal = ordinalOf(accountIds[i]);
+                int start = beginRecord(1 + 4 + 8);
+                buffer.put(type);
+                buffer.putInt(ordinal);
+                buffer.putLong(amounts[i]);
+                endRecord(start);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock (or is the constructor)
+    private void writeSegmentHeader() {
+        int start = beginRecord(1 + 4);
+        buffer.put(AMOUNT_UNIT);
+        buffer.putInt((int) Money.PAISE_PER_RUPEE);
+        endRecord(start);
+    }
+
+    // Caller holds the lock. Emits an ACCOUNT_REF the first time a segment sees an account.
+    private int ordinalOf(String accountId) {
+        Integer ordinal = ordinals.get(accountId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        byte[] id = encode(accountId);
+        int start = beginRecord(1 + 2 + id.length);
+        buffer.put(ACCOUNT_REF);
+        putString(id);
+        endRecord(start);
+        int assigned = ordinals.size();
+        ordinals.put(accountId, assigned);
+        return assigned;
+    }
+
+    // Writes all buffered records to the current segment (and fsyncs it if configured)
+    public void flush() {
+        lock.lock();
+        try {
+            if (!closed && !failed) {
+                writeBuffer();
+                if (forceOnFlush) {
+                    channel.force(false);
+                }
+            }
+        } catch (IOException e) {
+            failed = true;
+            System.err.println("Error flushing transaction journal");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Seals the current segment (written out and fsynced) and continues in a new one.
+    // Returns the sequence number of the sealed segment; it and every earlier segment are
+    // immutable from now on, which is what lets a checkpoint fold them into a snapshot.
+    public long roll() throws IOException {
+        lock.lock();
+        try {
+            checkWritable();
+            long sealed = segmentSequence;
+            try {
+                writeBuffer();
+                channel.force(false);
+                channel.close();
+                segmentSequence++;
+                channel = openSegment(segmentSequence);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+            ordinals.clear();
+            writeSegmentHeader();
+            return sealed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Throws IllegalStateException once the journal is closed or a write to it has failed
+    public void checkWritable() {
+        if (closed) {
+            throw new IllegalStateException("Transaction journal is closed.");
+        }
+        if (failed) {
+            throw new IllegalStateException("Transaction journal is unavailable after a write error.");
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            // After a failed write the buffer no longer lines up with the segment
+            if (!failed) {
+                writeBuffer();
+                channel.force(false);
+            }
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing transaction journal");
+        } finally {
+            closed = true;
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock. Reserves room for the whole record and returns its start offset.
+    private int beginRecord(int payloadLength) {
+        checkWritable();
+        if (buffer.remaining() < payloadLength + 8) {
+            try {
+                writeBuffer();
+            } catch (IOException e) {
+                failed = true;
+                throw new UncheckedIOException("Error writing transaction journal", e);
+            }
+        }
+        int start = buffer.position();
+        buffer.putInt(payloadLength);
+        return start;
+    }
+
+    private void endRecord(int start) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(start + 4).limit(buffer.position());
+        crc.reset();
+        crc.update(payload);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void putString(byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static byte[] encode(String value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Journal field too long.");
+        }
+        return bytes;
+    }
+
+    private FileChannel openSegment(long sequence) throws IOException {
+        Path segment = directory.resolve(segmentName(sequence));
+        FileChannel segmentChannel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        restrictToOwner(segment.toFile(), false);
+        return segmentChannel;
+    }
+
+    // Same owner-only permissions LoggingService applies to the log file
+    static void restrictToOwner(File file, boolean directory) {
+        file.setReadable(false, false);
+        file.setWritable(false, false);
+        file.setExecutable(false, false);
+        file.setReadable(true, true);
+        file.setWritable(true, true);
+        if (directory) {
+            file.setExecutable(true, true);
+        }
+    }
+
+    static String segmentName(long sequence) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+    }
+}
@@ -0,0 +1,195 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.BalanceStore;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Concurrent index of every account, keyed by account ID (MAIN..., SAV..., CUR...).
+// Savings and current accounts share their parent's raw account number, so lookups by
+// raw number probe the three ID prefixes instead of keeping a second map.
+// Registered accounts are also indexed by their BalanceStore handle, in chunked arrays like the
+// store's own columns, so a column scan can get back from a handle to its Account.
+// Registering also joins the account to its customer's balance rollup in the BalanceStore - the
+// one started by whichever of the main, savings and current accounts sharing its number was
+// registered first - so a customer's total holdings are a single read from any of them.
+public class AccountRegistry {
+    private static final String[] ID_PREFIXES = {"MAIN", "SAV", "CUR"};
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+    private static final int HANDLE_CHUNK_BITS = 16;
+    private static final int HANDLE_CHUNK_SIZE = 1 << HANDLE_CHUNK_BITS;
+    private static final int HANDLE_CHUNK_MASK = HANDLE_CHUNK_SIZE - 1;
+    private static final VarHandle ACCOUNTS = MethodHandles.arrayElementVarHandle(Account[].class);
+    // Registrations of accounts sharing a number are serialized on one of these
+    private static final int CUSTOMER_STRIPES = 256;
+
+    private final BalanceStore store = BalanceStore.shared();
+    private final Object[] customerLocks = new Object[CUSTOMER_STRIPES];
+
+    private final ConcurrentHashMap<String, Account> accountsById;
+    // Chunks are only ever added, never copied into, so growing cannot lose a concurrent store
+    private volatile Account[][] byHandle = new Account[0][];
+
+    public AccountRegistry() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public AccountRegistry(int expectedAccounts) {
+        if (expectedAccounts < 0) {
+            throw new IllegalArgumentException("Expected account count cannot be negative.");
+        }
+        // Pre-size so bulk onboarding does not pay for repeated table resizing
+        this.accountsById = new ConcurrentHashMap<>(expectedAccounts);
+        for (int i = 0; i < CUSTOMER_STRIPES; i++) {
+            customerLocks[i] = new Object();
+        }
+    }
+
+    // Returns false (and keeps the existing account) if the account ID is already taken
+    public boolean register(Account account) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account cannot be null.");
+        }
+        synchronized (customerLock(account.getAccountNumber())) {
+            if (accountsById.containsKey(account.getAccountId())) {
+                return false;
+            }
+            publish(account);
+        }
+        indexHandle(account);
+        return true;
+    }
+
+    // Registers the account factory builds under accountId, or returns null without calling
+    // factory if the ID is already taken - so a duplicate never allocates a BalanceStore slot.
+    // factory runs under the same lock as register, before the account can be found, so whatever
+    // it does first (journaling the creation) precedes anything done to the account.
+    public Account registerNew(String accountId, Supplier<? extends Account> factory) {
+        Account account;
+        synchronized (customerLock(accountId.substring(accountId.startsWith("MAIN") ? 4 : 3))) {
+            if (accountsById.containsKey(accountId)) {
+                return null;
+            }
+            account = factory.get();
+            if (!accountId.equals(account.getAccountId())) {
+                throw new IllegalArgumentException("Account ID does not match the account created.");
+            }
+            publish(account);
+        }
+        indexHandle(account);
+        return account;
+    }
+
+    private Object customerLock(String accNo) {
+        int h = accNo.hashCode();
+        return customerLocks[(h ^ (h >>> 16)) & (CUSTOMER_STRIPES - 1)];
+    }
+
+    // Caller holds the account's customer lock and has checked that its ID is free
+    private void publish(Account account) {
+        // Joined while no one else can reach the account yet, as joinRollup requires; one
+        // already registered elsewhere keeps the rollup it has
+        if (store.rollupRoot(account.getHandle()) < 0) {
+            Account sibling = findByAccountNumber(account.getAccountNumber());
+            store.joinRollup(account.getHandle(),
+                    sibling != null ? store.rollupRoot(sibling.getHandle()) : account.getHandle());
+        }
+        accountsById.put(account.getAccountId(), account);
+    }
+
+    private void indexHandle(Account account) {
+        int handle = account.getHandle();
+        Account[][] chunks = byHandle;
+        if ((handle >>> HANDLE_CHUNK_BITS) >= chunks.length) {
+            chunks = growHandleIndex(handle >>> HANDLE_CHUNK_BITS);
+        }
+        ACCOUNTS.setVolatile(chunks[handle >>> HANDLE_CHUNK_BITS], handle & HANDLE_CHUNK_MASK, account);
+    }
+
+    private synchronized Account[][] growHandleIndex(int chunk) {
+        Account[][] current = byHandle;
+        if (chunk < current.length) {
+            return current;
+        }
+        Account[][] grown = Arrays.copyOf(current, chunk + 1);
+        for (int i = current.length; i <= chunk; i++) {
+            grown[i] = new Account[HANDLE_CHUNK_SIZE];
+        }
+        byHandle = grown;
+        return grown;
+    }
+
+    // The registered account at a BalanceStore handle, or null (never registered)
+    public Account findByHandle(int handle) {
+        Account[][] chunks = byHandle;
+        if (handle < 0 || (handle >>> HANDLE_CHUNK_BITS) >= chunks.length) {
+            return null;
+        }
+        return (Account) ACCOUNTS.getVolatile(chunks[handle >>> HANDLE_CHUNK_BITS], handle & HANDLE_CHUNK_MASK);
+    }
+
+    public Account findById(String accountId) {
+        if (accountId == null) {
+            return null;
+        }
+        return accountsById.get(accountId);
+    }
+
+    // Main account wins over savings, savings over current, when they share a number
+    public Account findByAccountNumber(String accNo) {
+        if (accNo == null) {
+            return null;
+        }
+        for (String prefix : ID_PREFIXES) {
+            Account account = accountsById.get(prefix + accNo);
+            if (account != null) {
+                return account;
+            }
+        }
+        return null;
+    }
+
+    // The registered accounts with this raw number: the main account, then savings, then current
+    public List<Account> findCustomerAccounts(String accNo) {
+        List<Account> accounts = new ArrayList<>(ID_PREFIXES.length);
+        if (accNo != null) {
+            for (String prefix : ID_PREFIXES) {
+                Account account = accountsById.get(prefix + accNo);
+                if (account != null) {
+                    accounts.add(account);
+                }
+            }
+        }
+        return accounts;
+    }
+
+    // The savings and current accounts registered under a main account's number
+    public List<Account> findChildAccounts(String mainAccountId) {
+        if (mainAccountId == null || !mainAccountId.startsWith("MAIN")) {
+            return new ArrayList<>();
+        }
+        List<Account> accounts = findCustomerAccounts(mainAccountId.substring(4));
+        accounts.removeIf(account -> account.getParentAccountId() == null);
+        return accounts;
+    }
+
+    public boolean contains(String accountId) {
+        return accountId != null && accountsById.containsKey(accountId);
+    }
+
+    public int size() {
+        return accountsById.size();
+    }
+
+    // Weakly consistent view: safe to iterate while other threads register accounts
+    public Collection<Account> accounts() {
+        return Collections.unmodifiableCollection(accountsById.values());
+    }
+}
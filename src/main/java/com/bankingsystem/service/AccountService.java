@@ -1,41 +1,139 @@
 package com.bankingsystem.service;
 
+import com.bankingsystem.metrics.BankMetrics;
+import com.bankingsystem.metrics.MeteredOperation;
 import com.bankingsystem.model.*;
+import com.bankingsystem.persistence.RecoveredAccount;
+import com.bankingsystem.persistence.TransactionJournal;
 import com.bankingsystem.util.ValidationUtils;
 import com.bankingsystem.util.EncryptionUtils;
+import java.util.Collection;
+import java.util.List;
 import java.util.Scanner;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 public class AccountService {
     private final LoggingService loggingService;
+    private final AccountRegistry accountRegistry;
+    private final TransactionJournal journal;
+    private final BankMetrics metrics;
 
-    public AccountService(LoggingService loggingService) {
+    public AccountService(LoggingService loggingService, AccountRegistry accountRegistry) {
+        this(loggingService, accountRegistry, null);
+    }
+
+    public AccountService(LoggingService loggingService, AccountRegistry accountRegistry, TransactionJournal journal) {
+        this(loggingService, accountRegistry, journal, null);
+    }
+
+    public AccountService(LoggingService loggingService, AccountRegistry accountRegistry, TransactionJournal journal,
+            BankMetrics metrics) {
         this.loggingService = loggingService;
+        this.accountRegistry = accountRegistry;
+        this.journal = journal;
+        this.metrics = metrics;
     }
 
-    public Account createMainAccount(String accNo, String name, int amount, String upiId, int creditCard) {
-        Account account = MainAccount.createAccount(accNo, name, amount, upiId, creditCard);
-        loggingService.logAccountCreation(account, "Main", upiId, creditCard);
-        return account;
+    public Account createMainAccount(String accNo, String name, long balance, String upiId, int creditCard) {
+        long start = System.nanoTime();
+        return recordCreation(start, registerAndLog("MAIN" + accNo, "Main", name, balance, upiId, creditCard,
+                () -> MainAccount.createAccount(accNo, name, balance, upiId, creditCard)));
     }
 
-    public Account createSavingsAccount(String parentAccNo, String name, int amount, String upiId, int creditCard) {
-        Account account = SavingsAccount.createAccount(parentAccNo, name, amount, upiId, creditCard);
-        loggingService.logAccountCreation(account, "Savings", upiId, creditCard);
-        return account;
+    public Account createSavingsAccount(String parentAccNo, String name, long balance, String upiId, int creditCard) {
+        long start = System.nanoTime();
+        return recordCreation(start, registerAndLog("SAV" + parentAccNo, "Savings", name, balance, upiId, creditCard,
+                () -> SavingsAccount.createAccount(parentAccNo, name, balance, upiId, creditCard)));
+    }
+
+    public Account createCurrentAccount(String parentAccNo, String name, long balance, String upiId, int creditCard) {
+        long start = System.nanoTime();
+        return recordCreation(start, registerAndLog("CUR" + parentAccNo, "Current", name, balance, upiId, creditCard,
+                () -> CurrentAccount.createAccount(parentAccNo, name, balance, upiId, creditCard)));
     }
 
-    public Account createCurrentAccount(String parentAccNo, String name, int amount, String upiId, int creditCard) {
-        Account account = CurrentAccount.createAccount(parentAccNo, name, amount, upiId, creditCard);
-        loggingService.logAccountCreation(account, "Current", upiId, creditCard);
+    private Account recordCreation(long start, Account created) {
+        if (metrics != null) {
+            metrics.record(MeteredOperation.ACCOUNT_CREATION, start, created != null);
+        }
+        return created;
+    }
+
+    public Account findAccount(String accountId) {
+        return accountRegistry.findById(accountId);
+    }
+
+    // A customer's main, savings and current accounts, whichever exist
+    public List<Account> findCustomerAccounts(String accNo) {
+        return accountRegistry.findCustomerAccounts(accNo);
+    }
+
+    // Throws IllegalStateException, before registering, when a journal is kept and the card cannot
+    // be encrypted: recovery rebuilds the card from the journal, and the masked fallback would
+    // silently lose it on the next restart.
+    // ACCOUNT_CREATED is journaled with the opening balance before the account is built and
+    // registered, under the registry's lock for the ID: nothing can deposit to or transfer into
+    // the account until its creation is on record, and a duplicate ID journals nothing.
+    private Account registerAndLog(String accountId, String accountType, String name, long balance, String upiId,
+            int creditCard, Supplier<Account> factory) {
+        if (balance < 0) {
+            throw new IllegalArgumentException("Opening balance cannot be negative.");
+        }
+        // Encrypt once: the same ciphertext goes to the audit log and the journal
+        String encryptedCard = EncryptionUtils.encryptCreditCard(creditCard);
+        if (journal != null && !EncryptionUtils.isEncryptedCard(encryptedCard)) {
+            throw new IllegalStateException("Credit card could not be encrypted; account not created.");
+        }
+        Account account = accountRegistry.registerNew(accountId, () -> {
+            if (journal != null) {
+                journal.appendAccountCreated(accountId, name, balance, upiId, encryptedCard);
+            }
+            return factory.get();
+        });
+        if (account == null) {
+            System.err.println("Account already exists: " + accountId);
+            return null;
+        }
+        loggingService.logAccountCreation(account, accountType, upiId, encryptedCard);
         return account;
     }
 
+    // Recreates accounts recovered from disk and registers them. Nothing is logged or journaled:
+    // these accounts are already on record. Returns the number of accounts restored.
+    public int restoreAccounts(Collection<RecoveredAccount> recoveredAccounts) {
+        int restored = 0;
+        for (RecoveredAccount recovered : recoveredAccounts) {
+            String accountId = recovered.getAccountId();
+            long balance = recovered.getBalance();
+            int creditCard = EncryptionUtils.decryptCreditCard(recovered.getEncryptedCard());
+            Supplier<Account> factory;
+            if (accountId.startsWith("MAIN")) {
+                factory = () -> MainAccount.createAccount(accountId.substring(4), recovered.getName(), balance,
+                        recovered.getUpiId(), creditCard);
+            } else if (accountId.startsWith("SAV")) {
+                factory = () -> SavingsAccount.createAccount(accountId.substring(3), recovered.getName(), balance,
+                        recovered.getUpiId(), creditCard);
+            } else if (accountId.startsWith("CUR")) {
+                factory = () -> CurrentAccount.createAccount(accountId.substring(3), recovered.getName(), balance,
+                        recovered.getUpiId(), creditCard);
+            } else {
+                System.err.println("Skipping unrecognised recovered account.");
+                continue;
+            }
+            // Built only if the ID is free, so a duplicate leaves no BalanceStore slot behind
+            if (accountRegistry.registerNew(accountId, factory) != null) {
+                restored++;
+            }
+        }
+        return restored;
+    }
+
     public void displaySecureAccountInfo(Account account) {
         System.out.println("Account Details:");
         System.out.println("  Account Number: " + account.getAccountId());
         System.out.println("  Name: " + account.getName());
-        System.out.println("  Balance: " + account.getAmount());
+        System.out.println("  Balance: " + Money.format(account.getBalance()));
         // Note: UPI ID and Credit Card are not accessible from outside the package
         // This is intentional for security - sensitive data should not be exposed
         System.out.println("  UPI ID: [SECURED]");
@@ -0,0 +1,66 @@
+package com.bankingsystem.service;
+
+// Settings for LoggingService's asynchronous mode. Producers hand events to a bounded ring
+// buffer and a single writer thread commits them in groups. A commit (flush, plus fsync when
+// enabled) happens when flushEveryEvents events are pending, when the oldest pending event is
+// flushIntervalMillis old, or - with an interval of 0 - whenever the writer drains the buffer.
+public final class AsyncLogConfig {
+    public enum BackpressurePolicy {
+        // Producer waits for the writer to free a slot; no event is ever lost
+        BLOCK,
+        // Producer returns immediately and the event is counted in getDroppedEvents()
+        DROP
+    }
+
+    private final int capacity;
+    private final int flushEveryEvents;
+    private final long flushIntervalMillis;
+    private final boolean fsyncOnCommit;
+    private final BackpressurePolicy backpressurePolicy;
+
+    public AsyncLogConfig(int capacity, int flushEveryEvents, long flushIntervalMillis, boolean fsyncOnCommit,
+            BackpressurePolicy backpressurePolicy) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Log buffer capacity must be a power of two.");
+        }
+        if (flushEveryEvents < 1) {
+            throw new IllegalArgumentException("Flush batch size must be positive.");
+        }
+        if (flushIntervalMillis < 0) {
+            throw new IllegalArgumentException("Flush interval cannot be negative.");
+        }
+        if (backpressurePolicy == null) {
+            throw new IllegalArgumentException("Backpressure policy cannot be null.");
+        }
+        this.capacity = capacity;
+        this.flushEveryEvents = flushEveryEvents;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.fsyncOnCommit = fsyncOnCommit;
+        this.backpressurePolicy = backpressurePolicy;
+    }
+
+    // 64k-slot buffer, commit every 4096 events or 100 ms, no fsync, producers block when full
+    public static AsyncLogConfig defaults() {
+        return new AsyncLogConfig(65536, 4096, 100, false, BackpressurePolicy.BLOCK);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getFlushEveryEvents() {
+        return flushEveryEvents;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public boolean isFsyncOnCommit() {
+        return fsyncOnCommit;
+    }
+
+    public BackpressurePolicy getBackpressurePolicy() {
+        return backpressurePolicy;
+    }
+}
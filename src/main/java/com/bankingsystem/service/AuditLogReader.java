@@ -0,0 +1,250 @@
+package com.bankingsystem.service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+// Prints audit log segments in the text layout, for auditors. Accepts one segment (plain or
+// gzipped) or a whole log directory, whose segments are read in sequence order. Binary segments
+// (see AuditRecordEncoder) are decoded and formatted exactly as LoggingService formats text;
+// text segments are copied through unchanged, so a directory written partly in each format
+// reads as one log. A record cut short at the end of a segment (the one being written, or one
+// left by a crash) ends that segment with a warning on stderr.
+//
+// printAccount finds one account's records through the segment indexes (see SegmentIndex): a
+// segment whose Bloom filter or account table rules the account out is skipped, and otherwise
+// only the blocks listed for the account are read and inflated. Segments without an index (the
+// one still being written, or one left by a crash) are scanned in full.
+public final class AuditLogReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ZoneId zoneId;
+    private final AuditRecordDecoder decoder = new AuditRecordDecoder();
+    private long records;
+    // printAccount statistics
+    private long segmentsSkipped;
+    private long segmentsScanned;
+    private long blocksRead;
+    private long bytesRead;
+
+    public AuditLogReader(ZoneId zoneId) {
+        this.zoneId = zoneId;
+    }
+
+    // Prints a segment file or every segment in a log directory; returns the binary records decoded
+    public long print(Path path, OutputStream out) throws IOException {
+        records = 0;
+        if (Files.isDirectory(path)) {
+            for (Path segment : listSegments(path)) {
+                printSegment(segment, out);
+            }
+        } else {
+            printSegment(path, out);
+        }
+        out.flush();
+        return records;
+    }
+
+    // audit-<sequence>.log and .log.gz, in sequence order; a plain segment whose .gz also exists
+    // is skipped (compression finished but the original was not deleted yet)
+    static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SegmentedLogFile.SEGMENT_PREFIX + "*{" + SegmentedLogFile.SEGMENT_SUFFIX + ","
+                        + SegmentedLogFile.SEGMENT_SUFFIX + SegmentedLogFile.COMPRESSED_SUFFIX + "}")) {
+            for (Path segment : stream) {
+                String name = segment.getFileName().toString();
+                if (name.endsWith(SegmentedLogFile.SEGMENT_SUFFIX)
+                        && Files.exists(segment.resolveSibling(name + SegmentedLogFile.COMPRESSED_SUFFIX))) {
+                    continue;
+                }
+                segments.add(segment);
+            }
+        }
+        // Sequences are zero-padded, so name order is sequence order
+        segments.sort((a, b) -> a.getFileName().toString().compareTo(b.getFileName().toString()));
+        return segments;
+    }
+
+    private void printSegment(Path segment, OutputStream out) throws IOException {
+        InputStream raw = Files.newInputStream(segment);
+        if (segment.getFileName().toString().endsWith(SegmentedLogFile.COMPRESSED_SUFFIX)) {
+            raw = new GZIPInputStream(raw, BUFFER_SIZE);
+        }
+        try (BufferedInputStream in = new BufferedInputStream(raw, BUFFER_SIZE)) {
+            if (AuditRecordDecoder.isBinary(in)) {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                decoder.reset();
+                decode(new DataInputStream(in), writer, segment, null);
+                writer.flush();
+            } else {
+                in.transferTo(out);
+            }
+        }
+    }
+
+    // Prints every record involving accountId, from every segment in a log directory, in order.
+    // Returns the records printed.
+    public long printAccount(Path directory, String accountId, OutputStream out) throws IOException {
+        records = 0;
+        segmentsSkipped = 0;
+        segmentsScanned = 0;
+        blocksRead = 0;
+        bytesRead = 0;
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        for (Path segment : listSegments(directory)) {
+            String name = segment.getFileName().toString();
+            boolean compressed = name.endsWith(SegmentedLogFile.COMPRESSED_SUFFIX);
+            String plainName = compressed
+                    ? name.substring(0, name.length() - SegmentedLogFile.COMPRESSED_SUFFIX.length()) : name;
+            Path indexFile = segment.resolveSibling(plainName + SegmentIndex.SUFFIX);
+            if (!Files.exists(indexFile)) {
+                scanSegment(segment, compressed, accountId, writer);
+                continue;
+            }
+            SegmentIndex.Match match = SegmentIndex.find(indexFile, accountId);
+            if (match == null) {
+                segmentsSkipped++;
+                continue;
+            }
+            for (int block : match.blocks) {
+                byte[] bytes = readBlock(segment, compressed, match, block);
+                if (!match.accountsByOrdinal.isEmpty()) {
+                    decoder.useAccounts(match.accountsByOrdinal);
+                    decode(new DataInputStream(new ByteArrayInputStream(bytes)), writer, segment, accountId);
+                } else {
+                    printMatchingLines(new String(bytes, StandardCharsets.UTF_8), accountId, writer);
+                }
+            }
+        }
+        writer.flush();
+        return records;
+    }
+
+    // Segments ruled out by their index without reading any block
+    public long getSegmentsSkipped() {
+        return segmentsSkipped;
+    }
+
+    // Segments with no index, read in full
+    public long getSegmentsScanned() {
+        return segmentsScanned;
+    }
+
+    public long getBlocksRead() {
+        return blocksRead;
+    }
+
+    // Segment bytes read from disk for indexed blocks (compressed where the segment is)
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    // One index block's plain bytes, counted in the statistics. In a .gz each block is its own
+    // gzip member, so inflating starts at the member; a .gz whose index was never given member
+    // offsets is inflated from the start instead.
+    byte[] readBlock(Path segment, boolean compressed, SegmentIndex.Match match, int block)
+            throws IOException {
+        long start = match.blockStarts[block];
+        int length = Math.toIntExact(match.blockEnd(block) - start);
+        blocksRead++;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            if (!compressed) {
+                ByteBuffer bytes = ByteBuffer.allocate(length);
+                while (bytes.hasRemaining() && channel.read(bytes, start + bytes.position()) > 0) {
+                    // Read until the block is complete or the file ends
+                }
+                bytesRead += bytes.position();
+                return Arrays.copyOf(bytes.array(), bytes.position());
+            }
+            long memberStart = match.compressedStarts[block];
+            long memberEnd = block + 1 < match.compressedStarts.length ? match.compressedStarts[block + 1] : channel.size();
+            boolean members = memberStart != SegmentIndex.NOT_COMPRESSED;
+            channel.position(members ? memberStart : 0);
+            InputStream inflated = new GZIPInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+            if (!members) {
+                inflated.skipNBytes(start);
+            }
+            byte[] bytes = inflated.readNBytes(length);
+            bytesRead += members ? memberEnd - memberStart : channel.position();
+            return bytes;
+        }
+    }
+
+    private void scanSegment(Path segment, boolean compressed, String accountId, Writer writer) throws IOException {
+        segmentsScanned++;
+        InputStream raw = Files.newInputStream(segment);
+        if (compressed) {
+            raw = new GZIPInputStream(raw, BUFFER_SIZE);
+        }
+        try (BufferedInputStream in = new BufferedInputStream(raw, BUFFER_SIZE)) {
+            if (AuditRecordDecoder.isBinary(in)) {
+                decoder.reset();
+                decode(new DataInputStream(in), writer, segment, accountId);
+            } else {
+                printMatchingLines(new String(in.readAllBytes(), StandardCharsets.UTF_8), accountId, writer);
+            }
+        }
+    }
+
+    // Text lines where accountId is the account, the new account's ID or either side of a
+    // transfer (not where it is only the parent of a new account)
+    private void printMatchingLines(String text, String accountId, Writer writer) throws IOException {
+        String[] fields = {"Account: " + accountId + ",", "ID: " + accountId + ",", "From: " + accountId + ",",
+                "To: " + accountId + ","};
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            end = end < 0 ? text.length() : end + 1;
+            String line = text.substring(start, end);
+            for (String field : fields) {
+                if (line.contains(field)) {
+                    writer.write(line);
+                    records++;
+                    break;
+                }
+            }
+            start = end;
+        }
+    }
+
+    // Prints the records involving accountFilter, or all of them when it is null
+    private void decode(DataInputStream in, Writer out, Path segment, String accountFilter) throws IOException {
+        while (true) {
+            int type = in.read();
+            if (type < 0) {
+                return;
+            }
+            try {
+                LogEvent event = decoder.decode((byte) type, in, segment);
+                if (event != null && (accountFilter == null || accountFilter.equals(event.accountId)
+                        || accountFilter.equals(event.counterpartyId))) {
+                    out.write(LoggingService.format(event, zoneId));
+                    records++;
+                }
+            } catch (EOFException e) {
+                System.err.println("Truncated record at the end of " + segment.getFileName());
+                return;
+            }
+        }
+    }
+}
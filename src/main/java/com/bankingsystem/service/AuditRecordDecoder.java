@@ -0,0 +1,142 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Money;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Turns binary audit records (see AuditRecordEncoder) back into LogEvents, for AuditLogReader
+// and StatementReader. It keeps the current segment's account references: read from the
+// segment's ACCOUNT_REFs when decoding a segment from its start, or taken from the segment
+// index (useAccounts) when decoding a single index block, which starts mid-segment.
+final class AuditRecordDecoder {
+    // Ordinal -> account ID for the segment being read
+    private List<String> accounts = new ArrayList<>();
+    // Set while decoding index blocks: ordinals come from the index, and ACCOUNT_REFs are skipped
+    private boolean accountsFromIndex;
+
+    // Whether the stream starts with a binary HEADER; leaves the stream where it was
+    static boolean isBinary(BufferedInputStream in) throws IOException {
+        in.mark(5);
+        DataInputStream data = new DataInputStream(in);
+        try {
+            return data.readByte() == AuditRecordEncoder.HEADER && data.readInt() == AuditRecordEncoder.MAGIC;
+        } catch (EOFException e) {
+            return false;
+        } finally {
+            in.reset();
+        }
+    }
+
+    // Back to reading references from the records, for a segment decoded from its start
+    void reset() {
+        accounts = new ArrayList<>();
+        accountsFromIndex = false;
+    }
+
+    // For decoding index blocks: references come from the segment index
+    void useAccounts(List<String> accountsByOrdinal) {
+        accounts = accountsByOrdinal;
+        accountsFromIndex = true;
+    }
+
+    // The record of the given type, whose type byte has been read. Null for records that only
+    // set up state (HEADER, ACCOUNT_REF); EOFException when the record is cut short.
+    LogEvent decode(byte type, DataInputStream in, Path segment) throws IOException {
+        switch (type) {
+            case AuditRecordEncoder.HEADER: {
+                if (in.readInt() != AuditRecordEncoder.MAGIC) {
+                    throw new IOException("Bad audit log header in " + segment.getFileName());
+                }
+                short version = in.readShort();
+                int unit = in.readInt();
+                if (version != AuditRecordEncoder.VERSION || unit != Money.PAISE_PER_RUPEE) {
+                    throw new IOException("Unsupported audit log version " + version + " in " + segment.getFileName());
+                }
+                if (!accountsFromIndex) {
+                    accounts.clear();
+                }
+                return null;
+            }
+            case AuditRecordEncoder.ACCOUNT_REF: {
+                String accountId = readString(in);
+                if (!accountsFromIndex) {
+                    accounts.add(accountId);
+                }
+                return null;
+            }
+            case AuditRecordEncoder.ACCOUNT_CREATED: {
+                long time = in.readLong();
+                String accountType = name(AuditRecordEncoder.ACCOUNT_TYPES, in.readByte(), segment);
+                String accountId = account(in.readInt(), segment);
+                String name = readString(in);
+                long balance = in.readLong();
+                String upiId = readString(in);
+                String encryptedCard = readString(in);
+                return LogEvent.decoded(LogEvent.Type.ACCOUNT_CREATED, time, accountId, 0, balance, accountType, null,
+                        name, upiId, encryptedCard);
+            }
+            case AuditRecordEncoder.DEPOSIT: {
+                long time = in.readLong();
+                String accountId = account(in.readInt(), segment);
+                long amount = in.readLong();
+                return LogEvent.decoded(LogEvent.Type.DEPOSIT, time, accountId, amount, in.readLong(), null, null,
+                        null, null, null);
+            }
+            case AuditRecordEncoder.WITHDRAWAL: {
+                long time = in.readLong();
+                String method = name(AuditRecordEncoder.WITHDRAWAL_METHODS, in.readByte(), segment);
+                String accountId = account(in.readInt(), segment);
+                long amount = in.readLong();
+                return LogEvent.decoded(LogEvent.Type.WITHDRAWAL, time, accountId, amount, in.readLong(), method,
+                        null, null, null, null);
+            }
+            case AuditRecordEncoder.TAX_PAID:
+            case AuditRecordEncoder.INTEREST_CREDITED: {
+                long time = in.readLong();
+                String accountId = account(in.readInt(), segment);
+                return LogEvent.decoded(type == AuditRecordEncoder.TAX_PAID ? LogEvent.Type.TAX_PAID
+                        : LogEvent.Type.INTEREST_CREDITED, time, accountId, in.readLong(), 0, null, null, null, null,
+                        null);
+            }
+            case AuditRecordEncoder.TRANSFER: {
+                long time = in.readLong();
+                String from = account(in.readInt(), segment);
+                String to = account(in.readInt(), segment);
+                return LogEvent.decoded(LogEvent.Type.TRANSFER, time, from, in.readLong(), 0, null, to, null, null,
+                        null);
+            }
+            default:
+                throw new IOException("Unknown audit record type " + type + " in " + segment.getFileName());
+        }
+    }
+
+    private String account(int ordinal, Path segment) throws IOException {
+        if (ordinal < 0 || ordinal >= accounts.size()) {
+            throw new IOException("Unknown account reference " + ordinal + " in " + segment.getFileName());
+        }
+        return accounts.get(ordinal);
+    }
+
+    private static String name(String[] names, byte code, Path segment) throws IOException {
+        if (code < 0 || code >= names.length || names[code] == null) {
+            throw new IOException("Unknown code " + code + " in " + segment.getFileName());
+        }
+        return names[code];
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readUnsignedShort();
+        if (length == AuditRecordEncoder.NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
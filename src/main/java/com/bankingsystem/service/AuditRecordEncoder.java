@@ -0,0 +1,218 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Money;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// Binary layout of the audit log (LogFormat.BINARY), written by LoggingService and decoded by
+// AuditLogReader. Records are fixed-layout and big-endian, with no length prefix:
+//
+//   HEADER             byte type, int magic, short version, int amount units per rupee
+//   ACCOUNT_REF        byte type, string account ID
+//   ACCOUNT_CREATED    byte type, long time, byte account type, int account, string name,
+//                      long balance, string UPI ID, string encrypted card
+//   DEPOSIT            byte type, long time, int account, long amount, long new balance
+//   WITHDRAWAL         byte type, long time, byte method, int account, long amount, long new balance
+//   TAX_PAID           byte type, long time, int account, long amount
+//   TRANSFER           byte type, long time, int from account, int to account, long amount
+//   INTEREST_CREDITED  byte type, long time, int account, long amount
+//
+// Times are epoch nanoseconds and amounts are paise. As in the transaction journal, an account
+// ID is written once per segment, by an ACCOUNT_REF that assigns it the next ordinal, and
+// records refer to it by that int. Every segment starts with a HEADER, which also resets the
+// ordinals, so each segment decodes on its own; after a failed record the encoder rolls to a new
+// segment rather than restart the ordinals mid-segment. Strings are an unsigned short byte length
+// (0xFFFF for null) followed by UTF-8 bytes.
+//
+// Records are encoded one at a time into a reusable heap buffer under this object's lock; apart
+// from the first ACCOUNT_REF of an account in a segment, encoding a balance record allocates
+// nothing. Each record is also added to the segment's index (see SegmentIndex) under the
+// account ordinals it uses.
+final class AuditRecordEncoder {
+    static final byte HEADER = 1;
+    static final byte ACCOUNT_REF = 2;
+    static final byte ACCOUNT_CREATED = 3;
+    static final byte DEPOSIT = 4;
+    static final byte WITHDRAWAL = 5;
+    static final byte TAX_PAID = 6;
+    static final byte TRANSFER = 7;
+    static final byte INTEREST_CREDITED = 8;
+
+    // "BKAL"
+    static final int MAGIC = 0x424B414C;
+    static final short VERSION = 1;
+    static final int NULL_STRING = 0xFFFF;
+    static final int MAX_STRING_BYTES = NULL_STRING - 1;
+
+    // Indexed by code; account types follow BalanceStore.TYPE_MAIN..TYPE_CURRENT
+    static final String[] ACCOUNT_TYPES = {null, "Main", "Savings", "Current"};
+    static final String[] WITHDRAWAL_METHODS = {"Simple", "UPI", "Credit Card"};
+
+    // One record with its header and ACCOUNT_REFs: room for four strings of the maximum length
+    private static final int BUFFER_SIZE = 1 << 19;
+
+    private final SegmentedLogFile logFile;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    // Account ID -> ordinal for the current segment
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private long segment = -1;
+
+    AuditRecordEncoder(SegmentedLogFile logFile) {
+        this.logFile = logFile;
+    }
+
+    // Encodes the event and hands it to the log file's buffer a record at a time, so the log
+    // file can roll and cut index blocks between records; flushing is the caller's business
+    synchronized void write(LogEvent event) throws IOException {
+        try {
+            encode(event);
+        } catch (IOException | RuntimeException e) {
+            // A field too long for the layout, or a failed write: drop the partial record and
+            // continue in a new segment, so no later record refers to an ACCOUNT_REF that was
+            // assigned here but never reached the segment. The index keeps one ordinal per account
+            // and segment, so the ordinals must not restart within one. A single file never rolls
+            // and has no index; it gets a fresh header in place instead.
+            buffer.clear();
+            segment = -1;
+            try {
+                logFile.roll();
+            } catch (IOException rollFailure) {
+                e.addSuppressed(rollFailure);
+            }
+            throw e;
+        }
+    }
+
+    private void encode(LogEvent event) throws IOException {
+        switch (event.type) {
+            case ACCOUNT_CREATED: {
+                byte accountType = code(ACCOUNT_TYPES, event.detail, "account type");
+                byte[] name = encode(event.name);
+                byte[] upi = encode(event.upiId);
+                byte[] card = encode(event.encryptedCard);
+                beginRecord(event.timestampNanos);
+                int account = ordinalOf(event.accountId);
+                buffer.put(ACCOUNT_CREATED).putLong(event.timestampNanos).put(accountType).putInt(account);
+                putString(name);
+                buffer.putLong(event.balance);
+                putString(upi);
+                putString(card);
+                endRecord(event.accountId, account, null, -1);
+                break;
+            }
+            case DEPOSIT: {
+                beginRecord(event.timestampNanos);
+                int account = ordinalOf(event.accountId);
+                buffer.put(DEPOSIT).putLong(event.timestampNanos).putInt(account).putLong(event.amount)
+                        .putLong(event.balance);
+                endRecord(event.accountId, account, null, -1);
+                break;
+            }
+            case WITHDRAWAL: {
+                byte method = code(WITHDRAWAL_METHODS, event.detail, "withdrawal method");
+                beginRecord(event.timestampNanos);
+                int account = ordinalOf(event.accountId);
+                buffer.put(WITHDRAWAL).putLong(event.timestampNanos).put(method).putInt(account)
+                        .putLong(event.amount).putLong(event.balance);
+                endRecord(event.accountId, account, null, -1);
+                break;
+            }
+            case TAX_PAID:
+                writeAmount(TAX_PAID, event.timestampNanos, event.accountId, event.amount);
+                break;
+            case INTEREST_CREDITED:
+                writeAmount(INTEREST_CREDITED, event.timestampNanos, event.accountId, event.amount);
+                break;
+            case TRANSFER: {
+                beginRecord(event.timestampNanos);
+                int from = ordinalOf(event.accountId);
+                int to = ordinalOf(event.counterpartyId);
+                buffer.put(TRANSFER).putLong(event.timestampNanos).putInt(from).putInt(to).putLong(event.amount);
+                endRecord(event.accountId, from, event.counterpartyId, to);
+                break;
+            }
+            case BATCH: {
+                byte type = event.batchType == LogEvent.Type.TAX_PAID ? TAX_PAID : INTEREST_CREDITED;
+                for (int i = 0; i < event.count; i++) {
+                    writeAmount(type, event.timestampNanos, event.accountIds[i], event.amounts[i]);
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unknown log event type.");
+        }
+    }
+
+    private void writeAmount(byte type, long timestampNanos, String accountId, long amount) throws IOException {
+        beginRecord(timestampNanos);
+        int account = ordinalOf(accountId);
+        buffer.put(type).putLong(timestampNanos).putInt(account).putLong(amount);
+        endRecord(accountId, account, null, -1);
+    }
+
+    // Starts a record (after any roll), with a header first if it opens a segment
+    private void beginRecord(long timestampNanos) throws IOException {
+        long next = logFile.beginRecord(timestampNanos);
+        if (next != segment) {
+            segment = next;
+            ordinals.clear();
+            buffer.put(HEADER).putInt(MAGIC).putShort(VERSION).putInt((int) Money.PAISE_PER_RUPEE);
+        }
+    }
+
+    // Hands the record, with the header and ACCOUNT_REFs before it, to the log file and indexes it
+    private void endRecord(String accountId, int account, String counterpartyId, int counterparty)
+            throws IOException {
+        try {
+            logFile.write(buffer.array(), 0, buffer.position(), accountId, account, counterpartyId, counterparty);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    // Emits an ACCOUNT_REF the first time the segment sees an account
+    private int ordinalOf(String accountId) {
+        Integer ordinal = ordinals.get(accountId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        byte[] id = encode(accountId);
+        buffer.put(ACCOUNT_REF);
+        putString(id);
+        int assigned = ordinals.size();
+        ordinals.put(accountId, assigned);
+        return assigned;
+    }
+
+    private void putString(byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort((short) NULL_STRING);
+            return;
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static byte[] encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Audit log field too long.");
+        }
+        return bytes;
+    }
+
+    private static byte code(String[] names, String name, String what) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] != null && names[i].equals(name)) {
+                return (byte) i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown " + what + ": " + name);
+    }
+}
@@ -0,0 +1,250 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Money;
+import com.bankingsystem.util.ValidationUtils;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streams a command file through AccountService/TransactionService without any prompts.
+// One command per line, comma-separated; blank lines and lines starting with # are skipped:
+//
+//   CREATE_MAIN,<accNo>,<name>,<balance>[,<upiId>[,<card>]]
+//   CREATE_SAVINGS,<parentAccNo>,<name>,<balance>[,<upiId>[,<card>]]
+//   CREATE_CURRENT,<parentAccNo>,<name>,<balance>[,<upiId>[,<card>]]
+//   DEPOSIT,<accountId>,<amount>
+//   WITHDRAW,<accountId>,<amount>
+//   WITHDRAW_UPI,<accountId>,<upiId>,<amount>
+//   WITHDRAW_CARD,<accountId>,<card>,<amount>
+//   PAY_TAX,<accountId>
+//   TRANSFER,<fromAccountId>,<toAccountId>,<amount>
+//
+// Balances and amounts are rupees with up to two decimals (500, 499.50). Leave optional fields
+// empty to skip them (e.g. CREATE_MAIN,ACC1,Jane Doe,500,,4111).
+// Transactions are buffered into fixed-size chunks and run through processBatch, so memory use
+// does not depend on file size. A creation first drains the pending chunk, so operations
+// always see accounts created earlier in the file. Within a chunk every operation touching an
+// account, including transfers to it, keeps file order (see processBatch), so a file gives the
+// same results on every run.
+public class BatchCommandRunner {
+    private static final int DEFAULT_CHUNK_SIZE = 8192;
+    private static final int READ_BUFFER_CHARS = 1 << 16;
+    private static final int MAX_REPORTED_LINE_ERRORS = 20;
+
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final int chunkSize;
+
+    private final List<TransactionOperation> pending = new ArrayList<>();
+    private BatchSummary summary;
+    private int reportedLineErrors;
+
+    public BatchCommandRunner(AccountService accountService, TransactionService transactionService) {
+        this(accountService, transactionService, DEFAULT_CHUNK_SIZE);
+    }
+
+    public BatchCommandRunner(AccountService accountService, TransactionService transactionService, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        this.accountService = accountService;
+        this.transactionService = transactionService;
+        this.chunkSize = chunkSize;
+    }
+
+    public BatchSummary run(Path commandFile) throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(commandFile), StandardCharsets.UTF_8)) {
+            return run(reader);
+        }
+    }
+
+    public BatchSummary run(Reader source) throws IOException {
+        summary = new BatchSummary();
+        reportedLineErrors = 0;
+        pending.clear();
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(source, READ_BUFFER_CHARS);
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty() || line.charAt(0) == '#' || line.trim().isEmpty()) {
+                continue;
+            }
+            summary.lineRead();
+            try {
+                execute(line.split(",", -1));
+            } catch (IllegalArgumentException e) {
+                summary.rejectedLine(e.getMessage());
+                if (reportedLineErrors++ < MAX_REPORTED_LINE_ERRORS) {
+                    System.err.println("Line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        flush();
+        summary.finished(System.nanoTime() - start);
+        return summary;
+    }
+
+    private void execute(String[] fields) {
+        String command = fields[0].trim();
+        switch (command) {
+            case "CREATE_MAIN":
+            case "CREATE_SAVINGS":
+            case "CREATE_CURRENT":
+                create(command, fields);
+                return;
+            case "DEPOSIT":
+                expectFields(fields, 3);
+                enqueue(TransactionOperation.deposit(accountId(fields[1]), amount(fields[2])));
+                return;
+            case "WITHDRAW":
+                expectFields(fields, 3);
+                enqueue(TransactionOperation.withdraw(accountId(fields[1]), amount(fields[2])));
+                return;
+            case "WITHDRAW_UPI":
+                expectFields(fields, 4);
+                enqueue(TransactionOperation.withdrawWithUpi(accountId(fields[1]), upiId(fields[2]), amount(fields[3])));
+                return;
+            case "WITHDRAW_CARD":
+                expectFields(fields, 4);
+                enqueue(TransactionOperation.withdrawWithCard(accountId(fields[1]), card(fields[2]), amount(fields[3])));
+                return;
+            case "PAY_TAX":
+                expectFields(fields, 2);
+                enqueue(TransactionOperation.payTax(accountId(fields[1])));
+                return;
+            case "TRANSFER":
+                expectFields(fields, 4);
+                enqueue(TransactionOperation.transfer(accountId(fields[1]), accountId(fields[2]), amount(fields[3])));
+                return;
+            default:
+                throw new IllegalArgumentException("Unknown command.");
+        }
+    }
+
+    private void create(String command, String[] fields) {
+        if (fields.length < 4 || fields.length > 6) {
+            throw new IllegalArgumentException("Wrong number of fields.");
+        }
+        String accNo = ValidationUtils.validateInput(fields[1], ValidationUtils.getAccountNumberPattern());
+        if (accNo == null) {
+            throw new IllegalArgumentException("Invalid account number.");
+        }
+        String name = ValidationUtils.validateInput(fields[2], ValidationUtils.getNamePattern());
+        if (name == null) {
+            throw new IllegalArgumentException("Invalid name.");
+        }
+        long balance = money(fields[3], 0, "Invalid initial balance.");
+        String upiId = fields.length > 4 && !fields[4].trim().isEmpty() ? upiId(fields[4]) : null;
+        int card = fields.length > 5 && !fields[5].trim().isEmpty() ? card(fields[5]) : -1;
+
+        // Later lines may use this account, so everything queued before it runs first
+        flush();
+        Account created;
+        try {
+            switch (command) {
+                case "CREATE_MAIN":
+                    created = accountService.createMainAccount(accNo, name, balance, upiId, card);
+                    break;
+                case "CREATE_SAVINGS":
+                    created = accountService.createSavingsAccount(accNo, name, balance, upiId, card);
+                    break;
+                default:
+                    created = accountService.createCurrentAccount(accNo, name, balance, upiId, card);
+                    break;
+            }
+        } catch (IllegalStateException e) {
+            summary.failed(e.getMessage());
+            return;
+        }
+        if (created != null) {
+            summary.succeeded();
+        } else {
+            summary.failed("Account already exists.");
+        }
+    }
+
+    private void enqueue(TransactionOperation operation) {
+        pending.add(operation);
+        if (pending.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (TransactionResult result : transactionService.processBatch(pending)) {
+            if (result.isSuccess()) {
+                summary.succeeded();
+            } else {
+                summary.failed(result.getMessage());
+            }
+        }
+        pending.clear();
+    }
+
+    private static void expectFields(String[] fields, int count) {
+        if (fields.length != count) {
+            throw new IllegalArgumentException("Wrong number of fields.");
+        }
+    }
+
+    private static String accountId(String field) {
+        String accountId = ValidationUtils.validateInput(field, ValidationUtils.getAccountIdPattern());
+        if (accountId == null) {
+            throw new IllegalArgumentException("Invalid account ID.");
+        }
+        return accountId;
+    }
+
+    private static String upiId(String field) {
+        String upiId = ValidationUtils.validateInput(field, ValidationUtils.getUpiPattern());
+        if (upiId == null || upiId.length() > 50) {
+            throw new IllegalArgumentException("Invalid UPI ID.");
+        }
+        return upiId;
+    }
+
+    private static int card(String field) {
+        return number(field, 0, "Invalid credit card number.");
+    }
+
+    private static long amount(String field) {
+        return money(field, 1, "Invalid amount.");
+    }
+
+    private static long money(String field, long minPaise, String error) {
+        try {
+            long paise = Money.parse(field);
+            if (paise >= minPaise) {
+                return paise;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the error below
+        }
+        throw new IllegalArgumentException(error);
+    }
+
+    // Not ValidationUtils.validateNumericInput: that prints on every bad value
+    private static int number(String field, int min, String error) {
+        try {
+            int value = Integer.parseInt(field.trim());
+            if (value >= min) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the error below
+        }
+        throw new IllegalArgumentException(error);
+    }
+}
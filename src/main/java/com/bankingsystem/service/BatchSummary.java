@@ -0,0 +1,84 @@
+package com.bankingsystem.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+// Totals for one BatchCommandRunner run. Failures are counted by message, which comes from a
+// small fixed set, so the summary stays the same size however long the file is.
+public final class BatchSummary {
+    private long linesRead;
+    private long succeeded;
+    private long failed;
+    private long rejectedLines;
+    private long elapsedNanos;
+    private final Map<String, Long> failuresByReason = new TreeMap<>();
+
+    void lineRead() {
+        linesRead++;
+    }
+
+    void succeeded() {
+        succeeded++;
+    }
+
+    void failed(String reason) {
+        failed++;
+        failuresByReason.merge(reason, 1L, Long::sum);
+    }
+
+    void rejectedLine(String reason) {
+        rejectedLines++;
+        failuresByReason.merge(reason, 1L, Long::sum);
+    }
+
+    void finished(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getRejectedLines() {
+        return rejectedLines;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public Map<String, Long> getFailuresByReason() {
+        return failuresByReason;
+    }
+
+    public double getOperationsPerSecond() {
+        long operations = succeeded + failed;
+        return elapsedNanos == 0 ? 0 : operations * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public String format() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("=== Batch Summary ===\n");
+        summary.append(String.format("Lines read:        %,d%n", linesRead));
+        summary.append(String.format("Succeeded:         %,d%n", succeeded));
+        summary.append(String.format("Failed:            %,d%n", failed));
+        summary.append(String.format("Rejected lines:    %,d%n", rejectedLines));
+        summary.append(String.format("Elapsed:           %.3f s%n", elapsedNanos / 1_000_000_000.0));
+        summary.append(String.format("Throughput:        %,.0f ops/s%n", getOperationsPerSecond()));
+        if (!failuresByReason.isEmpty()) {
+            summary.append("Errors by reason:\n");
+            for (Map.Entry<String, Long> entry : failuresByReason.entrySet()) {
+                summary.append(String.format("  %,12d  %s%n", entry.getValue(), entry.getKey()));
+            }
+        }
+        return summary.toString();
+    }
+}
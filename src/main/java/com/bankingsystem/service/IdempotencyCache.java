@@ -0,0 +1,319 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Account;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Remembers the outcome of operations submitted with an idempotency key, so an upstream retry of
+// a timed-out deposit or transfer gets the first submission's result back instead of moving the
+// money twice. A key is remembered until it is ttl old or, when keys arrive faster than
+// capacity / ttl, until capacity newer keys have pushed it out - so the guaranteed retry window
+// is the shorter of ttl and capacity / key rate.
+//
+// Keys are spread over lock-striped segments by hash. Each segment is a fixed ring of entries in
+// insertion order plus an open-addressing table from key to ring slot; since every entry lives
+// for the same ttl, the ring's head is always the next to expire, and expiring or evicting it is
+// O(1). Entries are columns of primitives (a 128-bit hash of the key, not the key itself, and the
+// result's fields rather than the result), allocated once per segment on first use, so a full
+// cache holds about 64 bytes per key and churning millions of keys an hour allocates nothing.
+//
+// A duplicate that arrives while the first submission is still running waits for it. Retryable
+// results (an unexpected error before the balance changed) are not kept, so such an operation can
+// be retried. An operation that throws instead of returning a result may already have moved the
+// money, so its key is kept with an "outcome unknown" failure rather than letting a retry apply
+// it again. Keys live in memory only and are forgotten on restart.
+public final class IdempotencyCache {
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+    public static final long DEFAULT_TTL_MILLIS = 24 * 60 * 60 * 1000L;
+    static final String KEY_REUSED = "Idempotency key was already used for a different operation.";
+    static final String OUTCOME_UNKNOWN = "The first submission with this idempotency key did not complete; its outcome is unknown.";
+
+    private static final TransactionResult.Failure[] FAILURES = TransactionResult.Failure.values();
+    private static final int SEGMENTS_PER_CORE = 4;
+    // Segments are never smaller than this, so small caches are not spread over empty stripes
+    private static final int MIN_SEGMENT_CAPACITY = 1024;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final long ttlNanos;
+
+    public IdempotencyCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_TTL_MILLIS);
+    }
+
+    public IdempotencyCache(int capacity, long ttlMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("TTL must be positive.");
+        }
+        int wanted = SEGMENTS_PER_CORE * Runtime.getRuntime().availableProcessors();
+        int count = Math.min(Integer.highestOneBit(wanted - 1) << 1,
+                Integer.highestOneBit(Math.max(1, capacity / MIN_SEGMENT_CAPACITY)));
+        this.segments = new Segment[count];
+        int perSegment = (capacity + count - 1) / count;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        this.segmentMask = count - 1;
+        this.ttlNanos = Math.multiplyExact(ttlMillis, 1_000_000L);
+    }
+
+    // Runs apply for the first submission of operation's key and keeps its result; returns the
+    // kept result, marked as replayed, for later submissions of the same operation, and a
+    // failure for a different operation under the same key.
+    TransactionResult execute(TransactionOperation operation, Account account, Supplier<TransactionResult> apply) {
+        String key = operation.getIdempotencyKey();
+        long high = hash(key, 0xCBF29CE484222325L, 0x100000001B3L);
+        long low = hash(key, 0x84222325CBF29CE4L, 0x9E3779B97F4A7C15L);
+        long request = operation.fingerprint();
+        Segment segment = segments[(int) (high >>> 32) & segmentMask];
+        int slot;
+        segment.lock.lock();
+        try {
+            long now = System.nanoTime();
+            segment.expire(now);
+            while ((slot = segment.find(high, low)) >= 0 && segment.state[slot] == Segment.PENDING) {
+                segment.completed.awaitUninterruptibly();
+                segment.expire(System.nanoTime());
+            }
+            if (slot >= 0) {
+                segment.replays++;
+                if (segment.request[slot] != request) {
+                    return TransactionResult.failure(operation, account.getBalance(),
+                            TransactionResult.Failure.KEY_REUSED, KEY_REUSED);
+                }
+                return new TransactionResult(operation, segment.state[slot] == Segment.SUCCEEDED,
+                        segment.amount[slot], segment.balance[slot], FAILURES[segment.failure[slot]],
+                        segment.message[slot], true);
+            }
+            slot = segment.insert(high, low, request, now + ttlNanos);
+        } finally {
+            segment.lock.unlock();
+        }
+        TransactionResult result = null;
+        try {
+            result = apply.get();
+            return result;
+        } finally {
+            segment.complete(slot, high, low, result != null ? result
+                    : TransactionResult.failure(operation, account.getBalance(), TransactionResult.Failure.UNEXPECTED,
+                            OUTCOME_UNKNOWN));
+        }
+    }
+
+    // Keys currently remembered
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.count - segment.abandoned;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    // Submissions answered from the cache
+    public long getReplays() {
+        long replays = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                replays += segment.replays;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return replays;
+    }
+
+    // Keys dropped before their ttl to make room; nonzero means the retry window is shorter than ttl
+    public long getEvictions() {
+        long evictions = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                evictions += segment.evictions;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return evictions;
+    }
+
+    // Seeded FNV-1a style over the key's chars, finished with the murmur3 mixer
+    private static long hash(String key, long seed, long multiplier) {
+        long hash = seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * multiplier;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static final class Segment {
+        static final byte PENDING = 1;
+        static final byte SUCCEEDED = 2;
+        static final byte FAILED = 3;
+        // Its result was retryable; the slot waits in the ring but is no longer in the table
+        static final byte ABANDONED = 4;
+
+        final ReentrantLock lock = new ReentrantLock();
+        // Signalled whenever a pending entry completes, for duplicates waiting on it
+        final Condition completed = lock.newCondition();
+        final int capacity;
+
+        // Entry columns, by ring slot
+        long[] keyHigh;
+        long[] keyLow;
+        long[] request;
+        long[] expiresAt;
+        long[] amount;
+        long[] balance;
+        byte[] state;
+        // TransactionResult.Failure ordinal
+        byte[] failure;
+        String[] message;
+        // Ring slot + 1 per bucket, 0 for empty; at most half full
+        int[] table;
+        int tableMask;
+
+        int head;
+        int count;
+        int abandoned;
+        long replays;
+        long evictions;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        // Columns are allocated on first use, so an unused cache costs nothing
+        private void allocate() {
+            keyHigh = new long[capacity];
+            keyLow = new long[capacity];
+            request = new long[capacity];
+            expiresAt = new long[capacity];
+            amount = new long[capacity];
+            balance = new long[capacity];
+            state = new byte[capacity];
+            failure = new byte[capacity];
+            message = new String[capacity];
+            table = new int[Integer.highestOneBit(capacity) << 2];
+            tableMask = table.length - 1;
+        }
+
+        void expire(long now) {
+            while (count > 0 && expiresAt[head] - now <= 0) {
+                removeHead();
+            }
+        }
+
+        int find(long high, long low) {
+            if (table == null) {
+                return -1;
+            }
+            for (int bucket = (int) low & tableMask;; bucket = (bucket + 1) & tableMask) {
+                int entry = table[bucket];
+                if (entry == 0) {
+                    return -1;
+                }
+                if (keyLow[entry - 1] == low && keyHigh[entry - 1] == high) {
+                    return entry - 1;
+                }
+            }
+        }
+
+        int insert(long high, long low, long requestHash, long expires) {
+            if (table == null) {
+                allocate();
+            }
+            if (count == capacity) {
+                if (state[head] != ABANDONED) {
+                    evictions++;
+                }
+                removeHead();
+            }
+            int slot = head + count < capacity ? head + count : head + count - capacity;
+            count++;
+            keyHigh[slot] = high;
+            keyLow[slot] = low;
+            request[slot] = requestHash;
+            expiresAt[slot] = expires;
+            state[slot] = PENDING;
+            int bucket = (int) low & tableMask;
+            while (table[bucket] != 0) {
+                bucket = (bucket + 1) & tableMask;
+            }
+            table[bucket] = slot + 1;
+            return slot;
+        }
+
+        // Stores the result, or drops the entry when the result is retryable; either way wakes any
+        // duplicates waiting on it
+        void complete(int slot, long high, long low, TransactionResult result) {
+            lock.lock();
+            try {
+                completed.signalAll();
+                // Evicted while running: a capacity far too small for the load
+                if (state[slot] != PENDING || keyHigh[slot] != high || keyLow[slot] != low) {
+                    return;
+                }
+                if (result.isRetryable()) {
+                    unlink(slot);
+                    state[slot] = ABANDONED;
+                    abandoned++;
+                } else {
+                    state[slot] = result.isSuccess() ? SUCCEEDED : FAILED;
+                    amount[slot] = result.getAmount();
+                    balance[slot] = result.getBalance();
+                    failure[slot] = (byte) result.getFailure().ordinal();
+                    message[slot] = result.getMessage();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void removeHead() {
+            int slot = head;
+            if (state[slot] == ABANDONED) {
+                abandoned--;
+            } else {
+                unlink(slot);
+            }
+            state[slot] = 0;
+            message[slot] = null;
+            head = head + 1 < capacity ? head + 1 : 0;
+            count--;
+        }
+
+        // Deletes slot's bucket, shifting later entries of the probe run back over the hole so
+        // lookups never need tombstones
+        private void unlink(int slot) {
+            int hole = (int) keyLow[slot] & tableMask;
+            while (table[hole] != slot + 1) {
+                hole = (hole + 1) & tableMask;
+            }
+            table[hole] = 0;
+            for (int bucket = (hole + 1) & tableMask; table[bucket] != 0; bucket = (bucket + 1) & tableMask) {
+                int home = (int) keyLow[table[bucket] - 1] & tableMask;
+                // Move it back unless its home lies cyclically in (hole, bucket]
+                boolean stays = hole <= bucket ? hole < home && home <= bucket : hole < home || home <= bucket;
+                if (!stays) {
+                    table[hole] = table[bucket];
+                    table[bucket] = 0;
+                    hole = bucket;
+                }
+            }
+        }
+    }
+}
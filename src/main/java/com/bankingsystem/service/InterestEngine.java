@@ -0,0 +1,290 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.metrics.BankMetrics;
+import com.bankingsystem.metrics.MeteredOperation;
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.BalanceStore;
+import com.bankingsystem.model.InterestBearing;
+import com.bankingsystem.persistence.TransactionJournal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Daily interest for every InterestBearing account, credited in bulk.
+//
+// The engine keeps a bitset, indexed by BalanceStore handle, of the accounts that currently
+// earn interest (a positive rate and a balance at or above the minimum), plus the balance each
+// account had when it was last evaluated. Each run drains the store's changed-set (see
+// BalanceStore.drainChanged) and re-evaluates only the accounts opened or changed since the
+// previous run whose balance differs from that copy, so the recheck costs in proportion to the
+// active accounts, not all of them. Account types that do not earn interest are recognised from
+// their type flags after the first lookup. The run then credits the set in parallel fork-join
+// leaves of 4096 handles, each journaling and logging its credits as one group, the way
+// TaxRunner does.
+//
+// A run covers every day since the previous one, at the balance when it runs. Like the tax run,
+// the journal records the day (INTEREST_RUN) before the first credit, so a day is never
+// credited twice, across restarts too. A run cut short by a crash is not repeated: the accounts
+// it had not reached go without that day's interest rather than anyone being paid it twice.
+public class InterestEngine implements AutoCloseable {
+    // 64 bitset words of 64 handles: 4096 handles per leaf
+    private static final int LEAF_WORDS = 64;
+    private static final long NEVER = Long.MIN_VALUE;
+    // Balances are never negative, so this never matches a real one
+    private static final long UNSEEN = -1;
+    private static final byte TYPE_UNKNOWN = 0;
+    private static final byte TYPE_EARNS = 1;
+    private static final byte TYPE_NO_INTEREST = 2;
+    private static final BalanceStore STORE = BalanceStore.shared();
+
+    private final LoggingService loggingService;
+    private final AccountRegistry accountRegistry;
+    private final TransactionJournal journal;
+    private final BankMetrics metrics;
+    // Only touched inside run(), which is synchronized
+    private long[] eligible = new long[0];
+    private long eligibleCount;
+    // Balance as of the last evaluation (plus any interest credited since), by handle
+    private long[] seen = new long[0];
+    // Whether each BalanceStore type is InterestBearing; one class per type, so learned once
+    private final byte[] typeInterest = new byte[BalanceStore.TYPE_MASK + 1];
+    private long accruedThrough;
+    private volatile ScheduledThreadPoolExecutor scheduler;
+
+    // accruedThrough is the last day interest was run for (JournalReplayer.getInterestAccruedThrough),
+    // or null if it never has
+    public InterestEngine(LoggingService loggingService, AccountRegistry accountRegistry, TransactionJournal journal,
+            BankMetrics metrics, LocalDate accruedThrough) {
+        this.loggingService = loggingService;
+        this.accountRegistry = accountRegistry;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.accruedThrough = accruedThrough == null ? NEVER : accruedThrough.toEpochDay();
+    }
+
+    public InterestRunSummary run(LocalDate day) {
+        return run(day, ForkJoinPool.commonPool());
+    }
+
+    // Credits interest for the days after the last run up to and including day. The first run
+    // ever credits one day; a day at or before the last run credits nothing.
+    public synchronized InterestRunSummary run(LocalDate day, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        long epochDay = day.toEpochDay();
+        long elapsedDays = accruedThrough == NEVER ? 1 : epochDay - accruedThrough;
+        int days = (int) Math.max(0, Math.min(elapsedDays, Integer.MAX_VALUE));
+        InterestRunSummary summary = new InterestRunSummary(day, days);
+        if (days > 0) {
+            summary.rechecked(recheckChanged(), eligibleCount);
+            if (journal != null) {
+                journal.appendInterestRun(epochDay);
+            }
+            accruedThrough = epochDay;
+            summary.merge(pool.invoke(new Slice(eligible, seen, 0, eligible.length, day, days)));
+        }
+        summary.finished(System.nanoTime() - start);
+        if (metrics != null) {
+            metrics.record(MeteredOperation.INTEREST_RUN, start, true);
+        }
+        return summary;
+    }
+
+    // Re-evaluates every changed account whose balance differs from the last one seen; returns
+    // how many
+    private int recheckChanged() {
+        int size = STORE.size();
+        if (seen.length < size) {
+            int seenBefore = seen.length;
+            seen = Arrays.copyOf(seen, Math.max(size, seenBefore << 1));
+            Arrays.fill(seen, seenBefore, seen.length, UNSEEN);
+        }
+        Recheck recheck = new Recheck();
+        STORE.drainChanged(recheck);
+        return recheck.rechecked;
+    }
+
+    private final class Recheck implements BalanceStore.Visitor {
+        int rechecked;
+
+        @Override
+        public void visit(int handle, long balance, int flags) {
+            // Allocated after the size read above; marked again for the next run
+            if (handle >= seen.length) {
+                STORE.markChanged(handle);
+                return;
+            }
+            if (balance == seen[handle] || typeInterest[flags & BalanceStore.TYPE_MASK] == TYPE_NO_INTEREST) {
+                return;
+            }
+            Account account = accountRegistry.findByHandle(handle);
+            if (account == null) {
+                // Not registered (yet): marked again, so it is looked at again next run
+                STORE.markChanged(handle);
+                return;
+            }
+            rechecked++;
+            seen[handle] = balance;
+            boolean earns = false;
+            if (account instanceof InterestBearing) {
+                typeInterest[flags & BalanceStore.TYPE_MASK] = TYPE_EARNS;
+                InterestBearing interestBearing = (InterestBearing) account;
+                earns = interestBearing.getInterestRateBasisPoints() > 0
+                        && balance >= interestBearing.getMinimumBalance();
+            } else {
+                typeInterest[flags & BalanceStore.TYPE_MASK] = TYPE_NO_INTEREST;
+            }
+            setEligible(handle, earns);
+        }
+    }
+
+    private void setEligible(int handle, boolean earns) {
+        int word = handle >>> 6;
+        if (word >= eligible.length) {
+            if (!earns) {
+                return;
+            }
+            eligible = Arrays.copyOf(eligible, Math.max(word + 1, eligible.length << 1));
+        }
+        long bit = 1L << handle;
+        if (((eligible[word] & bit) != 0) != earns) {
+            eligible[word] ^= bit;
+            eligibleCount += earns ? 1 : -1;
+        }
+    }
+
+    // Runs shortly after every local midnight in zone, for the day that just ended
+    public synchronized void scheduleNightly(ZoneId zone) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Interest runs are already scheduled.");
+        }
+        scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "bank-interest-engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // On close, drop the wait for the next midnight instead of waiting it out
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        scheduleNext(zone);
+    }
+
+    // One shot per day rather than a fixed 24-hour rate, so daylight-saving days stay on midnight
+    private void scheduleNext(ZoneId zone) {
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        ZonedDateTime midnight = now.toLocalDate().plusDays(1).atStartOfDay(zone);
+        try {
+            scheduler.schedule(() -> runScheduled(zone), Duration.between(now, midnight).toMillis(),
+                    TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Closed meanwhile
+        }
+    }
+
+    private void runScheduled(ZoneId zone) {
+        try {
+            run(LocalDate.now(zone).minusDays(1));
+        } catch (RuntimeException e) {
+            System.err.println("Scheduled interest run failed.");
+        } finally {
+            scheduleNext(zone);
+        }
+    }
+
+    // Stops the schedule, letting a run in progress finish first
+    @Override
+    public void close() {
+        ScheduledThreadPoolExecutor current = scheduler;
+        if (current != null) {
+            current.shutdown();
+            try {
+                current.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private final class Slice extends RecursiveTask<InterestRunSummary> {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] words;
+        private final long[] seen;
+        private final int from;
+        private final int to;
+        private final LocalDate day;
+        private final int days;
+
+        Slice(long[] words, long[] seen, int from, int to, LocalDate day, int days) {
+            this.words = words;
+            this.seen = seen;
+            this.from = from;
+            this.to = to;
+            this.day = day;
+            this.days = days;
+        }
+
+        @Override
+        protected InterestRunSummary compute() {
+            if (to - from <= LEAF_WORDS) {
+                return creditSlice();
+            }
+            int middle = (from + to) >>> 1;
+            Slice left = new Slice(words, seen, from, middle, day, days);
+            left.fork();
+            InterestRunSummary summary = new Slice(words, seen, middle, to, day, days).compute();
+            summary.merge(left.join());
+            return summary;
+        }
+
+        private InterestRunSummary creditSlice() {
+            InterestRunSummary summary = new InterestRunSummary(day, days);
+            int candidates = 0;
+            for (int w = from; w < to; w++) {
+                candidates += Long.bitCount(words[w]);
+            }
+            if (candidates == 0) {
+                return summary;
+            }
+            Account[] credited = new Account[candidates];
+            String[] creditedIds = new String[candidates];
+            long[] interest = new long[candidates];
+            int count = 0;
+            for (int w = from; w < to; w++) {
+                for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                    int handle = (w << 6) | Long.numberOfTrailingZeros(bits);
+                    Account account = accountRegistry.findByHandle(handle);
+                    long amount;
+                    try {
+                        amount = ((InterestBearing) account).applyInterest(days);
+                    } catch (RuntimeException e) {
+                        summary.skipped();
+                        continue;
+                    }
+                    if (amount == 0) {
+                        summary.skipped();
+                        continue;
+                    }
+                    // What the balance is now unless something else moved it since the recheck,
+                    // in which case the mismatch gets it re-evaluated next run
+                    seen[handle] += amount;
+                    summary.credited(amount);
+                    credited[count] = account;
+                    creditedIds[count] = account.getAccountId();
+                    interest[count] = amount;
+                    count++;
+                }
+            }
+            if (journal != null) {
+                journal.appendInterestCredits(creditedIds, interest, count);
+            }
+            loggingService.logInterestCredits(credited, interest, count);
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Money;
+import java.time.LocalDate;
+
+// Totals for one InterestEngine run. Like TaxRunSummary, each fork-join leaf counts into its
+// own summary and the leaves are merged on the way back up.
+public final class InterestRunSummary {
+    private final LocalDate day;
+    private final int days;
+    private long accountsRechecked;
+    private long eligibleAccounts;
+    private long accountsCredited;
+    private long interestCredited;
+    private long accountsSkipped;
+    private long elapsedNanos;
+
+    InterestRunSummary(LocalDate day, int days) {
+        this.day = day;
+        this.days = days;
+    }
+
+    void rechecked(long accounts, long eligible) {
+        this.accountsRechecked = accounts;
+        this.eligibleAccounts = eligible;
+    }
+
+    void credited(long interest) {
+        accountsCredited++;
+        interestCredited += interest;
+    }
+
+    // Eligible when the run started, but below the minimum (or owed under a paisa) by the time
+    // it was credited
+    void skipped() {
+        accountsSkipped++;
+    }
+
+    void merge(InterestRunSummary other) {
+        accountsCredited += other.accountsCredited;
+        interestCredited += other.interestCredited;
+        accountsSkipped += other.accountsSkipped;
+    }
+
+    void finished(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    // Days of interest credited by this run: 0 if the day had already been accrued
+    public int getDays() {
+        return days;
+    }
+
+    // Accounts whose balance moved since the previous run, and were re-evaluated
+    public long getAccountsRechecked() {
+        return accountsRechecked;
+    }
+
+    public long getEligibleAccounts() {
+        return eligibleAccounts;
+    }
+
+    public long getAccountsCredited() {
+        return accountsCredited;
+    }
+
+    // In paise
+    public long getInterestCredited() {
+        return interestCredited;
+    }
+
+    public long getAccountsSkipped() {
+        return accountsSkipped;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public String format() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("=== Interest Run Summary ===\n");
+        if (days == 0) {
+            summary.append("Interest already accrued through ").append(day).append("; nothing credited.\n");
+            return summary.toString();
+        }
+        summary.append(String.format("Day:               %s (%d day%s)%n", day, days, days == 1 ? "" : "s"));
+        summary.append(String.format("Rechecked:         %,d changed accounts%n", accountsRechecked));
+        summary.append(String.format("Eligible:          %,d accounts%n", eligibleAccounts));
+        summary.append(String.format("Credited:          %,d accounts, ₹%s%n", accountsCredited,
+                Money.format(interestCredited)));
+        summary.append(String.format("Skipped:           %,d%n", accountsSkipped));
+        summary.append(String.format("Elapsed:           %.3f s%n", elapsedNanos / 1_000_000_000.0));
+        return summary.toString();
+    }
+}
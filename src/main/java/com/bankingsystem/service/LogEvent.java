@@ -0,0 +1,105 @@
+package com.bankingsystem.service;
+
+import java.time.Instant;
+
+// One audit record captured on the caller's thread. Only the raw values are captured there;
+// turning them into text or binary records happens in LoggingService, on the writer thread in
+// async mode. AuditLogReader rebuilds events from binary records to print them.
+final class LogEvent {
+    enum Type {
+        ACCOUNT_CREATED,
+        DEPOSIT,
+        WITHDRAWAL,
+        TAX_PAID,
+        TRANSFER,
+        INTEREST_CREDITED,
+        // TAX_PAID or INTEREST_CREDITED for many accounts at once (bulk runs)
+        BATCH
+    }
+
+    final Type type;
+    // Since the epoch, in nanoseconds (as precise as the system clock)
+    final long timestampNanos;
+    final String accountId;
+    // In paise
+    final long amount;
+    final long balance;
+    // Withdrawal method, account type for ACCOUNT_CREATED, or the text of a BATCH
+    final String detail;
+    // Recipient for TRANSFER
+    final String counterpartyId;
+    // ACCOUNT_CREATED only
+    final String name;
+    final String upiId;
+    final String encryptedCard;
+    // BATCH only: the entry type and the first count account IDs and amounts
+    final Type batchType;
+    final String[] accountIds;
+    final long[] amounts;
+    final int count;
+
+    private LogEvent(Type type, long timestampNanos, String accountId, long amount, long balance, String detail,
+            String counterpartyId, String name, String upiId, String encryptedCard) {
+        this(type, timestampNanos, accountId, amount, balance, detail, counterpartyId, name, upiId, encryptedCard,
+                null, null, null, 0);
+    }
+
+    private LogEvent(Type type, long timestampNanos, String accountId, long amount, long balance, String detail,
+            String counterpartyId, String name, String upiId, String encryptedCard, Type batchType,
+            String[] accountIds, long[] amounts, int count) {
+        this.type = type;
+        this.timestampNanos = timestampNanos;
+        this.accountId = accountId;
+        this.amount = amount;
+        this.balance = balance;
+        this.detail = detail;
+        this.counterpartyId = counterpartyId;
+        this.name = name;
+        this.upiId = upiId;
+        this.encryptedCard = encryptedCard;
+        this.batchType = batchType;
+        this.accountIds = accountIds;
+        this.amounts = amounts;
+        this.count = count;
+    }
+
+    static long now() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    static LogEvent accountCreated(String accountType, String accountId, String name, long balance, String upiId,
+            String encryptedCard) {
+        return new LogEvent(Type.ACCOUNT_CREATED, now(), accountId, 0, balance, accountType, null, name, upiId,
+                encryptedCard);
+    }
+
+    static LogEvent deposit(String accountId, long amount, long newBalance) {
+        return new LogEvent(Type.DEPOSIT, now(), accountId, amount, newBalance, null, null, null, null, null);
+    }
+
+    static LogEvent withdrawal(String accountId, long amount, long newBalance, String method) {
+        return new LogEvent(Type.WITHDRAWAL, now(), accountId, amount, newBalance, method, null, null, null, null);
+    }
+
+    static LogEvent taxPaid(String accountId, long taxAmount) {
+        return new LogEvent(Type.TAX_PAID, now(), accountId, taxAmount, 0, null, null, null, null, null);
+    }
+
+    static LogEvent transfer(String fromAccountId, String toAccountId, long amount) {
+        return new LogEvent(Type.TRANSFER, now(), fromAccountId, amount, 0, null, toAccountId, null, null, null);
+    }
+
+    // batchType is TAX_PAID or INTEREST_CREDITED; the arrays are not copied
+    static LogEvent batch(Type batchType, String[] accountIds, long[] amounts, int count) {
+        return new LogEvent(Type.BATCH, now(), null, 0, 0, null, null, null, null, null, batchType, accountIds,
+                amounts, count);
+    }
+
+    // For AuditLogReader: an event exactly as decoded from a binary record
+    static LogEvent decoded(Type type, long timestampNanos, String accountId, long amount, long balance,
+            String detail, String counterpartyId, String name, String upiId, String encryptedCard) {
+        return new LogEvent(type, timestampNanos, accountId, amount, balance, detail, counterpartyId, name, upiId,
+                encryptedCard);
+    }
+}
@@ -0,0 +1,9 @@
+package com.bankingsystem.service;
+
+// How LoggingService writes audit records. TEXT is one formatted line per record. BINARY is
+// the compact fixed-layout encoding described in AuditRecordEncoder: no formatting on the
+// logging path, and AuditLogReader prints it back in the TEXT layout.
+public enum LogFormat {
+    TEXT,
+    BINARY
+}
@@ -0,0 +1,81 @@
+package com.bankingsystem.service;
+
+import java.util.zip.Deflater;
+
+// Settings for LoggingService's segmented mode. The log is a directory of numbered segments;
+// the writer rolls to a new one when the current segment reaches maxSegmentBytes or has been
+// open for maxSegmentAgeMillis (checked on each write), and a background thread gzips every
+// closed segment. A limit of 0 disables that trigger. Each segment also gets a sidecar index of
+// the accounts in every block of about indexBlockBytes, with a Bloom filter of
+// bloomBitsPerAccount bits per account (see SegmentIndex); 0 disables the index or the filter.
+public final class LogRotationConfig {
+    private static final int DEFAULT_COMPRESSION_LEVEL = 6;
+    private static final int DEFAULT_INDEX_BLOCK_BYTES = 64 << 10;
+    private static final int DEFAULT_BLOOM_BITS_PER_ACCOUNT = 10;
+
+    private final long maxSegmentBytes;
+    private final long maxSegmentAgeMillis;
+    private final boolean compress;
+    private final int compressionLevel;
+    private final int indexBlockBytes;
+    private final int bloomBitsPerAccount;
+
+    public LogRotationConfig(long maxSegmentBytes, long maxSegmentAgeMillis, boolean compress, int compressionLevel) {
+        this(maxSegmentBytes, maxSegmentAgeMillis, compress, compressionLevel, DEFAULT_INDEX_BLOCK_BYTES,
+                DEFAULT_BLOOM_BITS_PER_ACCOUNT);
+    }
+
+    public LogRotationConfig(long maxSegmentBytes, long maxSegmentAgeMillis, boolean compress, int compressionLevel,
+            int indexBlockBytes, int bloomBitsPerAccount) {
+        if (maxSegmentBytes < 0) {
+            throw new IllegalArgumentException("Segment size limit cannot be negative.");
+        }
+        if (maxSegmentAgeMillis < 0) {
+            throw new IllegalArgumentException("Segment age limit cannot be negative.");
+        }
+        if (compressionLevel < Deflater.BEST_SPEED || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be 1-9.");
+        }
+        if (indexBlockBytes < 0) {
+            throw new IllegalArgumentException("Index block size cannot be negative.");
+        }
+        if (bloomBitsPerAccount < 0 || bloomBitsPerAccount > 64) {
+            throw new IllegalArgumentException("Bloom filter bits per account must be 0-64.");
+        }
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegmentAgeMillis = maxSegmentAgeMillis;
+        this.compress = compress;
+        this.compressionLevel = compressionLevel;
+        this.indexBlockBytes = indexBlockBytes;
+        this.bloomBitsPerAccount = bloomBitsPerAccount;
+    }
+
+    // 64 MB or one hour per segment, gzip level 6, 64 KB index blocks, 10-bit Bloom filters
+    public static LogRotationConfig defaults() {
+        return new LogRotationConfig(64L << 20, 60L * 60 * 1000, true, DEFAULT_COMPRESSION_LEVEL);
+    }
+
+    public long getMaxSegmentBytes() {
+        return maxSegmentBytes;
+    }
+
+    public long getMaxSegmentAgeMillis() {
+        return maxSegmentAgeMillis;
+    }
+
+    public boolean isCompress() {
+        return compress;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public int getIndexBlockBytes() {
+        return indexBlockBytes;
+    }
+
+    public int getBloomBitsPerAccount() {
+        return bloomBitsPerAccount;
+    }
+}
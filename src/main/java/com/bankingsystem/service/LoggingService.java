@@ -1,145 +1,346 @@
 package com.bankingsystem.service;
 
+import com.bankingsystem.metrics.BankMetrics;
+import com.bankingsystem.metrics.MeteredOperation;
 import com.bankingsystem.model.Account;
+import com.bankingsystem.model.Money;
 import com.bankingsystem.util.EncryptionUtils;
 import java.io.*;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 public class LoggingService implements AutoCloseable {
-    private final BufferedWriter bufferedWriter;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_BUFFER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final SegmentedLogFile logFile;
+    // Null for TEXT
+    private final AuditRecordEncoder encoder;
+    private final ZoneId zoneId = ZoneId.systemDefault();
+
+    private final BankMetrics metrics;
+
+    // Async mode only; all null/unused when logging synchronously
+    private final AsyncLogConfig asyncConfig;
+    private final LogRingBuffer<LogEvent> ringBuffer;
+    private final Thread writerThread;
+    private final LongAdder droppedEvents = new LongAdder();
+    private volatile boolean closed;
 
     public LoggingService(String logPath) throws IOException {
-        File file = new File(logPath).getAbsoluteFile();
-
-        // Create file with secure permissions before using FileWriter
-        if (!file.exists()) {
-            File parentDir = file.getParentFile();
-            if (parentDir != null && !parentDir.exists()) {
-                parentDir.mkdirs();
-                // Set restrictive directory permissions
-                parentDir.setReadable(false, false);
-                parentDir.setWritable(false, false);
-                parentDir.setExecutable(false, false);
-                parentDir.setReadable(true, true);   // Only owner can read
-                parentDir.setWritable(true, true);   // Only owner can write
-                parentDir.setExecutable(true, true); // Only owner can execute (for directory access)
-            }
+        this(logPath, null);
+    }
 
-            try (FileOutputStream fos = new FileOutputStream(file)) {
-                // File is created with secure permissions
-                file.setReadable(false, false);
-                file.setWritable(false, false);
-                file.setExecutable(false, false);
-                file.setReadable(true, true);   // Only owner can read
-                file.setWritable(true, true);   // Only owner can write
-            }
-        }
+    // With a non-null config, log calls only enqueue an event and a background writer thread
+    // formats, writes and commits them in groups (see AsyncLogConfig)
+    public LoggingService(String logPath, AsyncLogConfig asyncConfig) throws IOException {
+        this(logPath, asyncConfig, null);
+    }
+
+    // With metrics, every log call records a LOG_WRITE latency sample
+    public LoggingService(String logPath, AsyncLogConfig asyncConfig, BankMetrics metrics) throws IOException {
+        this(SegmentedLogFile.single(new File(logPath).getAbsoluteFile()), asyncConfig, metrics);
+    }
+
+    // Segmented mode: the log is a directory of segments rolled and compressed per rotation
+    public LoggingService(Path logDirectory, LogRotationConfig rotation, AsyncLogConfig asyncConfig,
+            BankMetrics metrics) throws IOException {
+        this(logDirectory, rotation, LogFormat.TEXT, asyncConfig, metrics);
+    }
+
+    public LoggingService(Path logDirectory, LogRotationConfig rotation, LogFormat format, AsyncLogConfig asyncConfig,
+            BankMetrics metrics) throws IOException {
+        this(SegmentedLogFile.open(logDirectory.toAbsolutePath(), rotation), format, asyncConfig, metrics);
+    }
 
-        // Resource is properly managed by AutoCloseable implementation
-        FileWriter fileWriter = new FileWriter(file, true);
-        this.bufferedWriter = new BufferedWriter(fileWriter);
+    private LoggingService(SegmentedLogFile logFile, AsyncLogConfig asyncConfig, BankMetrics metrics) {
+        this(logFile, LogFormat.TEXT, asyncConfig, metrics);
+    }
+
+    private LoggingService(SegmentedLogFile logFile, LogFormat format, AsyncLogConfig asyncConfig,
+            BankMetrics metrics) {
+        this.logFile = logFile;
+        this.encoder = format == LogFormat.BINARY ? new AuditRecordEncoder(logFile) : null;
+        this.metrics = metrics;
+        this.asyncConfig = asyncConfig;
+        if (asyncConfig != null) {
+            this.ringBuffer = new LogRingBuffer<>(asyncConfig.getCapacity());
+            this.writerThread = new Thread(this::runWriter, "bank-log-writer");
+            this.writerThread.setDaemon(true);
+            this.writerThread.start();
+        } else {
+            this.ringBuffer = null;
+            this.writerThread = null;
+        }
     }
 
     public void logAccountCreation(Account account, String accountType, String upiId, int creditCard) {
-        try {
-            String logEntry;
-            if (accountType.equals("Main")) {
-                logEntry = String.format(
-                        "[%s] %s Account created - ID: %s, Name: %s, Balance: ₹%d, UPI: %s, Card: %s\n",
-                        LocalDateTime.now(),
-                        accountType,
-                        account.getAccountId(),
-                        account.getName(),
-                        account.getAmount(),
-                        upiId != null ? upiId : "Not set",
-                        EncryptionUtils.encryptCreditCard(creditCard));
-            } else {
-                String parentAccNoForLog = account.getAccountId().substring(3);
-                logEntry = String.format(
-                        "[%s] %s Account created - Parent: MAIN%s, ID: %s, Name: %s, Balance: ₹%d, UPI: %s, Card: %s\n",
-                        LocalDateTime.now(),
-                        accountType,
-                        parentAccNoForLog,
-                        account.getAccountId(),
-                        account.getName(),
-                        account.getAmount(),
-                        upiId != null ? upiId : "Not set",
-                        EncryptionUtils.encryptCreditCard(creditCard));
+        // Encrypt on the caller's thread so the clear card number never sits in the buffer
+        logAccountCreation(account, accountType, upiId, EncryptionUtils.encryptCreditCard(creditCard));
+    }
+
+    public void logAccountCreation(Account account, String accountType, String upiId, String encryptedCard) {
+        append(LogEvent.accountCreated(accountType, account.getAccountId(), account.getName(), account.getBalance(),
+                upiId, encryptedCard), "Error logging account creation");
+    }
+
+    public void logDeposit(Account account, long amount, long newBalance) {
+        append(LogEvent.deposit(account.getAccountId(), amount, newBalance), "Error logging deposit");
+    }
+
+    public void logWithdrawal(Account account, long amount, long newBalance, String method) {
+        append(LogEvent.withdrawal(account.getAccountId(), amount, newBalance, method), "Error logging withdrawal");
+    }
+
+    public void logTaxPayment(Account account, long taxAmount) {
+        append(LogEvent.taxPaid(account.getAccountId(), taxAmount), "Error logging tax payment");
+    }
+
+    // One TAX PAID entry for each of the first count accounts, written as a single block: one
+    // write and flush (or one enqueue in async mode) for the whole group instead of one per account
+    public void logTaxPayments(Account[] accounts, long[] taxPaid, int count) {
+        logAmounts(LogEvent.Type.TAX_PAID, accounts, taxPaid, count, "Error logging tax payments");
+    }
+
+    // One INTEREST CREDITED entry for each of the first count accounts, as one block
+    public void logInterestCredits(Account[] accounts, long[] interest, int count) {
+        logAmounts(LogEvent.Type.INTEREST_CREDITED, accounts, interest, count, "Error logging interest credits");
+    }
+
+    private void logAmounts(LogEvent.Type type, Account[] accounts, long[] amounts, int count, String errorMessage) {
+        if (count == 0) {
+            return;
+        }
+        // Copied: callers may reuse their arrays as soon as this returns
+        String[] accountIds = new String[count];
+        for (int i = 0; i < count; i++) {
+            accountIds[i] = accounts[i].getAccountId();
+        }
+        append(LogEvent.batch(type, accountIds, Arrays.copyOf(amounts, count), count), errorMessage);
+    }
+
+    public void logTransfer(Account fromAccount, Account toAccount, long amount) {
+        append(LogEvent.transfer(fromAccount.getAccountId(), toAccount.getAccountId(), amount),
+                "Error logging transfer");
+    }
+
+    public boolean isAsync() {
+        return asyncConfig != null;
+    }
+
+    // Events rejected because the async buffer was full under the DROP policy, or logged after close
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    private void append(LogEvent event, String errorMessage) {
+        if (metrics == null) {
+            write(event, errorMessage);
+            return;
+        }
+        // Caller-visible cost: the full write in sync mode, the enqueue (and any backpressure) in async mode
+        long start = System.nanoTime();
+        boolean written = write(event, errorMessage);
+        metrics.record(MeteredOperation.LOG_WRITE, start, written);
+    }
+
+    private boolean write(LogEvent event, String errorMessage) {
+        if (asyncConfig == null) {
+            try {
+                writeRecord(event);
+                logFile.flush();
+                return true;
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println(errorMessage);
+                return false;
             }
-            bufferedWriter.write(logEntry);
-            bufferedWriter.flush();
-        } catch (IOException e) {
-            System.err.println("Error logging account creation");
         }
+        while (!ringBuffer.offer(event)) {
+            if (closed || asyncConfig.getBackpressurePolicy() == AsyncLogConfig.BackpressurePolicy.DROP) {
+                droppedEvents.increment();
+                return false;
+            }
+            // BLOCK: make sure the writer is awake, then wait briefly for it to free a slot
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(FULL_BUFFER_PARK_NANOS);
+        }
+        return true;
     }
 
-    public void logDeposit(Account account, int amount, int newBalance) {
-        try {
-            String logEntry = String.format(
-                    "[%s] DEPOSIT - Account: %s, Amount: ₹%d, New Balance: ₹%d\n",
-                    LocalDateTime.now(),
-                    account.getAccountId(),
-                    amount,
-                    newBalance);
-            bufferedWriter.write(logEntry);
-            bufferedWriter.flush();
-        } catch (IOException e) {
-            System.err.println("Error logging deposit");
+    private void runWriter() {
+        int flushEveryEvents = asyncConfig.getFlushEveryEvents();
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(asyncConfig.getFlushIntervalMillis());
+        int pending = 0;
+        long oldestPendingAt = 0;
+        while (true) {
+            LogEvent event = ringBuffer.poll();
+            if (event != null) {
+                try {
+                    writeRecord(event);
+                } catch (IOException | IllegalArgumentException e) {
+                    System.err.println("Error writing log entry");
+                }
+                if (pending++ == 0) {
+                    oldestPendingAt = System.nanoTime();
+                }
+                if (pending >= flushEveryEvents) {
+                    commit();
+                    pending = 0;
+                }
+                continue;
+            }
+            // Buffer drained: commit if the interval says so, then idle until more events arrive
+            if (pending > 0 && System.nanoTime() - oldestPendingAt >= flushIntervalNanos) {
+                commit();
+                pending = 0;
+            }
+            if (closed && ringBuffer.isEmpty()) {
+                break;
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
         }
+        commit();
     }
 
-    public void logWithdrawal(Account account, int amount, int newBalance, String method) {
-        try {
-            String logEntry = String.format(
-                    "[%s] WITHDRAW (%s) - Account: %s, Amount: ₹%d, New Balance: ₹%d\n",
-                    LocalDateTime.now(),
-                    method,
-                    account.getAccountId(),
-                    amount,
-                    newBalance);
-            bufferedWriter.write(logEntry);
-            bufferedWriter.flush();
-        } catch (IOException e) {
-            System.err.println("Error logging withdrawal");
+    // Text or binary, into the log file's buffer. Text batches are written a line at a time so
+    // each line is indexed under its own account.
+    private void writeRecord(LogEvent event) throws IOException {
+        if (encoder != null) {
+            encoder.write(event);
+        } else if (event.type == LogEvent.Type.BATCH) {
+            String prefix = batchPrefix(event, timestamp(event, zoneId));
+            StringBuilder line = new StringBuilder(96);
+            for (int i = 0; i < event.count; i++) {
+                line.setLength(0);
+                logFile.write(appendBatchLine(line, prefix, event, i).toString(), event.timestampNanos,
+                        event.accountIds[i], null);
+            }
+        } else {
+            logFile.write(format(event, zoneId), event.timestampNanos, event.accountId, event.counterpartyId);
         }
     }
 
-    public void logTaxPayment(Account account, double taxAmount) {
+    private void commit() {
         try {
-            String logEntry = String.format(
-                    "[%s] TAX PAID - Account: %s, Amount: ₹%.2f\n",
-                    LocalDateTime.now(),
-                    account.getAccountId(),
-                    taxAmount);
-            bufferedWriter.write(logEntry);
-            bufferedWriter.flush();
+            if (asyncConfig.isFsyncOnCommit()) {
+                logFile.sync();
+            } else {
+                logFile.flush();
+            }
         } catch (IOException e) {
-            System.err.println("Error logging tax payment");
+            System.err.println("Error committing log entries");
         }
     }
 
-    public void logTransfer(Account fromAccount, Account toAccount, double amount) {
-        try {
-            String logEntry = String.format(
-                    "[%s] TRANSFER - From: %s, To: %s, Amount: ₹%.2f\n",
-                    LocalDateTime.now(),
-                    fromAccount.getAccountId(),
-                    toAccount.getAccountId(),
-                    amount);
-            bufferedWriter.write(logEntry);
-            bufferedWriter.flush();
-        } catch (IOException e) {
-            System.err.println("Error logging transfer");
+    // The text layout; AuditLogReader prints decoded binary records with it too. Timestamps are
+    // shown to the millisecond.
+    static String format(LogEvent event, ZoneId zoneId) {
+        LocalDateTime timestamp = timestamp(event, zoneId);
+        switch (event.type) {
+            case ACCOUNT_CREATED:
+                if (event.detail.equals("Main")) {
+                    return String.format(
+                            "[%s] %s Account created - ID: %s, Name: %s, Balance: ₹%s, UPI: %s, Card: %s\n",
+                            timestamp,
+                            event.detail,
+                            event.accountId,
+                            event.name,
+                            Money.format(event.balance),
+                            event.upiId != null ? event.upiId : "Not set",
+                            event.encryptedCard);
+                }
+                String parentAccNoForLog = event.accountId.substring(3);
+                return String.format(
+                        "[%s] %s Account created - Parent: MAIN%s, ID: %s, Name: %s, Balance: ₹%s, UPI: %s, Card: %s\n",
+                        timestamp,
+                        event.detail,
+                        parentAccNoForLog,
+                        event.accountId,
+                        event.name,
+                        Money.format(event.balance),
+                        event.upiId != null ? event.upiId : "Not set",
+                        event.encryptedCard);
+            case DEPOSIT:
+                return String.format(
+                        "[%s] DEPOSIT - Account: %s, Amount: ₹%s, New Balance: ₹%s\n",
+                        timestamp,
+                        event.accountId,
+                        Money.format(event.amount),
+                        Money.format(event.balance));
+            case WITHDRAWAL:
+                return String.format(
+                        "[%s] WITHDRAW (%s) - Account: %s, Amount: ₹%s, New Balance: ₹%s\n",
+                        timestamp,
+                        event.detail,
+                        event.accountId,
+                        Money.format(event.amount),
+                        Money.format(event.balance));
+            case TAX_PAID:
+                return String.format(
+                        "[%s] TAX PAID - Account: %s, Amount: ₹%s\n",
+                        timestamp,
+                        event.accountId,
+                        Money.format(event.amount));
+            case TRANSFER:
+                return String.format(
+                        "[%s] TRANSFER - From: %s, To: %s, Amount: ₹%s\n",
+                        timestamp,
+                        event.accountId,
+                        event.counterpartyId,
+                        Money.format(event.amount));
+            case INTEREST_CREDITED:
+                return String.format(
+                        "[%s] INTEREST CREDITED - Account: %s, Amount: ₹%s\n",
+                        timestamp,
+                        event.accountId,
+                        Money.format(event.amount));
+            case BATCH:
+                // Same lines as one TAX_PAID or INTEREST_CREDITED event per entry, built directly
+                String prefix = batchPrefix(event, timestamp);
+                StringBuilder lines = new StringBuilder(event.count * 80);
+                for (int i = 0; i < event.count; i++) {
+                    appendBatchLine(lines, prefix, event, i);
+                }
+                return lines.toString();
+            default:
+                throw new IllegalStateException("Unknown log event type.");
         }
     }
 
+    static LocalDateTime timestamp(LogEvent event, ZoneId zoneId) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(Math.floorDiv(event.timestampNanos, 1_000_000L)), zoneId);
+    }
+
+    private static String batchPrefix(LogEvent event, LocalDateTime timestamp) {
+        return "[" + timestamp + "] "
+                + (event.batchType == LogEvent.Type.TAX_PAID ? "TAX PAID" : "INTEREST CREDITED") + " - Account: ";
+    }
+
+    private static StringBuilder appendBatchLine(StringBuilder lines, String prefix, LogEvent event, int entry) {
+        lines.append(prefix).append(event.accountIds[entry]).append(", Amount: ₹");
+        return Money.appendTo(lines, event.amounts[entry]).append('\n');
+    }
+
     public void close() {
-        try {
-            if (bufferedWriter != null) {
-                bufferedWriter.close();
+        if (writerThread != null) {
+            closed = true;
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
+        }
+        try {
+            logFile.close();
         } catch (IOException e) {
             System.err.println("Error closing log file");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,476 @@
+package com.bankingsystem.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Sidecar index of one audit log segment (audit-<sequence>.log.idx), built in memory while the
+// segment is written and saved when it closes.
+//
+// The segment is cut into blocks of about blockBytes, always at a record boundary, and the
+// index records where each block starts - in the plain segment and, once the compressor has
+// written every block as its own gzip member, in the .gz - and the range of record times in it,
+// plus, for every account, the blocks it appears in. A lookup therefore reads (and inflates)
+// only those blocks, and a lookup over a date range only those that overlap it. The segment's
+// time range and an optional Bloom filter over its account IDs come first in the file, so a
+// segment that cannot hold an account, or holds nothing in the range, is skipped after reading
+// just the header and the filter words the account hashes to.
+//
+// Layout (big-endian): int magic, short version, long segment length, long earliest and long
+// latest record time (epoch nanoseconds), int block count, int Bloom hash count, int Bloom word
+// count, long[] Bloom words, then per block long plain offset, long gzip offset (-1 until
+// compressed) and long earliest and latest record time. Then the accounts: int account count,
+// int table length and the table, sorted by ID, with per account a modified-UTF-8 ID, int
+// ordinal (binary segments' account reference, -1 for text), int block count, int byte length
+// and the ascending block numbers as varint deltas (most accounts' next block is close by, so a
+// posting is usually one byte); then int directory length and the table offset of every
+// DIRECTORY_STRIDE-th account, and int ordinal count and the table offset of each ordinal's
+// account (none for text). A lookup reads the account section as bytes, binary searches the
+// directory and parses at most one stride of the table; a binary block's account references are
+// resolved through the ordinal offsets as they are met. Nothing is parsed per account, so a
+// lookup costs the same in a segment of a thousand accounts or a million. An index of any other
+// version is rejected as not an index.
+final class SegmentIndex {
+    static final String SUFFIX = ".idx";
+    static final long NOT_COMPRESSED = -1;
+
+    private static final int MAGIC = 0x424B4958; // "BKIX"
+    private static final short VERSION = 3;
+    private static final int DIRECTORY_STRIDE = 64;
+
+    private static final class Postings {
+        final int ordinal;
+        byte[] blocks = new byte[4];
+        int bytes;
+        int count;
+        int last;
+
+        Postings(int ordinal) {
+            this.ordinal = ordinal;
+        }
+
+        void add(int block) {
+            if (count > 0 && last == block) {
+                return;
+            }
+            if (blocks.length - bytes < 5) {
+                blocks = Arrays.copyOf(blocks, blocks.length * 2);
+            }
+            // Unsigned LEB128 of the gap from the previous block
+            int delta = block - last;
+            while ((delta & ~0x7F) != 0) {
+                blocks[bytes++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            blocks[bytes++] = (byte) delta;
+            last = block;
+            count++;
+        }
+    }
+
+    private final int blockBytes;
+    private final int bloomBitsPerAccount;
+    private long[] blockStarts = new long[16];
+    private long[] blockEarliest = new long[16];
+    private long[] blockLatest = new long[16];
+    private int blockCount = 1;
+    private long earliest = Long.MAX_VALUE;
+    private long latest = Long.MIN_VALUE;
+    private final Map<String, Postings> accounts = new HashMap<>();
+
+    // A bloomBitsPerAccount of 0 writes no filter
+    SegmentIndex(int blockBytes, int bloomBitsPerAccount) {
+        this.blockBytes = blockBytes;
+        this.bloomBitsPerAccount = bloomBitsPerAccount;
+        blockEarliest[0] = Long.MAX_VALUE;
+        blockLatest[0] = Long.MIN_VALUE;
+    }
+
+    // Called with the segment offset and time of each record before it is written; starts a new
+    // block once the current one is full. Times need not be in order (async writers interleave
+    // events slightly), so each block keeps its earliest and latest.
+    void beginRecord(long position, long timestampNanos) {
+        if (position - blockStarts[blockCount - 1] >= blockBytes) {
+            if (blockCount == blockStarts.length) {
+                blockStarts = Arrays.copyOf(blockStarts, blockCount * 2);
+                blockEarliest = Arrays.copyOf(blockEarliest, blockCount * 2);
+                blockLatest = Arrays.copyOf(blockLatest, blockCount * 2);
+            }
+            blockStarts[blockCount] = position;
+            blockEarliest[blockCount] = Long.MAX_VALUE;
+            blockLatest[blockCount] = Long.MIN_VALUE;
+            blockCount++;
+        }
+        int block = blockCount - 1;
+        blockEarliest[block] = Math.min(blockEarliest[block], timestampNanos);
+        blockLatest[block] = Math.max(blockLatest[block], timestampNanos);
+        earliest = Math.min(earliest, timestampNanos);
+        latest = Math.max(latest, timestampNanos);
+    }
+
+    // The record just begun involves accountId; ordinal is its binary account reference, or -1
+    void add(String accountId, int ordinal) {
+        Postings postings = accounts.get(accountId);
+        if (postings == null) {
+            postings = new Postings(ordinal);
+            accounts.put(accountId, postings);
+        }
+        postings.add(blockCount - 1);
+    }
+
+    void write(Path file, long segmentLength) throws IOException {
+        long[] bloom = new long[0];
+        int hashes = 0;
+        if (bloomBitsPerAccount > 0) {
+            // About 1% false positives at 10 bits an account
+            bloom = new long[(int) Math.max(1, ((long) accounts.size() * bloomBitsPerAccount + 63) / 64)];
+            hashes = Math.max(1, (int) Math.round(bloomBitsPerAccount * Math.log(2)));
+            for (String accountId : accounts.keySet()) {
+                long hash = hash(accountId);
+                long step = mix(hash) | 1;
+                long bits = bloom.length * 64L;
+                for (int i = 0; i < hashes; i++) {
+                    long bit = Long.remainderUnsigned(hash + i * step, bits);
+                    bloom[(int) (bit >>> 6)] |= 1L << bit;
+                }
+            }
+        }
+        String[] ids = accounts.keySet().toArray(new String[0]);
+        Arrays.sort(ids);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(segmentLength);
+            out.writeLong(earliest);
+            out.writeLong(latest);
+            out.writeInt(blockCount);
+            out.writeInt(hashes);
+            out.writeInt(bloom.length);
+            for (long word : bloom) {
+                out.writeLong(word);
+            }
+            for (int i = 0; i < blockCount; i++) {
+                out.writeLong(blockStarts[i]);
+                out.writeLong(NOT_COMPRESSED);
+                out.writeLong(blockEarliest[i]);
+                out.writeLong(blockLatest[i]);
+            }
+            // The table is built first: the directory and ordinal offsets point into it
+            ByteArrayOutputStream tableBytes = new ByteArrayOutputStream(ids.length * 24);
+            DataOutputStream table = new DataOutputStream(tableBytes);
+            int[] directory = new int[(ids.length + DIRECTORY_STRIDE - 1) / DIRECTORY_STRIDE];
+            int[] ordinalOffsets = new int[ids.length];
+            int ordinals = 0;
+            for (int i = 0; i < ids.length; i++) {
+                Postings postings = accounts.get(ids[i]);
+                if (i % DIRECTORY_STRIDE == 0) {
+                    directory[i / DIRECTORY_STRIDE] = table.size();
+                }
+                if (postings.ordinal >= 0 && postings.ordinal < ids.length) {
+                    ordinalOffsets[postings.ordinal] = table.size();
+                    ordinals = Math.max(ordinals, postings.ordinal + 1);
+                }
+                table.writeUTF(ids[i]);
+                table.writeInt(postings.ordinal);
+                table.writeInt(postings.count);
+                table.writeInt(postings.bytes);
+                table.write(postings.blocks, 0, postings.bytes);
+            }
+            out.writeInt(ids.length);
+            out.writeInt(table.size());
+            tableBytes.writeTo(out);
+            out.writeInt(directory.length);
+            for (int offset : directory) {
+                out.writeInt(offset);
+            }
+            out.writeInt(ordinals);
+            for (int i = 0; i < ordinals; i++) {
+                out.writeInt(ordinalOffsets[i]);
+            }
+        }
+        SegmentedLogFile.restrictToOwner(temp.toFile(), false);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Plain block offsets, for the compressor
+    static long[] readBlockStarts(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new IOException("Not an audit log index: " + file.getFileName());
+            }
+            in.skipNBytes(8 + 16);
+            long[] starts = new long[in.readInt()];
+            in.readInt();
+            in.skipNBytes(in.readInt() * 8L);
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = in.readLong();
+                in.skipNBytes(8 + 16);
+            }
+            return starts;
+        }
+    }
+
+    // Rewrites the index with each block's offset in the compressed segment
+    static void recordCompressedStarts(Path file, long[] compressedStarts) throws IOException {
+        ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (index.getInt(0) != MAGIC || index.getShort(4) != VERSION) {
+            throw new IOException("Not an audit log index: " + file.getFileName());
+        }
+        // Magic, version, segment length and times, then block count, hash count and Bloom word count
+        int blockCountAt = 4 + 2 + 8 + 16;
+        int blocks = index.getInt(blockCountAt);
+        int bloomWords = index.getInt(blockCountAt + 8);
+        if (blocks != compressedStarts.length) {
+            throw new IOException("Index does not match compressed segment: " + file.getFileName());
+        }
+        int position = blockCountAt + 12 + bloomWords * 8;
+        for (int i = 0; i < blocks; i++) {
+            index.putLong(position + i * 32 + 8, compressedStarts[i]);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, index.array());
+        SegmentedLogFile.restrictToOwner(temp.toFile(), false);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // What one segment's index says about one account
+    static final class Match {
+        final long segmentLength;
+        // Plain and compressed start, and earliest and latest record time, of every block
+        final long[] blockStarts;
+        final long[] compressedStarts;
+        final long[] blockEarliest;
+        final long[] blockLatest;
+        // Blocks holding the account, ascending
+        final int[] blocks;
+        // Binary account references; empty for text segments
+        final List<String> accountsByOrdinal;
+
+        Match(long segmentLength, long[] blockStarts, long[] compressedStarts, long[] blockEarliest,
+                long[] blockLatest, int[] blocks, List<String> accountsByOrdinal) {
+            this.segmentLength = segmentLength;
+            this.blockStarts = blockStarts;
+            this.compressedStarts = compressedStarts;
+            this.blockEarliest = blockEarliest;
+            this.blockLatest = blockLatest;
+            this.blocks = blocks;
+            this.accountsByOrdinal = accountsByOrdinal;
+        }
+
+        long blockEnd(int block) {
+            return block + 1 < blockStarts.length ? blockStarts[block + 1] : segmentLength;
+        }
+
+        // Whether the block may hold records timed in [fromNanos, toNanos)
+        boolean overlaps(int block, long fromNanos, long toNanos) {
+            return blockLatest[block] >= fromNanos && blockEarliest[block] < toNanos;
+        }
+    }
+
+    static Match find(Path file, String accountId) throws IOException {
+        return find(file, accountId, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    // Null when the segment's time range misses [fromNanos, toNanos), or the Bloom filter or the
+    // account table rules the account out
+    static Match find(Path file, String accountId, long fromNanos, long toNanos) throws IOException {
+        // Positioned reads rather than a stream: the filter is probed a word at a time instead of
+        // read whole, and the rest comes in one read
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = read(channel, 0, 4 + 2 + 8 + 16 + 12, file);
+            if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION) {
+                throw new IOException("Not an audit log index: " + file.getFileName());
+            }
+            long segmentLength = header.getLong(6);
+            if (header.getLong(22) < fromNanos || header.getLong(14) >= toNanos) {
+                return null;
+            }
+            int blockCountAt = 30;
+            int blocks = header.getInt(blockCountAt);
+            int hashes = header.getInt(blockCountAt + 4);
+            int bloomWords = header.getInt(blockCountAt + 8);
+            long bloomAt = blockCountAt + 12;
+            if (bloomWords > 0) {
+                long hash = hash(accountId);
+                long step = mix(hash) | 1;
+                long bits = bloomWords * 64L;
+                ByteBuffer word = ByteBuffer.allocate(8);
+                for (int i = 0; i < hashes; i++) {
+                    long bit = Long.remainderUnsigned(hash + i * step, bits);
+                    word.clear();
+                    readFully(channel, word, bloomAt + (bit >>> 6) * 8, file);
+                    if ((word.getLong(0) & (1L << bit)) == 0) {
+                        return null;
+                    }
+                }
+            }
+            long blocksAt = bloomAt + bloomWords * 8L;
+            ByteBuffer rest = read(channel, blocksAt, Math.toIntExact(channel.size() - blocksAt), file);
+            long[] blockStarts = new long[blocks];
+            long[] compressedStarts = new long[blocks];
+            long[] blockEarliest = new long[blocks];
+            long[] blockLatest = new long[blocks];
+            for (int i = 0; i < blocks; i++) {
+                blockStarts[i] = rest.getLong();
+                compressedStarts[i] = rest.getLong();
+                blockEarliest[i] = rest.getLong();
+                blockLatest[i] = rest.getLong();
+            }
+            ByteBuffer accounts = rest.slice();
+            int tableLength = accounts.getInt(4);
+            ByteBuffer table = accounts.slice(8, tableLength);
+            ByteBuffer offsets = accounts.slice(8 + tableLength, accounts.capacity() - 8 - tableLength);
+            int[] found = findInTable(table, offsets, accountId);
+            if (found == null) {
+                return null;
+            }
+            int ordinals = offsets.getInt(4 + offsets.getInt(0) * 4);
+            List<String> accountsByOrdinal = new AccountsByOrdinal(table, offsets.slice(8 + offsets.getInt(0) * 4,
+                    ordinals * 4));
+            return new Match(segmentLength, blockStarts, compressedStarts, blockEarliest, blockLatest, found,
+                    accountsByOrdinal);
+        }
+    }
+
+    // Binary searches the directory for the last stride starting at or before accountId, then
+    // scans that stride
+    private static int[] findInTable(ByteBuffer table, ByteBuffer offsets, String accountId) {
+        int low = 0;
+        int high = offsets.getInt(0) - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (readId(table, offsets.getInt(4 + middle * 4)).compareTo(accountId) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (high < 0) {
+            return null;
+        }
+        int position = offsets.getInt(4 + low * 4);
+        for (int i = 0; i < DIRECTORY_STRIDE && position < table.limit(); i++) {
+            String id = readId(table, position);
+            position += 2 + (table.getShort(position) & 0xFFFF);
+            int count = table.getInt(position + 4);
+            int bytes = table.getInt(position + 8);
+            position += 12;
+            int compared = id.compareTo(accountId);
+            if (compared > 0) {
+                return null;
+            }
+            if (compared == 0) {
+                int[] found = new int[count];
+                int block = 0;
+                for (int p = 0; p < count; p++) {
+                    int delta = 0;
+                    for (int shift = 0;; shift += 7) {
+                        int b = table.get(position++) & 0xFF;
+                        delta |= (b & 0x7F) << shift;
+                        if (b < 0x80) {
+                            break;
+                        }
+                    }
+                    block += delta;
+                    found[p] = block;
+                }
+                return found;
+            }
+            position += bytes;
+        }
+        return null;
+    }
+
+    // The modified-UTF-8 ID at position in the table. IDs are ASCII in practice, and modified
+    // UTF-8 of ASCII is the ASCII itself, so that case skips the general decoder.
+    private static String readId(ByteBuffer table, int position) {
+        int length = table.getShort(position) & 0xFFFF;
+        int start = table.arrayOffset() + position + 2;
+        byte[] bytes = table.array();
+        int ascii = 0;
+        while (ascii < length && bytes[start + ascii] > 0) {
+            ascii++;
+        }
+        if (ascii == length) {
+            return new String(bytes, start, length, StandardCharsets.US_ASCII);
+        }
+        try {
+            return new DataInputStream(new ByteArrayInputStream(table.array(), table.arrayOffset() + position,
+                    2 + length)).readUTF();
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt audit log index.", e);
+        }
+    }
+
+    // Ordinal -> account ID, decoded from the table when asked for
+    private static final class AccountsByOrdinal extends AbstractList<String> {
+        private final ByteBuffer table;
+        private final ByteBuffer offsets;
+
+        AccountsByOrdinal(ByteBuffer table, ByteBuffer offsets) {
+            this.table = table;
+            this.offsets = offsets;
+        }
+
+        @Override
+        public String get(int ordinal) {
+            return readId(table, offsets.getInt(ordinal * 4));
+        }
+
+        @Override
+        public int size() {
+            return offsets.capacity() / 4;
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length, Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(channel, buffer, position, file);
+        return buffer.flip();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position, Path file)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new IOException("Truncated audit log index: " + file.getFileName());
+            }
+            position += n;
+        }
+    }
+
+    // 64-bit FNV-1a over the ID's chars, defined here so filters read the same on any JVM
+    private static long hash(String accountId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < accountId.length(); i++) {
+            hash = (hash ^ accountId.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
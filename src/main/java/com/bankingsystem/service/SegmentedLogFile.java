@@ -0,0 +1,512 @@
+package com.bankingsystem.service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// The file (or files) LoggingService writes to.
+//
+// In single-file mode it is one append-only file, as before. In segmented mode it is a
+// directory of segments named audit-<sequence>.log; every start and every roll begins a new
+// segment, and closed segments are gzipped to audit-<sequence>.log.gz on one background thread,
+// so the writing thread only ever pays for closing one file and opening the next. The
+// directory's manifest.tsv lists every segment with its state (ACTIVE, CLOSED, COMPRESSED),
+// open and close times, and size as written and as stored; it is rewritten through a temporary
+// file and an atomic rename whenever a segment changes state. A crash can leave a segment
+// uncompressed; the next start finds it and compresses it.
+final class SegmentedLogFile implements AutoCloseable {
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".log";
+    static final String COMPRESSED_SUFFIX = ".gz";
+    static final String MANIFEST_NAME = "manifest.tsv";
+
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private enum State {
+        ACTIVE,
+        CLOSED,
+        COMPRESSED
+    }
+
+    private static final class Segment {
+        final long sequence;
+        final long openedMillis;
+        volatile State state = State.ACTIVE;
+        volatile long closedMillis;
+        // As written, and as stored (compressed size once COMPRESSED)
+        volatile long rawBytes;
+        volatile long bytes;
+
+        Segment(long sequence, long openedMillis) {
+            this.sequence = sequence;
+            this.openedMillis = openedMillis;
+        }
+    }
+
+    private final Path directory;
+    private final LogRotationConfig rotation;
+    private final ExecutorService compressor;
+    // Manifest order; guarded by itself
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment current;
+    private FileOutputStream fileOutputStream;
+    private CountingOutputStream counter;
+    private OutputStream out;
+    private Writer writer;
+    // Bytes of records written to the current segment, buffered or not
+    private long position;
+    // Null for a single file or when indexing is off
+    private SegmentIndex index;
+
+    private SegmentedLogFile(Path directory, LogRotationConfig rotation) {
+        this.directory = directory;
+        this.rotation = rotation;
+        this.compressor = rotation != null && rotation.isCompress()
+                ? Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, "bank-log-compressor");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    // One file appended to forever, never rolled
+    static SegmentedLogFile single(File file) throws IOException {
+        // Create file with secure permissions before using FileWriter
+        if (!file.exists()) {
+            File parentDir = file.getParentFile();
+            if (parentDir != null && !parentDir.exists()) {
+                parentDir.mkdirs();
+                restrictToOwner(parentDir, true);
+            }
+            new FileOutputStream(file).close();
+            restrictToOwner(file, false);
+        }
+        SegmentedLogFile log = new SegmentedLogFile(file.getParentFile() == null ? null : file.toPath().getParent(),
+                null);
+        log.openStream(file, true);
+        return log;
+    }
+
+    // Segments in directory, continuing after any left by earlier runs
+    static SegmentedLogFile open(Path directory, LogRotationConfig rotation) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            Files.createDirectories(directory);
+            restrictToOwner(directory.toFile(), true);
+        }
+        SegmentedLogFile log = new SegmentedLogFile(directory, rotation);
+        long lastSequence = log.recover();
+        log.startSegment(lastSequence + 1);
+        return log;
+    }
+
+    // One text record at timestampNanos, involving accountId and (for transfers) counterpartyId
+    synchronized void write(String text, long timestampNanos, String accountId, String counterpartyId)
+            throws IOException {
+        beginRecord(timestampNanos);
+        writer.write(text);
+        position += utf8Length(text);
+        index(accountId, -1);
+        if (counterpartyId != null) {
+            index(counterpartyId, -1);
+        }
+    }
+
+    // Called before each record with its time: rolls if the current segment is due, starts a new
+    // index block if the current one is full, and returns the sequence of the segment the record
+    // goes to. Binary writers use the sequence to start each segment with a header; a single file
+    // is always sequence 0.
+    synchronized long beginRecord(long timestampNanos) throws IOException {
+        if (rotation == null) {
+            return 0;
+        }
+        if (isDue(System.currentTimeMillis())) {
+            roll();
+        }
+        if (index != null) {
+            index.beginRecord(position, timestampNanos);
+        }
+        return current.sequence;
+    }
+
+    // One binary record (with any header and account references before it), after beginRecord,
+    // indexed under its account and counterparty ordinals; a log is written either as text or
+    // as bytes, not both
+    synchronized void write(byte[] bytes, int offset, int length, String accountId, int ordinal,
+            String counterpartyId, int counterpartyOrdinal) throws IOException {
+        out.write(bytes, offset, length);
+        position += length;
+        index(accountId, ordinal);
+        if (counterpartyId != null) {
+            index(counterpartyId, counterpartyOrdinal);
+        }
+    }
+
+    // Adds the record just begun to accountId's entry in the segment index
+    private void index(String accountId, int ordinal) {
+        if (index != null) {
+            index.add(accountId, ordinal);
+        }
+    }
+
+    synchronized void flush() throws IOException {
+        writer.flush();
+    }
+
+    synchronized void sync() throws IOException {
+        writer.flush();
+        fileOutputStream.getFD().sync();
+    }
+
+    private boolean isDue(long now) {
+        long maxBytes = rotation.getMaxSegmentBytes();
+        long maxAge = rotation.getMaxSegmentAgeMillis();
+        return (maxBytes > 0 && counter.count >= maxBytes) || (maxAge > 0 && now - current.openedMillis >= maxAge);
+    }
+
+    // Closes the current segment, hands it to the compressor and continues in the next one
+    synchronized void roll() throws IOException {
+        if (rotation == null) {
+            return;
+        }
+        Segment closed = current;
+        closeSegment();
+        startSegment(closed.sequence + 1);
+        if (compressor != null) {
+            compressor.execute(() -> compress(closed));
+        }
+    }
+
+    // Closes the current file and saves its index; the manifest is updated by the caller
+    private void closeSegment() throws IOException {
+        Segment closed = current;
+        writer.close();
+        closed.rawBytes = counter.count;
+        closed.bytes = counter.count;
+        closed.closedMillis = System.currentTimeMillis();
+        closed.state = State.CLOSED;
+        if (index != null) {
+            try {
+                index.write(indexPath(closed.sequence), position);
+            } catch (IOException e) {
+                System.err.println("Error writing log index for " + segmentPath(closed.sequence).getFileName());
+            }
+            index = null;
+        }
+    }
+
+    private void startSegment(long sequence) throws IOException {
+        current = new Segment(sequence, System.currentTimeMillis());
+        position = 0;
+        if (rotation.getIndexBlockBytes() > 0) {
+            index = new SegmentIndex(rotation.getIndexBlockBytes(), rotation.getBloomBitsPerAccount());
+        }
+        File file = segmentPath(sequence).toFile();
+        new FileOutputStream(file).close();
+        restrictToOwner(file, false);
+        openStream(file, false);
+        synchronized (segments) {
+            segments.add(current);
+        }
+        writeManifest();
+    }
+
+    private void openStream(File file, boolean append) throws IOException {
+        fileOutputStream = new FileOutputStream(file, append);
+        counter = new CountingOutputStream(fileOutputStream);
+        out = new BufferedOutputStream(counter, OUTPUT_BUFFER_SIZE);
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    // Compressor thread. An indexed segment is written as one gzip member per index block,
+    // which together still form one ordinary .gz, and the index is updated with where each
+    // member starts. The .gz is complete and renamed into place before the plain segment is
+    // deleted, so a crash in between leaves both, never neither.
+    private void compress(Segment segment) {
+        Path source = segmentPath(segment.sequence);
+        Path target = compressedPath(segment.sequence);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        Path indexFile = indexPath(segment.sequence);
+        try {
+            long[] blockStarts = Files.exists(indexFile) ? SegmentIndex.readBlockStarts(indexFile) : new long[] {0};
+            long[] compressedStarts = new long[blockStarts.length];
+            try (InputStream in = Files.newInputStream(source);
+                    FileOutputStream file = new FileOutputStream(temp.toFile());
+                    CountingOutputStream out = new CountingOutputStream(new BufferedOutputStream(file,
+                            COPY_BUFFER_SIZE))) {
+                restrictToOwner(temp.toFile(), false);
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                for (int block = 0; block < blockStarts.length; block++) {
+                    compressedStarts[block] = out.count;
+                    long remaining = block + 1 < blockStarts.length
+                            ? blockStarts[block + 1] - blockStarts[block] : Long.MAX_VALUE;
+                    // Closing the member ends its deflater but leaves the file open
+                    try (LevelledGzipOutputStream gzip = new LevelledGzipOutputStream(new FilterOutputStream(out) {
+                        @Override
+                        public void close() {
+                        }
+                    }, rotation.getCompressionLevel())) {
+                        int read;
+                        while (remaining > 0
+                                && (read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) > 0) {
+                            gzip.write(buffer, 0, read);
+                            remaining -= read;
+                        }
+                    }
+                }
+                out.flush();
+                file.getFD().sync();
+            }
+            if (Files.exists(indexFile)) {
+                SegmentIndex.recordCompressedStarts(indexFile, compressedStarts);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            segment.bytes = Files.size(target);
+            segment.state = State.COMPRESSED;
+            writeManifest();
+            Files.delete(source);
+        } catch (IOException e) {
+            System.err.println("Error compressing log segment " + source.getFileName());
+        }
+    }
+
+    // Rebuilds the segment list from the manifest and the files actually present, queues any
+    // uncompressed closed segment, and returns the highest sequence seen (-1 if none)
+    private long recover() throws IOException {
+        long lastSequence = -1;
+        List<Long> sequences = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    // Interrupted compression or index write; the plain segment is still there
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                long sequence = segmentSequence(name);
+                if (sequence >= 0 && !sequences.contains(sequence)) {
+                    sequences.add(sequence);
+                }
+            }
+        }
+        sequences.sort(null);
+        List<String[]> manifest = readManifest();
+        for (long sequence : sequences) {
+            lastSequence = Math.max(lastSequence, sequence);
+            String[] entry = null;
+            for (String[] row : manifest) {
+                if (Long.parseLong(row[0]) == sequence) {
+                    entry = row;
+                }
+            }
+            // Times are unknown ("-") for segments missing from the manifest
+            Segment segment = new Segment(sequence, entry != null ? parseMillis(entry[3]) : 0);
+            segment.closedMillis = entry != null ? parseMillis(entry[4]) : 0;
+            boolean compressed = Files.exists(compressedPath(sequence));
+            boolean plain = Files.exists(segmentPath(sequence));
+            if (compressed && plain) {
+                // Crashed between the rename and the delete: the .gz is complete
+                Files.delete(segmentPath(sequence));
+                plain = false;
+            }
+            segment.state = plain ? State.CLOSED : State.COMPRESSED;
+            segment.bytes = Files.size(plain ? segmentPath(sequence) : compressedPath(sequence));
+            segment.rawBytes = plain ? segment.bytes : entry != null ? parseBytes(entry[5]) : 0;
+            segments.add(segment);
+            if (plain && compressor != null) {
+                compressor.execute(() -> compress(segment));
+            }
+        }
+        return lastSequence;
+    }
+
+    private List<String[]> readManifest() throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        Path manifest = directory.resolve(MANIFEST_NAME);
+        if (!Files.exists(manifest)) {
+            return rows;
+        }
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t");
+            if (fields.length >= 7) {
+                rows.add(fields);
+            }
+        }
+        return rows;
+    }
+
+    // Called by the writer on a roll and by the compressor; the lock keeps rewrites whole
+    private void writeManifest() {
+        StringBuilder text = new StringBuilder("# sequence\tfile\tstate\topened\tclosed\traw bytes\tstored bytes\n");
+        synchronized (segments) {
+            for (Segment segment : segments) {
+                State state = segment.state;
+                text.append(segment.sequence).append('\t')
+                        .append(state == State.COMPRESSED ? compressedPath(segment.sequence).getFileName()
+                                : segmentPath(segment.sequence).getFileName())
+                        .append('\t').append(state)
+                        .append('\t').append(segment.openedMillis == 0 ? "-" : Instant.ofEpochMilli(segment.openedMillis))
+                        .append('\t').append(segment.closedMillis == 0 ? "-" : Instant.ofEpochMilli(segment.closedMillis))
+                        .append('\t').append(state == State.ACTIVE ? "-" : Long.toString(segment.rawBytes))
+                        .append('\t').append(state == State.ACTIVE ? "-" : Long.toString(segment.bytes))
+                        .append('\n');
+            }
+            Path manifest = directory.resolve(MANIFEST_NAME);
+            Path temp = directory.resolve(MANIFEST_NAME + ".tmp");
+            try {
+                Files.write(temp, text.toString().getBytes(StandardCharsets.UTF_8));
+                restrictToOwner(temp.toFile(), false);
+                Files.move(temp, manifest, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                System.err.println("Error writing log manifest");
+            }
+        }
+    }
+
+    // Closes the current segment and, in segmented mode, compresses it with anything still
+    // queued before returning
+    @Override
+    public synchronized void close() throws IOException {
+        if (rotation == null) {
+            writer.close();
+            return;
+        }
+        Segment last = current;
+        try {
+            closeSegment();
+        } finally {
+            writeManifest();
+            if (compressor != null) {
+                compressor.execute(() -> compress(last));
+                compressor.shutdown();
+                try {
+                    compressor.awaitTermination(1, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+    }
+
+    private Path indexPath(long sequence) {
+        return directory.resolve(segmentPath(sequence).getFileName() + SegmentIndex.SUFFIX);
+    }
+
+    private Path compressedPath(long sequence) {
+        return directory.resolve(String.format("%s%020d%s%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX,
+                COMPRESSED_SUFFIX));
+    }
+
+    // -1 for names that are not audit-<digits>.log or audit-<digits>.log.gz
+    static long segmentSequence(String name) {
+        String rest = name.substring(SEGMENT_PREFIX.length());
+        if (rest.endsWith(COMPRESSED_SUFFIX)) {
+            rest = rest.substring(0, rest.length() - COMPRESSED_SUFFIX.length());
+        }
+        if (!rest.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(rest.substring(0, rest.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long parseMillis(String instant) {
+        try {
+            return Instant.parse(instant).toEpochMilli();
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private static long parseBytes(String bytes) {
+        try {
+            return Long.parseLong(bytes);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // UTF-8 length of a record, without encoding it again
+    private static int utf8Length(String text) {
+        int length = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x800) {
+                // Surrogate pairs are 4 bytes for 2 chars
+                length += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    static void restrictToOwner(File file, boolean directory) {
+        file.setReadable(false, false);
+        file.setWritable(false, false);
+        file.setExecutable(false, false);
+        file.setReadable(true, true);   // Only owner can read
+        file.setWritable(true, true);   // Only owner can write
+        if (directory) {
+            file.setExecutable(true, true); // Only owner can execute (for directory access)
+        }
+    }
+
+    // Counts the bytes that actually reach the file, after encoding
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static final class LevelledGzipOutputStream extends GZIPOutputStream {
+        LevelledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, COPY_BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
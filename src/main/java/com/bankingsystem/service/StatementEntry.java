@@ -0,0 +1,90 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Money;
+import java.time.LocalDateTime;
+
+// One line of an account statement, as read back from the audit log by StatementReader.
+// Amounts are in paise and always positive; isCredit says which way the money moved. Balance is
+// the account's balance right after the entry where the log records it (opening, deposits and
+// withdrawals), or -1 where it does not (transfers, tax and interest).
+public final class StatementEntry {
+    public enum Kind {
+        OPENED(true),
+        DEPOSIT(true),
+        WITHDRAWAL(false),
+        TRANSFER_IN(true),
+        TRANSFER_OUT(false),
+        TAX(false),
+        INTEREST(true);
+
+        private final boolean credit;
+
+        Kind(boolean credit) {
+            this.credit = credit;
+        }
+    }
+
+    private final LocalDateTime time;
+    private final Kind kind;
+    private final long amount;
+    private final long balance;
+    private final String method;
+    private final String counterpartyId;
+
+    StatementEntry(LocalDateTime time, Kind kind, long amount, long balance, String method, String counterpartyId) {
+        this.time = time;
+        this.kind = kind;
+        this.amount = amount;
+        this.balance = balance;
+        this.method = method;
+        this.counterpartyId = counterpartyId;
+    }
+
+    // In the reader's time zone, to the millisecond, as in the text log
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isCredit() {
+        return kind.credit;
+    }
+
+    // The opening balance for OPENED
+    public long getAmount() {
+        return amount;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    // "Simple", "UPI" or "Credit Card" for withdrawals; null otherwise
+    public String getMethod() {
+        return method;
+    }
+
+    // The other account of a transfer; null otherwise
+    public String getCounterpartyId() {
+        return counterpartyId;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(80).append(time).append(' ').append(kind);
+        if (method != null) {
+            text.append(" (").append(method).append(')');
+        }
+        if (counterpartyId != null) {
+            text.append(kind == Kind.TRANSFER_IN ? " from " : " to ").append(counterpartyId);
+        }
+        Money.appendTo(text.append(isCredit() ? " +₹" : " -₹"), amount);
+        if (balance >= 0) {
+            Money.appendTo(text.append(", Balance: ₹"), balance);
+        }
+        return text.toString();
+    }
+}
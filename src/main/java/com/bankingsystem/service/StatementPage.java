@@ -0,0 +1,28 @@
+package com.bankingsystem.service;
+
+import java.util.Collections;
+import java.util.List;
+
+// One page of an account statement: up to the requested number of entries in log order, and the
+// cursor to pass back for the next page, or null when there are no more entries in the range.
+public final class StatementPage {
+    private final List<StatementEntry> entries;
+    private final String nextCursor;
+
+    StatementPage(List<StatementEntry> entries, String nextCursor) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<StatementEntry> getEntries() {
+        return entries;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
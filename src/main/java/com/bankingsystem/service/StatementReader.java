@@ -0,0 +1,439 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Money;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+// Account statements read page by page from a segmented audit log directory (text, binary or
+// both), for the menu and the HTTP API.
+//
+// A page is found through the segment indexes (see SegmentIndex) the same way
+// AuditLogReader.printAccount finds an account's records: segments whose time range, Bloom
+// filter or account table rule them out are skipped, and within a segment only the index blocks
+// that hold the account and overlap the date range are read, one at a time. The cursor is the
+// position of the first record of the next page (segment sequence and offset in the plain
+// segment), so the next page starts reading at that record's block instead of the beginning of
+// the history. Memory is one block plus the page, however long the history is. Only segments
+// without an index (the one being written) are read from their start.
+//
+// Readers hold no state between calls; one instance can serve any number of threads.
+public final class StatementReader {
+    public static final int MAX_PAGE_SIZE = 500;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path directory;
+    private final ZoneId zoneId;
+
+    public StatementReader(Path logDirectory, ZoneId zoneId) {
+        this.directory = logDirectory;
+        this.zoneId = zoneId;
+    }
+
+    // Entries for accountId between from and to (inclusive days in the reader's time zone; null
+    // for no limit), starting at cursor (null for the first page). The same range must be passed
+    // with every cursor it returned.
+    public StatementPage read(String accountId, LocalDate from, LocalDate to, String cursor, int pageSize)
+            throws IOException {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Statement range ends before it starts.");
+        }
+        long fromNanos = from == null ? Long.MIN_VALUE : nanos(from.atStartOfDay(zoneId).toInstant());
+        long toNanos = to == null ? Long.MAX_VALUE : nanos(to.plusDays(1).atStartOfDay(zoneId).toInstant());
+        long startSequence = 0;
+        long startOffset = 0;
+        if (cursor != null) {
+            long[] position = parseCursor(cursor);
+            startSequence = position[0];
+            startOffset = position[1];
+        }
+        Page page = new Page(accountId, fromNanos, toNanos, pageSize);
+        if (!Files.isDirectory(directory)) {
+            return page.toStatementPage();
+        }
+        AuditLogReader blocks = new AuditLogReader(zoneId);
+        AuditRecordDecoder decoder = new AuditRecordDecoder();
+        for (Path segment : AuditLogReader.listSegments(directory)) {
+            String name = segment.getFileName().toString();
+            long sequence = SegmentedLogFile.segmentSequence(name);
+            if (sequence < startSequence) {
+                continue;
+            }
+            page.startSegment(sequence, sequence == startSequence ? startOffset : 0);
+            boolean more;
+            try {
+                more = readSegment(segment, name, page, blocks, decoder);
+            } catch (NoSuchFileException e) {
+                if (name.endsWith(SegmentedLogFile.COMPRESSED_SUFFIX)) {
+                    throw e;
+                }
+                // Compressed while being read: carry on from the same record in the .gz
+                String compressed = name + SegmentedLogFile.COMPRESSED_SUFFIX;
+                more = readSegment(segment.resolveSibling(compressed), compressed, page, blocks, decoder);
+            }
+            if (!more) {
+                break;
+            }
+        }
+        return page.toStatementPage();
+    }
+
+    // False once the page is full
+    private boolean readSegment(Path segment, String name, Page page, AuditLogReader blocks,
+            AuditRecordDecoder decoder) throws IOException {
+        boolean compressed = name.endsWith(SegmentedLogFile.COMPRESSED_SUFFIX);
+        String plainName = compressed
+                ? name.substring(0, name.length() - SegmentedLogFile.COMPRESSED_SUFFIX.length()) : name;
+        Path indexFile = segment.resolveSibling(plainName + SegmentIndex.SUFFIX);
+        if (!Files.exists(indexFile)) {
+            return scanSegment(segment, compressed, page, decoder);
+        }
+        SegmentIndex.Match match = SegmentIndex.find(indexFile, page.accountId, page.fromNanos, page.toNanos);
+        if (match == null) {
+            return true;
+        }
+        for (int block : match.blocks) {
+            if (match.blockEnd(block) <= page.skipBefore || !match.overlaps(block, page.fromNanos, page.toNanos)) {
+                continue;
+            }
+            InputStream in = new ByteArrayInputStream(blocks.readBlock(segment, compressed, match, block));
+            boolean more;
+            if (!match.accountsByOrdinal.isEmpty()) {
+                decoder.useAccounts(match.accountsByOrdinal);
+                more = readRecords(in, match.blockStarts[block], segment, page, decoder);
+            } else {
+                more = readLines(in, match.blockStarts[block], page);
+            }
+            if (!more) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean scanSegment(Path segment, boolean compressed, Page page, AuditRecordDecoder decoder)
+            throws IOException {
+        InputStream raw = Files.newInputStream(segment);
+        if (compressed) {
+            raw = new GZIPInputStream(raw, BUFFER_SIZE);
+        }
+        try (BufferedInputStream in = new BufferedInputStream(raw, BUFFER_SIZE)) {
+            if (AuditRecordDecoder.isBinary(in)) {
+                // Account references are defined from the start of the segment, so read it all
+                decoder.reset();
+                return readRecords(in, 0, segment, page, decoder);
+            }
+            // Text lines stand alone: go straight to the cursor (a seek for a plain segment)
+            long skipped = page.skipBefore;
+            in.skipNBytes(skipped);
+            return readLines(in, skipped, page);
+        } catch (EOFException e) {
+            // Shorter than the cursor: nothing new in this segment
+            return true;
+        }
+    }
+
+    // Binary records from in, which starts at offset base of the plain segment
+    private boolean readRecords(InputStream in, long base, Path segment, Page page, AuditRecordDecoder decoder)
+            throws IOException {
+        CountingInputStream counter = new CountingInputStream(in);
+        DataInputStream data = new DataInputStream(counter);
+        while (true) {
+            long offset = base + counter.count;
+            int type = data.read();
+            if (type < 0) {
+                return true;
+            }
+            LogEvent event;
+            try {
+                event = decoder.decode((byte) type, data, segment);
+            } catch (EOFException e) {
+                // The record being written: the next page picks it up
+                return true;
+            }
+            boolean unread = offset >= page.skipBefore;
+            page.scanned(base + counter.count);
+            if (event != null && unread && !page.offer(event, offset, zoneId)) {
+                return false;
+            }
+        }
+    }
+
+    // Text records from in, which starts at offset base of the plain segment
+    private boolean readLines(InputStream in, long base, Page page) throws IOException {
+        Lines lines = new Lines(in, base);
+        while (true) {
+            long offset = lines.position;
+            String line = lines.next();
+            if (line == null) {
+                return true;
+            }
+            boolean unread = offset >= page.skipBefore;
+            page.scanned(lines.position);
+            if (!unread || !line.contains(page.accountId)) {
+                continue;
+            }
+            LogEvent event = parseLine(line, zoneId);
+            if (event != null && !page.offer(event, offset, zoneId)) {
+                return false;
+            }
+        }
+    }
+
+    // A record from a text segment, or null for a line that is not one (or not in this layout)
+    static LogEvent parseLine(String line, ZoneId zoneId) {
+        int close = line.indexOf("] ");
+        if (!line.startsWith("[") || close < 0) {
+            return null;
+        }
+        try {
+            long time = nanos(LocalDateTime.parse(line.substring(1, close)).atZone(zoneId).toInstant());
+            String record = line.substring(close + 2).trim();
+            if (record.startsWith("DEPOSIT - ")) {
+                return LogEvent.decoded(LogEvent.Type.DEPOSIT, time, field(record, "Account: "),
+                        amount(record, "Amount: ₹"), amount(record, "New Balance: ₹"), null, null, null, null, null);
+            }
+            if (record.startsWith("WITHDRAW (")) {
+                String method = record.substring("WITHDRAW (".length(), record.indexOf(") - "));
+                return LogEvent.decoded(LogEvent.Type.WITHDRAWAL, time, field(record, "Account: "),
+                        amount(record, "Amount: ₹"), amount(record, "New Balance: ₹"), method, null, null, null,
+                        null);
+            }
+            if (record.startsWith("TAX PAID - ")) {
+                return LogEvent.decoded(LogEvent.Type.TAX_PAID, time, field(record, "Account: "),
+                        amount(record, "Amount: ₹"), 0, null, null, null, null, null);
+            }
+            if (record.startsWith("INTEREST CREDITED - ")) {
+                return LogEvent.decoded(LogEvent.Type.INTEREST_CREDITED, time, field(record, "Account: "),
+                        amount(record, "Amount: ₹"), 0, null, null, null, null, null);
+            }
+            if (record.startsWith("TRANSFER - ")) {
+                return LogEvent.decoded(LogEvent.Type.TRANSFER, time, field(record, "From: "),
+                        amount(record, "Amount: ₹"), 0, null, field(record, "To: "), null, null, null);
+            }
+            int created = record.indexOf(" Account created - ");
+            if (created > 0) {
+                return LogEvent.decoded(LogEvent.Type.ACCOUNT_CREATED, time, field(record, "ID: "), 0,
+                        amount(record, "Balance: ₹"), record.substring(0, created), null, field(record, "Name: "),
+                        null, null);
+            }
+            return null;
+        } catch (DateTimeParseException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            // NumberFormatException included: amounts in a layout older than this one
+            return null;
+        }
+    }
+
+    // The value after label, up to the next ", " or the end of the record
+    private static String field(String record, String label) {
+        int start = record.indexOf(label);
+        if (start < 0) {
+            throw new IllegalArgumentException("Missing " + label);
+        }
+        start += label.length();
+        int end = record.indexOf(", ", start);
+        return record.substring(start, end < 0 ? record.length() : end);
+    }
+
+    private static long amount(String record, String label) {
+        return Money.parse(field(record, label));
+    }
+
+    private static long nanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    // "<sequence>.<offset>", both base 36
+    private static String cursor(long sequence, long offset) {
+        return Long.toString(sequence, 36) + "." + Long.toString(offset, 36);
+    }
+
+    private static long[] parseCursor(String cursor) {
+        int dot = cursor.indexOf('.');
+        try {
+            long sequence = Long.parseLong(cursor.substring(0, dot), 36);
+            long offset = Long.parseLong(cursor.substring(dot + 1), 36);
+            if (sequence >= 0 && offset >= 0) {
+                return new long[] {sequence, offset};
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor.");
+    }
+
+    // The page being filled. It keeps one entry beyond the page size out: finding it is what
+    // shows there is a next page, and its position becomes the cursor.
+    private static final class Page {
+        final String accountId;
+        final long fromNanos;
+        final long toNanos;
+        final int pageSize;
+        final List<StatementEntry> entries = new ArrayList<>();
+        String nextCursor;
+        long sequence;
+        // Records before this offset of the current segment are skipped (already served, or
+        // already read before the segment was compressed)
+        long skipBefore;
+
+        Page(String accountId, long fromNanos, long toNanos, int pageSize) {
+            this.accountId = accountId;
+            this.fromNanos = fromNanos;
+            this.toNanos = toNanos;
+            this.pageSize = pageSize;
+        }
+
+        void startSegment(long sequence, long skipBefore) {
+            this.sequence = sequence;
+            this.skipBefore = skipBefore;
+        }
+
+        // Records up to end have been read; if the segment has to be reopened, start after them
+        void scanned(long end) {
+            skipBefore = Math.max(skipBefore, end);
+        }
+
+        // False once the page is full
+        boolean offer(LogEvent event, long offset, ZoneId zoneId) {
+            boolean outgoing = accountId.equals(event.accountId);
+            if (!outgoing && !accountId.equals(event.counterpartyId)) {
+                return true;
+            }
+            if (event.timestampNanos < fromNanos || event.timestampNanos >= toNanos) {
+                return true;
+            }
+            if (entries.size() == pageSize) {
+                nextCursor = cursor(sequence, offset);
+                return false;
+            }
+            entries.add(entry(event, outgoing, LoggingService.timestamp(event, zoneId)));
+            return true;
+        }
+
+        private static StatementEntry entry(LogEvent event, boolean outgoing, LocalDateTime time) {
+            switch (event.type) {
+                case ACCOUNT_CREATED:
+                    return new StatementEntry(time, StatementEntry.Kind.OPENED, event.balance, event.balance, null,
+                            null);
+                case DEPOSIT:
+                    return new StatementEntry(time, StatementEntry.Kind.DEPOSIT, event.amount, event.balance, null,
+                            null);
+                case WITHDRAWAL:
+                    return new StatementEntry(time, StatementEntry.Kind.WITHDRAWAL, event.amount, event.balance,
+                            event.detail, null);
+                case TAX_PAID:
+                    return new StatementEntry(time, StatementEntry.Kind.TAX, event.amount, -1, null, null);
+                case INTEREST_CREDITED:
+                    return new StatementEntry(time, StatementEntry.Kind.INTEREST, event.amount, -1, null, null);
+                case TRANSFER:
+                    return outgoing
+                            ? new StatementEntry(time, StatementEntry.Kind.TRANSFER_OUT, event.amount, -1, null,
+                                    event.counterpartyId)
+                            : new StatementEntry(time, StatementEntry.Kind.TRANSFER_IN, event.amount, -1, null,
+                                    event.accountId);
+                default:
+                    throw new IllegalStateException("Unexpected log event type.");
+            }
+        }
+
+        StatementPage toStatementPage() {
+            return new StatementPage(entries, nextCursor);
+        }
+    }
+
+    // Complete lines of a text segment, tracking the plain offset of the next one. An unfinished
+    // last line (still being written) ends the input.
+    private static final class Lines {
+        private final InputStream in;
+        private byte[] buffer = new byte[BUFFER_SIZE];
+        private int start;
+        private int end;
+        long position;
+
+        Lines(InputStream in, long position) {
+            this.in = in;
+            this.position = position;
+        }
+
+        String next() throws IOException {
+            int scan = start;
+            while (true) {
+                for (; scan < end; scan++) {
+                    if (buffer[scan] == '\n') {
+                        String line = new String(buffer, start, scan + 1 - start, StandardCharsets.UTF_8);
+                        position += scan + 1 - start;
+                        start = scan + 1;
+                        return line;
+                    }
+                }
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    scan -= start;
+                    end -= start;
+                    start = 0;
+                }
+                if (end == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int read = in.read(buffer, end, buffer.length - end);
+                if (read < 0) {
+                    return null;
+                }
+                end += read;
+            }
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = in.read(bytes, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.BalanceStore;
+import com.bankingsystem.model.Money;
+
+// Totals for one TaxRunner run, per account type. Each fork-join leaf fills its own summary
+// and the leaves are merged pairwise on the way back up, so no counter is ever shared.
+public final class TaxRunSummary {
+    private static final String[] TYPE_NAMES = {"Main", "Savings", "Current"};
+
+    // Indexed by BalanceStore type - 1
+    private final long[] accountsTaxed = new long[TYPE_NAMES.length];
+    private final long[] taxCollected = new long[TYPE_NAMES.length];
+    private long accountsSkipped;
+    private long elapsedNanos;
+
+    void taxed(int accountType, long taxPaid) {
+        accountsTaxed[accountType - BalanceStore.TYPE_MAIN]++;
+        taxCollected[accountType - BalanceStore.TYPE_MAIN] += taxPaid;
+    }
+
+    // Not Taxable, or the deduction failed
+    void skipped() {
+        accountsSkipped++;
+    }
+
+    void merge(TaxRunSummary other) {
+        for (int i = 0; i < TYPE_NAMES.length; i++) {
+            accountsTaxed[i] += other.accountsTaxed[i];
+            taxCollected[i] += other.taxCollected[i];
+        }
+        accountsSkipped += other.accountsSkipped;
+    }
+
+    void finished(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // accountType is BalanceStore.TYPE_MAIN, TYPE_SAVINGS or TYPE_CURRENT
+    public long getAccountsTaxed(int accountType) {
+        return accountsTaxed[accountType - BalanceStore.TYPE_MAIN];
+    }
+
+    // In paise
+    public long getTaxCollected(int accountType) {
+        return taxCollected[accountType - BalanceStore.TYPE_MAIN];
+    }
+
+    public long getAccountsTaxed() {
+        long total = 0;
+        for (long count : accountsTaxed) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long getTaxCollected() {
+        long total = 0;
+        for (long tax : taxCollected) {
+            total += tax;
+        }
+        return total;
+    }
+
+    public long getAccountsSkipped() {
+        return accountsSkipped;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getAccountsPerSecond() {
+        return elapsedNanos == 0 ? 0 : getAccountsTaxed() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public String format() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("=== Tax Run Summary ===\n");
+        summary.append(String.format("%-10s %14s %22s%n", "Type", "Accounts", "Tax collected (₹)"));
+        for (int i = 0; i < TYPE_NAMES.length; i++) {
+            summary.append(String.format("%-10s %,14d %22s%n", TYPE_NAMES[i], accountsTaxed[i],
+                    Money.format(taxCollected[i])));
+        }
+        summary.append(String.format("%-10s %,14d %22s%n", "Total", getAccountsTaxed(),
+                Money.format(getTaxCollected())));
+        summary.append(String.format("Skipped:           %,d%n", accountsSkipped));
+        summary.append(String.format("Elapsed:           %.3f s%n", elapsedNanos / 1_000_000_000.0));
+        summary.append(String.format("Throughput:        %,.0f accounts/s%n", getAccountsPerSecond()));
+        return summary.toString();
+    }
+}
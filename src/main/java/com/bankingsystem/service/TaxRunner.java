@@ -0,0 +1,135 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.metrics.BankMetrics;
+import com.bankingsystem.metrics.MeteredOperation;
+import com.bankingsystem.model.Account;
+import com.bankingsystem.model.BalanceStore;
+import com.bankingsystem.model.Taxable;
+import com.bankingsystem.persistence.TransactionJournal;
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// End-of-day tax run: applies Taxable.applyTax to every registered account in parallel.
+// The registry is copied into an array once and split recursively on a fork-join pool; each
+// leaf taxes a contiguous slice and then journals and logs that slice as one group, so the
+// journal lock, log write and flush are paid once per LEAF_SIZE accounts, not per account.
+// Deposits, withdrawals and transfers may keep running: each deduction is the same atomic
+// read-compute-CAS the interactive path uses.
+//
+// Each run is for one day and there is at most one run per day. The journal records the day
+// (TAX_RUN) before the first deduction, the way JournalReplayer learns which days are done,
+// so a repeated run is rejected across restarts too. A run cut short by a crash is not
+// repeated: the accounts it had not reached go untaxed that day rather than anyone being
+// taxed twice.
+public class TaxRunner {
+    private static final int LEAF_SIZE = 4096;
+    private static final long NEVER = Long.MIN_VALUE;
+    private static final BalanceStore STORE = BalanceStore.shared();
+
+    private final LoggingService loggingService;
+    private final AccountRegistry accountRegistry;
+    private final TransactionJournal journal;
+    private final BankMetrics metrics;
+    // Epoch day of the last run, or NEVER
+    private long taxedThrough;
+
+    // taxedThrough is the last day the tax run was run for (JournalReplayer.getTaxedThrough), or
+    // null if it never has
+    public TaxRunner(LoggingService loggingService, AccountRegistry accountRegistry, TransactionJournal journal,
+            BankMetrics metrics, LocalDate taxedThrough) {
+        this.loggingService = loggingService;
+        this.accountRegistry = accountRegistry;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.taxedThrough = taxedThrough == null ? NEVER : taxedThrough.toEpochDay();
+    }
+
+    public TaxRunSummary run(LocalDate day) {
+        return run(day, ForkJoinPool.commonPool());
+    }
+
+    // Throws IllegalStateException if the run for day, or a later day, has already happened.
+    // Accounts registered while the run is in progress may or may not be taxed.
+    public synchronized TaxRunSummary run(LocalDate day, ForkJoinPool pool) {
+        long epochDay = day.toEpochDay();
+        if (epochDay <= taxedThrough) {
+            throw new IllegalStateException("The tax run for " + LocalDate.ofEpochDay(taxedThrough)
+                    + " has already been done.");
+        }
+        long start = System.nanoTime();
+        if (journal != null) {
+            journal.appendTaxRun(epochDay);
+        }
+        taxedThrough = epochDay;
+        Account[] accounts = accountRegistry.accounts().toArray(new Account[0]);
+        TaxRunSummary summary = pool.invoke(new Slice(accounts, 0, accounts.length));
+        summary.finished(System.nanoTime() - start);
+        if (metrics != null) {
+            metrics.record(MeteredOperation.TAX_RUN, start, true);
+        }
+        return summary;
+    }
+
+    private final class Slice extends RecursiveTask<TaxRunSummary> {
+        private static final long serialVersionUID = 1L;
+
+        private final Account[] accounts;
+        private final int from;
+        private final int to;
+
+        Slice(Account[] accounts, int from, int to) {
+            this.accounts = accounts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TaxRunSummary compute() {
+            if (to - from <= LEAF_SIZE) {
+                return taxSlice();
+            }
+            int middle = (from + to) >>> 1;
+            Slice left = new Slice(accounts, from, middle);
+            left.fork();
+            TaxRunSummary summary = new Slice(accounts, middle, to).compute();
+            summary.merge(left.join());
+            return summary;
+        }
+
+        private TaxRunSummary taxSlice() {
+            TaxRunSummary summary = new TaxRunSummary();
+            Account[] paid = new Account[to - from];
+            String[] paidIds = new String[to - from];
+            long[] taxPaid = new long[to - from];
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                Account account = accounts[i];
+                if (!(account instanceof Taxable)) {
+                    summary.skipped();
+                    continue;
+                }
+                long tax;
+                try {
+                    tax = ((Taxable) account).applyTax();
+                } catch (RuntimeException e) {
+                    summary.skipped();
+                    continue;
+                }
+                summary.taxed(STORE.flags(account.getHandle()) & BalanceStore.TYPE_MASK, tax);
+                // A zero tax (empty account) changes nothing, so there is nothing to record
+                if (tax > 0) {
+                    paid[count] = account;
+                    paidIds[count] = account.getAccountId();
+                    taxPaid[count] = tax;
+                    count++;
+                }
+            }
+            if (journal != null) {
+                journal.appendTaxPayments(paidIds, taxPaid, count);
+            }
+            loggingService.logTaxPayments(paid, taxPaid, count);
+            return summary;
+        }
+    }
+}
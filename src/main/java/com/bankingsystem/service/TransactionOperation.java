@@ -0,0 +1,132 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Money;
+
+// One typed, non-interactive operation for TransactionService.execute/processBatch.
+// Instances are immutable; use the static factories rather than the constructor.
+// An operation may carry a caller-chosen idempotency key (withIdempotencyKey): resubmitting an
+// operation with the same key returns the first submission's result instead of applying it
+// again (see IdempotencyCache).
+public final class TransactionOperation {
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    public enum Type {
+        DEPOSIT,
+        WITHDRAW,
+        WITHDRAW_UPI,
+        WITHDRAW_CARD,
+        PAY_TAX,
+        TRANSFER
+    }
+
+    private final Type type;
+    private final String accountId;
+    private final long amount;
+    private final String upiId;
+    private final int creditCard;
+    private final String recipientAccountId;
+    private final String idempotencyKey;
+
+    private TransactionOperation(Type type, String accountId, long amount, String upiId, int creditCard,
+            String recipientAccountId, String idempotencyKey) {
+        if (accountId == null) {
+            throw new IllegalArgumentException("Account ID cannot be null.");
+        }
+        this.type = type;
+        this.accountId = accountId;
+        this.amount = amount;
+        this.upiId = upiId;
+        this.creditCard = creditCard;
+        this.recipientAccountId = recipientAccountId;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public static TransactionOperation deposit(String accountId, long amount) {
+        return new TransactionOperation(Type.DEPOSIT, accountId, amount, null, -1, null, null);
+    }
+
+    public static TransactionOperation withdraw(String accountId, long amount) {
+        return new TransactionOperation(Type.WITHDRAW, accountId, amount, null, -1, null, null);
+    }
+
+    public static TransactionOperation withdrawWithUpi(String accountId, String upiId, long amount) {
+        return new TransactionOperation(Type.WITHDRAW_UPI, accountId, amount, upiId, -1, null, null);
+    }
+
+    public static TransactionOperation withdrawWithCard(String accountId, int creditCard, long amount) {
+        return new TransactionOperation(Type.WITHDRAW_CARD, accountId, amount, null, creditCard, null, null);
+    }
+
+    public static TransactionOperation payTax(String accountId) {
+        return new TransactionOperation(Type.PAY_TAX, accountId, 0, null, -1, null, null);
+    }
+
+    public static TransactionOperation transfer(String fromAccountId, String toAccountId, long amount) {
+        return new TransactionOperation(Type.TRANSFER, fromAccountId, amount, null, -1, toAccountId, null);
+    }
+
+    // The same operation, identified by key: 1 to MAX_IDEMPOTENCY_KEY_LENGTH printable ASCII
+    // characters, unique per intended operation (a UUID, or the caller's request ID)
+    public TransactionOperation withIdempotencyKey(String key) {
+        if (key == null || key.isEmpty() || key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("Invalid idempotency key.");
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < 0x21 || c > 0x7E) {
+                throw new IllegalArgumentException("Invalid idempotency key.");
+            }
+        }
+        return new TransactionOperation(type, accountId, amount, upiId, creditCard, recipientAccountId, key);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    // In paise (see Money); 0 for PAY_TAX
+    public long getAmount() {
+        return amount;
+    }
+
+    public String getUpiId() {
+        return upiId;
+    }
+
+    public int getCreditCard() {
+        return creditCard;
+    }
+
+    public String getRecipientAccountId() {
+        return recipientAccountId;
+    }
+
+    // Null unless set with withIdempotencyKey
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    // 64-bit hash of everything but the key, so a key reused for a different request is caught
+    long fingerprint() {
+        long hash = type.ordinal();
+        hash = hash * 0x9E3779B97F4A7C15L + accountId.hashCode();
+        hash = hash * 0x9E3779B97F4A7C15L + amount;
+        hash = hash * 0x9E3779B97F4A7C15L + (upiId == null ? 0 : upiId.hashCode());
+        hash = hash * 0x9E3779B97F4A7C15L + creditCard;
+        hash = hash * 0x9E3779B97F4A7C15L + (recipientAccountId == null ? 0 : recipientAccountId.hashCode());
+        return hash ^ (hash >>> 29);
+    }
+
+    @Override
+    public String toString() {
+        // Card numbers never leave the process in clear text, not even in diagnostics
+        String str = "TransactionOperation(" + type + ", " + accountId + ", Amount: ₹" + Money.format(amount);
+        if (recipientAccountId != null)
+            str += ", To: " + recipientAccountId;
+        return str + ")";
+    }
+}
@@ -0,0 +1,107 @@
+package com.bankingsystem.service;
+
+import com.bankingsystem.model.Money;
+
+// Outcome of one TransactionOperation. For tax payments the amount is the tax deducted;
+// for everything else it is the operation's amount. Balance is the account's balance right
+// after the operation, or -1 when the account could not be found. Both are in paise.
+// A failed result says why in getFailure, for callers that act on the reason (e.g. the HTTP
+// status); the message is for people and may be reworded.
+// A replayed result is the stored outcome of an earlier submission with the same idempotency
+// key; nothing was applied this time. A retryable result is a failure that happened before the
+// balance changed and says nothing about the operation itself, so it may be submitted again.
+public final class TransactionResult {
+    public enum Failure {
+        // Succeeded
+        NONE,
+        // Refused by the rules: a bad amount, too little balance, an unsupported account type
+        REJECTED,
+        // The account or the transfer recipient does not exist
+        NOT_FOUND,
+        // A UPI ID or card check failed
+        UNAUTHORIZED,
+        // The idempotency key was already used for a different operation
+        KEY_REUSED,
+        // A velocity limit would be broken
+        LIMIT_EXCEEDED,
+        // An unexpected error, or an idempotent submission whose outcome is unknown
+        UNEXPECTED
+    }
+
+    private final TransactionOperation operation;
+    private final boolean success;
+    private final long amount;
+    private final long balance;
+    private final Failure failure;
+    private final String message;
+    private final boolean replayed;
+    private final boolean retryable;
+
+    TransactionResult(TransactionOperation operation, boolean success, long amount, long balance, Failure failure,
+            String message, boolean replayed) {
+        this(operation, success, amount, balance, failure, message, replayed, false);
+    }
+
+    private TransactionResult(TransactionOperation operation, boolean success, long amount, long balance,
+            Failure failure, String message, boolean replayed, boolean retryable) {
+        this.operation = operation;
+        this.success = success;
+        this.amount = amount;
+        this.balance = balance;
+        this.failure = failure;
+        this.message = message;
+        this.replayed = replayed;
+        this.retryable = retryable;
+    }
+
+    static TransactionResult success(TransactionOperation operation, long amount, long balance) {
+        return new TransactionResult(operation, true, amount, balance, Failure.NONE, "OK", false);
+    }
+
+    static TransactionResult failure(TransactionOperation operation, long balance, Failure failure, String message) {
+        return new TransactionResult(operation, false, 0, balance, failure, message, false);
+    }
+
+    // Only for failures raised before the operation's balance change was applied
+    static TransactionResult retryableFailure(TransactionOperation operation, long balance, String message) {
+        return new TransactionResult(operation, false, 0, balance, Failure.UNEXPECTED, message, false, true);
+    }
+
+    public TransactionOperation getOperation() {
+        return operation;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public Failure getFailure() {
+        return failure;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isReplayed() {
+        return replayed;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionResult(" + operation.getType() + ", " + operation.getAccountId()
+                + (success ? ", OK" : ", FAILED: " + message) + (replayed ? ", replayed" : "") + ", Balance: ₹" + Money.format(balance) + ")";
+    }
+}
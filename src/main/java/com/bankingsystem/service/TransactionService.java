@@ -1,32 +1,77 @@
 package com.bankingsystem.service;
 
+import com.bankingsystem.metrics.BankMetrics;
+import com.bankingsystem.metrics.MeteredOperation;
 import com.bankingsystem.model.*;
+import com.bankingsystem.persistence.TransactionJournal;
 import com.bankingsystem.util.ValidationUtils;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class TransactionService {
+    // Enough partitions per core that one hot account does not leave the other cores idle
+    private static final int PARTITIONS_PER_CORE = 4;
+
     private final LoggingService loggingService;
+    private final AccountRegistry accountRegistry;
+    private final TransactionJournal journal;
+    private final BankMetrics metrics;
+    private final IdempotencyCache idempotencyCache;
+
+    public TransactionService(LoggingService loggingService, AccountRegistry accountRegistry) {
+        this(loggingService, accountRegistry, null);
+    }
+
+    // With a journal, every successful balance change is also appended to the write-ahead journal
+    public TransactionService(LoggingService loggingService, AccountRegistry accountRegistry,
+            TransactionJournal journal) {
+        this(loggingService, accountRegistry, journal, null);
+    }
 
-    public TransactionService(LoggingService loggingService) {
+    // With metrics, every operation records its latency and outcome, interactive or batched
+    public TransactionService(LoggingService loggingService, AccountRegistry accountRegistry,
+            TransactionJournal journal, BankMetrics metrics) {
+        this(loggingService, accountRegistry, journal, metrics, null);
+    }
+
+    // With an idempotency cache, execute/processBatch apply an operation carrying an idempotency
+    // key at most once; without one, keys are ignored
+    public TransactionService(LoggingService loggingService, AccountRegistry accountRegistry,
+            TransactionJournal journal, BankMetrics metrics, IdempotencyCache idempotencyCache) {
         this.loggingService = loggingService;
+        this.accountRegistry = accountRegistry;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.idempotencyCache = idempotencyCache;
     }
 
-    public int processDeposit(Account account, Scanner scanner) {
-        int depositAmount;
+    public long processDeposit(Account account, Scanner scanner) {
+        long depositAmount;
         while (true) {
             System.out.print("Enter deposit amount: ");
             String input = scanner.nextLine();
-            depositAmount = ValidationUtils.validateNumericInput(input, 1, Integer.MAX_VALUE);
+            depositAmount = ValidationUtils.validateAmountInput(input, 1, Long.MAX_VALUE);
             if (depositAmount != -1) break;
             System.out.println("Invalid deposit amount. Please enter a positive number.");
         }
-        int newBalance = account.deposit(depositAmount);
-        loggingService.logDeposit(account, depositAmount, newBalance);
-        return newBalance;
+        TransactionResult result = execute(TransactionOperation.deposit(account.getAccountId(), depositAmount), account);
+        if (result.isSuccess()) {
+            System.out.println("Deposited: " + Money.format(depositAmount) + ", New balance: "
+                    + Money.format(result.getBalance()));
+        } else {
+            System.err.println("Deposit failed.");
+        }
+        return account.getBalance();
     }
 
-    public int processWithdrawal(Account account, Scanner scanner) {
+    public long processWithdrawal(Account account, Scanner scanner) {
         System.out.println("Withdrawal Options:");
         System.out.println("1. Simple Withdraw");
         System.out.println("2. Withdraw with UPI");
@@ -43,20 +88,18 @@ public class TransactionService {
             }
             System.out.println("Invalid choice! Please enter 1-3.");
         }
-        int withdrawAmount;
+        long withdrawAmount;
         while (true) {
             System.out.print("Enter withdrawal amount: ");
             String input = scanner.nextLine();
-            withdrawAmount = ValidationUtils.validateNumericInput(input, 1, Integer.MAX_VALUE);
+            withdrawAmount = ValidationUtils.validateAmountInput(input, 1, Long.MAX_VALUE);
             if (withdrawAmount != -1) break;
             System.out.println("Invalid withdrawal amount. Please enter a positive number.");
         }
-        int finalBalance = 0;
-        String withdrawMethod = "";
+        TransactionOperation operation;
         switch (withdrawChoice) {
             case 1:
-                finalBalance = account.withdraw(withdrawAmount);
-                withdrawMethod = "Simple";
+                operation = TransactionOperation.withdraw(account.getAccountId(), withdrawAmount);
                 break;
             case 2:
                 String withdrawUpi;
@@ -66,8 +109,7 @@ public class TransactionService {
                     if (withdrawUpi != null) break;
                     System.out.println("Invalid UPI ID format. Please use format: username@bank");
                 }
-                finalBalance = account.withdraw(withdrawUpi, withdrawAmount);
-                withdrawMethod = "UPI";
+                operation = TransactionOperation.withdrawWithUpi(account.getAccountId(), withdrawUpi, withdrawAmount);
                 break;
             case 3:
                 int withdrawCard;
@@ -77,22 +119,27 @@ public class TransactionService {
                     if (withdrawCard != -1) break;
                     System.out.println("Invalid credit card number format.");
                 }
-                finalBalance = account.withdraw(withdrawCard, withdrawAmount);
-                withdrawMethod = "Credit Card";
+                operation = TransactionOperation.withdrawWithCard(account.getAccountId(), withdrawCard, withdrawAmount);
                 break;
             default:
                 System.out.println("Invalid choice!");
                 return -1;
         }
-        loggingService.logWithdrawal(account, withdrawAmount, finalBalance, withdrawMethod);
-        return finalBalance;
+        TransactionResult result = execute(operation, account);
+        if (result.isSuccess()) {
+            System.out.println("Withdrawn: " + Money.format(withdrawAmount) + ", New balance: "
+                    + Money.format(result.getBalance()));
+        } else {
+            System.err.println("Withdrawal failed.");
+        }
+        return account.getBalance();
     }
 
     public boolean processTaxPayment(Account account, Scanner scanner) {
         if (account instanceof Taxable) {
             Taxable taxableAccount = (Taxable) account;
-            double taxAmount = taxableAccount.calculateTax();
-            System.out.println("Tax amount: Rs." + taxAmount);
+            long taxAmount = taxableAccount.calculateTax();
+            System.out.println("Tax amount: Rs." + Money.format(taxAmount));
             String payTax;
             while (true) {
                 System.out.print("Do you want to pay tax? (y/n): ");
@@ -102,9 +149,14 @@ public class TransactionService {
                 System.out.println("Invalid input. Please enter 'y', 'yes', 'n', or 'no'.");
             }
             if (payTax.equals("y") || payTax.equals("yes")) {
-                taxableAccount.payTax();
+                TransactionResult result = execute(TransactionOperation.payTax(account.getAccountId()), account);
+                if (!result.isSuccess()) {
+                    System.out.println("Insufficient balance to pay tax!");
+                    return false;
+                }
+                System.out.println("Tax paid: ₹" + Money.format(result.getAmount()) + ", New balance: ₹"
+                        + Money.format(result.getBalance()));
                 System.out.println("Tax paid successfully!");
-                loggingService.logTaxPayment(account, taxAmount);
                 return true;
             }
         } else {
@@ -115,7 +167,6 @@ public class TransactionService {
 
     public boolean processTransfer(Account account, Scanner scanner) {
         if (account instanceof Transferable) {
-            Transferable transferableAccount = (Transferable) account;
             String recipientAccNo;
             while (true) {
                 System.out.print("Enter recipient account number: ");
@@ -123,31 +174,305 @@ public class TransactionService {
                 if (recipientAccNo != null) break;
                 System.out.println("Invalid recipient account number format. Please use 3-20 alphanumeric characters.");
             }
-            double transferAmount;
+            long transferAmount;
             while (true) {
                 System.out.print("Enter transfer amount: ");
-                String transferInput = scanner.nextLine();
-                try {
-                    transferAmount = Double.parseDouble(transferInput.trim());
-                    if (transferAmount > 0) break;
-                } catch (NumberFormatException e) {
-                    System.err.println("Invalid transfer amount input.");
-                }
-                System.out.println("Invalid transfer amount. Please enter a positive number.");
+                transferAmount = ValidationUtils.validateAmountInput(scanner.nextLine(), 1, Long.MAX_VALUE);
+                if (transferAmount != -1) break;
+                System.out.println("Invalid transfer amount. Please enter a positive amount.");
             }
-            Account recipient = new MainAccount(recipientAccNo, "Recipient", 0);
-            boolean transferSuccess = transferableAccount.transfer(recipient, transferAmount);
-            if (transferSuccess) {
-                System.out.println("Transfer successful!");
-                loggingService.logTransfer(account, recipient, transferAmount);
-                return true;
-            } else {
-                System.out.println("Transfer failed!");
+            Account recipient = accountRegistry.findById(recipientAccNo);
+            if (recipient == null) {
+                recipient = accountRegistry.findByAccountNumber(recipientAccNo);
+            }
+            if (recipient == null) {
+                System.out.println("Recipient account not found.");
                 return false;
             }
+            TransactionResult result = execute(
+                    TransactionOperation.transfer(account.getAccountId(), recipient.getAccountId(), transferAmount),
+                    account);
+            if (!result.isSuccess()) {
+                System.out.println("Transfer failed! " + result.getMessage());
+                return false;
+            }
+            System.out.println("Transfer successful: ₹" + Money.format(transferAmount) + " transferred to "
+                    + recipient.getAccountId());
+            System.out.println("Transfer successful!");
+            return true;
         } else {
             System.out.println("This account does not support transfers.");
             return false;
         }
     }
-}
\ No newline at end of file
+
+    public TransactionResult execute(TransactionOperation operation) {
+        Account account = accountRegistry.findById(operation.getAccountId());
+        if (account == null) {
+            if (metrics != null) {
+                metrics.record(meteredOperation(operation.getType()), System.nanoTime(), false);
+            }
+            return TransactionResult.failure(operation, -1, TransactionResult.Failure.NOT_FOUND, "Account not found.");
+        }
+        if (idempotencyCache != null && operation.getIdempotencyKey() != null) {
+            return idempotencyCache.execute(operation, account, () -> execute(operation, account));
+        }
+        return execute(operation, account);
+    }
+
+    private TransactionResult execute(TransactionOperation operation, Account account) {
+        if (metrics == null) {
+            return apply(operation, account);
+        }
+        long start = System.nanoTime();
+        TransactionResult result = apply(operation, account);
+        metrics.record(meteredOperation(operation.getType()), start, result.isSuccess());
+        return result;
+    }
+
+    private static MeteredOperation meteredOperation(TransactionOperation.Type type) {
+        switch (type) {
+            case DEPOSIT:
+                return MeteredOperation.DEPOSIT;
+            case WITHDRAW:
+                return MeteredOperation.WITHDRAW;
+            case WITHDRAW_UPI:
+                return MeteredOperation.WITHDRAW_UPI;
+            case WITHDRAW_CARD:
+                return MeteredOperation.WITHDRAW_CARD;
+            case PAY_TAX:
+                return MeteredOperation.PAY_TAX;
+            case TRANSFER:
+                return MeteredOperation.TRANSFER;
+            default:
+                throw new IllegalStateException("Unknown operation type.");
+        }
+    }
+
+    // Applies the balance change, then journals and logs it. Any failure up to and including the
+    // balance change is returned as a failed result, including a journal that is already closed or
+    // failed. Once the change is applied the operation is committed, so an exception from
+    // journaling it is fatal and propagates rather than being reported as a failure of an
+    // operation that in fact went through; the journal then refuses every later change.
+    private TransactionResult apply(TransactionOperation operation, Account account) {
+        long amount = operation.getAmount();
+        long newBalance;
+        Account recipient = null;
+        try {
+            if (journal != null) {
+                journal.checkWritable();
+            }
+            switch (operation.getType()) {
+                case DEPOSIT:
+                    newBalance = account.applyDeposit(amount);
+                    break;
+                case WITHDRAW:
+                    newBalance = account.applyWithdrawal(amount);
+                    break;
+                case WITHDRAW_UPI:
+                    newBalance = account.applyWithdrawal(operation.getUpiId(), amount);
+                    break;
+                case WITHDRAW_CARD:
+                    newBalance = account.applyWithdrawal(operation.getCreditCard(), amount);
+                    break;
+                case PAY_TAX:
+                    if (!(account instanceof Taxable)) {
+                        return TransactionResult.failure(operation, account.getBalance(),
+                                TransactionResult.Failure.REJECTED, "This account is not taxable.");
+                    }
+                    amount = ((Taxable) account).applyTax();
+                    newBalance = account.getBalance();
+                    break;
+                case TRANSFER:
+                    if (!(account instanceof Transferable)) {
+                        return TransactionResult.failure(operation, account.getBalance(),
+                                TransactionResult.Failure.REJECTED, "This account does not support transfers.");
+                    }
+                    recipient = accountRegistry.findById(operation.getRecipientAccountId());
+                    if (recipient == null) {
+                        return TransactionResult.failure(operation, account.getBalance(),
+                                TransactionResult.Failure.NOT_FOUND, "Recipient account not found.");
+                    }
+                    // Throws on a bad amount, insufficient balance or a velocity limit
+                    newBalance = ((Transferable) account).applyTransfer(recipient, amount);
+                    break;
+                default:
+                    return TransactionResult.failure(operation, account.getBalance(),
+                            TransactionResult.Failure.REJECTED, "Unsupported operation.");
+            }
+        } catch (VelocityLimitException e) {
+            return TransactionResult.failure(operation, account.getBalance(), TransactionResult.Failure.LIMIT_EXCEEDED,
+                    e.getMessage());
+        } catch (IllegalArgumentException | IllegalStateException | ArithmeticException e) {
+            return TransactionResult.failure(operation, account.getBalance(), TransactionResult.Failure.REJECTED,
+                    e.getMessage());
+        } catch (SecurityException e) {
+            // Generic message: do not reveal which credential was wrong
+            return TransactionResult.failure(operation, account.getBalance(), TransactionResult.Failure.UNAUTHORIZED,
+                    "Authorization failed.");
+        } catch (RuntimeException e) {
+            return TransactionResult.retryableFailure(operation, account.getBalance(), "An unexpected error occurred.");
+        }
+        record(operation, account, recipient, amount, newBalance);
+        return TransactionResult.success(operation, amount, newBalance);
+    }
+
+    private void record(TransactionOperation operation, Account account, Account recipient, long amount,
+            long newBalance) {
+        switch (operation.getType()) {
+            case DEPOSIT:
+                if (journal != null) {
+                    journal.appendDeposit(account.getAccountId(), amount);
+                }
+                loggingService.logDeposit(account, amount, newBalance);
+                break;
+            case WITHDRAW:
+                logWithdrawal(account, amount, newBalance, "Simple");
+                break;
+            case WITHDRAW_UPI:
+                logWithdrawal(account, amount, newBalance, "UPI");
+                break;
+            case WITHDRAW_CARD:
+                logWithdrawal(account, amount, newBalance, "Credit Card");
+                break;
+            case PAY_TAX:
+                if (journal != null) {
+                    journal.appendTaxPayment(account.getAccountId(), amount);
+                }
+                loggingService.logTaxPayment(account, amount);
+                break;
+            case TRANSFER:
+                if (journal != null) {
+                    journal.appendTransfer(account.getAccountId(), recipient.getAccountId(), amount);
+                }
+                loggingService.logTransfer(account, recipient, amount);
+                break;
+            default:
+                throw new IllegalStateException("Unknown operation type.");
+        }
+    }
+
+    private void logWithdrawal(Account account, long amount, long newBalance, String method) {
+        if (journal != null) {
+            journal.appendWithdrawal(account.getAccountId(), amount);
+        }
+        loggingService.logWithdrawal(account, amount, newBalance, method);
+    }
+
+    public List<TransactionResult> processBatch(List<TransactionOperation> operations) {
+        return processBatch(operations, ForkJoinPool.commonPool());
+    }
+
+    // Runs a batch without any console prompts. A transfer links its sender and recipient, and
+    // each group of linked accounts runs in batch order on one partition, so every operation
+    // touching an account - its own and transfers in or out of it - keeps batch order and the
+    // results do not depend on scheduling. The groups are spread over the partitions largest
+    // first, each to the least loaded partition, and the partitions run in parallel on the
+    // executor. Results are returned in batch order, one per operation.
+    public List<TransactionResult> processBatch(List<TransactionOperation> operations, Executor executor) {
+        TransactionOperation[] batch = operations.toArray(new TransactionOperation[0]);
+        TransactionResult[] results = new TransactionResult[batch.length];
+        if (batch.length == 0) {
+            return Arrays.asList(results);
+        }
+
+        // Union-find over the batch's accounts, numbered in order of first appearance
+        Map<String, Integer> accountIndex = new HashMap<>();
+        int[] parent = new int[2 * batch.length];
+        int[] groupOf = new int[batch.length];
+        for (int i = 0; i < batch.length; i++) {
+            groupOf[i] = indexOf(accountIndex, parent, batch[i].getAccountId());
+            String recipient = batch[i].getRecipientAccountId();
+            if (recipient != null) {
+                int a = root(parent, groupOf[i]);
+                int b = root(parent, indexOf(accountIndex, parent, recipient));
+                parent[Math.max(a, b)] = Math.min(a, b);
+            }
+        }
+        int[] groupSize = new int[accountIndex.size()];
+        int groups = 0;
+        for (int i = 0; i < batch.length; i++) {
+            groupOf[i] = root(parent, groupOf[i]);
+            if (groupSize[groupOf[i]]++ == 0) {
+                groups++;
+            }
+        }
+
+        // Largest group first to the least loaded partition; size and group are packed into one
+        // long so the sort needs no boxing
+        long[] bySize = new long[groups];
+        for (int g = 0, k = 0; g < groupSize.length; g++) {
+            if (groupSize[g] > 0) {
+                bySize[k++] = (long) groupSize[g] << 32 | g;
+            }
+        }
+        Arrays.sort(bySize);
+        int partitions = Math.min(groups, PARTITIONS_PER_CORE * Runtime.getRuntime().availableProcessors());
+        int[] load = new int[partitions];
+        int[] partitionOfGroup = new int[groupSize.length];
+        for (int k = groups - 1; k >= 0; k--) {
+            int lightest = 0;
+            for (int p = 1; p < partitions; p++) {
+                if (load[p] < load[lightest]) {
+                    lightest = p;
+                }
+            }
+            load[lightest] += (int) (bySize[k] >>> 32);
+            partitionOfGroup[(int) bySize[k]] = lightest;
+        }
+        int[] partitionOf = new int[batch.length];
+        for (int i = 0; i < batch.length; i++) {
+            partitionOf[i] = partitionOfGroup[groupOf[i]];
+        }
+
+        // Counting sort of operation indexes by partition, so each partition is a contiguous
+        // ascending slice of `order` and no per-operation boxing or list growth is needed
+        int[] start = new int[partitions + 1];
+        for (int i = 0; i < batch.length; i++) {
+            start[partitionOf[i] + 1]++;
+        }
+        for (int p = 0; p < partitions; p++) {
+            start[p + 1] += start[p];
+        }
+        int[] order = new int[batch.length];
+        int[] next = Arrays.copyOf(start, partitions);
+        for (int i = 0; i < batch.length; i++) {
+            order[next[partitionOf[i]]++] = i;
+        }
+
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[partitions];
+        for (int p = 0; p < partitions; p++) {
+            int from = start[p];
+            int to = start[p + 1];
+            tasks[p] = CompletableFuture.runAsync(() -> {
+                for (int k = from; k < to; k++) {
+                    int index = order[k];
+                    results[index] = execute(batch[index]);
+                }
+            }, executor);
+        }
+        CompletableFuture.allOf(tasks).join();
+        return Arrays.asList(results);
+    }
+
+    // The account's number in the batch, numbering it (as its own group) on first sight
+    private static int indexOf(Map<String, Integer> accountIndex, int[] parent, String accountId) {
+        Integer known = accountIndex.get(accountId);
+        if (known != null) {
+            return known;
+        }
+        int assigned = accountIndex.size();
+        parent[assigned] = assigned;
+        accountIndex.put(accountId, assigned);
+        return assigned;
+    }
+
+    // Root of p's group, halving the path on the way
+    private static int root(int[] parent, int p) {
+        while (parent[p] != p) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+}
@@ -2,75 +2,231 @@ package com.bankingsystem.util;
 
 import javax.crypto.Cipher;
 import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class EncryptionUtils {
-    // Use environment variable for encryption key, fallback to system property
-    private static final String ENCRYPTION_KEY = getEncryptionKey();
-    private static final String SALT = getSalt();
+    // Ciphertext is "v<key version>:" + Base64(nonce || AES-GCM output). Ciphertext without a
+    // version prefix predates key rotation and was produced with key version 1.
+    private static final String VERSION_PREFIX = "v";
+    private static final char VERSION_SEPARATOR = ':';
+    private static final int LEGACY_KEY_VERSION = 1;
+    private static final int PBKDF2_ITERATIONS = 65536;
+    private static final int KEY_BITS = 256;
+    private static final int NONCE_BYTES = 12;
+    private static final int TAG_BITS = 128;
 
-    private static String getEncryptionKey() {
-        String key = System.getenv("BANK_ENCRYPTION_KEY");
-        if (key == null || key.trim().isEmpty()) {
-            key = System.getProperty("bank.encryption.key");
+    // PBKDF2 is deliberately slow, so each key version is derived once and cached
+    private static final ConcurrentHashMap<Integer, SecretKeySpec> DERIVED_KEYS = new ConcurrentHashMap<>();
+    // Cipher instances are not thread-safe but are expensive to look up; keep one per thread
+    private static final ThreadLocal<Cipher> CIPHERS = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance("AES/GCM/NoPadding");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES/GCM not available", e);
+        }
+    });
+
+    // Seeding a SecureRandom loads the security providers; holding it here defers that to the
+    // first encryption instead of whenever this class is first touched (e.g. masking a card)
+    private static final class Nonces {
+        static final SecureRandom RANDOM = new SecureRandom();
+    }
+
+    // Use environment variable for encryption key, fallback to system property.
+    // Each version reads BANK_ENCRYPTION_KEY_V<n> / BANK_ENCRYPTION_SALT_V<n> first; the current
+    // version and version 1 fall back to the unversioned BANK_ENCRYPTION_KEY / BANK_ENCRYPTION_SALT.
+    private static String getEncryptionKey(int version) {
+        String key = getSetting("BANK_ENCRYPTION_KEY_V" + version, "bank.encryption.key.v" + version);
+        if (key == null && (version == getCurrentKeyVersion() || version == LEGACY_KEY_VERSION)) {
+            key = getSetting("BANK_ENCRYPTION_KEY", "bank.encryption.key");
         }
-        if (key == null || key.trim().isEmpty()) {
+        if (key == null) {
             throw new RuntimeException("Encryption key not set. Please set BANK_ENCRYPTION_KEY environment variable or bank.encryption.key system property.");
         }
         return key;
     }
 
-    private static String getSalt() {
-        String salt = System.getenv("BANK_ENCRYPTION_SALT");
-        if (salt == null || salt.trim().isEmpty()) {
-            salt = System.getProperty("bank.encryption.salt");
+    private static String getSalt(int version) {
+        String salt = getSetting("BANK_ENCRYPTION_SALT_V" + version, "bank.encryption.salt.v" + version);
+        if (salt == null) {
+            salt = getSetting("BANK_ENCRYPTION_SALT", "bank.encryption.salt");
         }
-        if (salt == null || salt.trim().isEmpty()) {
+        if (salt == null) {
             throw new RuntimeException("Encryption salt not set. Please set BANK_ENCRYPTION_SALT environment variable or bank.encryption.salt system property.");
         }
         return salt;
     }
 
+    // Version new ciphertext is written with: BANK_ENCRYPTION_KEY_VERSION, default 1
+    public static int getCurrentKeyVersion() {
+        String version = getSetting("BANK_ENCRYPTION_KEY_VERSION", "bank.encryption.key.version");
+        if (version == null) {
+            return LEGACY_KEY_VERSION;
+        }
+        try {
+            int parsed = Integer.parseInt(version.trim());
+            return parsed > 0 ? parsed : LEGACY_KEY_VERSION;
+        } catch (NumberFormatException e) {
+            return LEGACY_KEY_VERSION;
+        }
+    }
+
+    private static String getSetting(String envName, String propertyName) {
+        String value = System.getenv(envName);
+        if (value == null || value.trim().isEmpty()) {
+            value = System.getProperty(propertyName);
+        }
+        return (value == null || value.trim().isEmpty()) ? null : value;
+    }
+
+    private static SecretKeySpec getKey(int version) {
+        return DERIVED_KEYS.computeIfAbsent(version, v -> {
+            try {
+                javax.crypto.SecretKeyFactory factory = javax.crypto.SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+                javax.crypto.spec.PBEKeySpec spec = new javax.crypto.spec.PBEKeySpec(
+                        getEncryptionKey(v).toCharArray(),
+                        getSalt(v).getBytes(StandardCharsets.UTF_8),
+                        PBKDF2_ITERATIONS,
+                        KEY_BITS);
+                try {
+                    return new SecretKeySpec(factory.generateSecret(spec).getEncoded(), "AES");
+                } finally {
+                    spec.clearPassword();
+                }
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Key derivation failed");
+            }
+        });
+    }
+
     public static String encryptCreditCard(int creditCardNumber) {
         if (creditCardNumber == -1) {
             return "Not set";
         }
 
         try {
-            javax.crypto.SecretKeyFactory factory = javax.crypto.SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
-            javax.crypto.spec.PBEKeySpec spec = new javax.crypto.spec.PBEKeySpec(
-                    ENCRYPTION_KEY.toCharArray(),
-                    SALT.getBytes(StandardCharsets.UTF_8),
-                    65536,
-                    256);
-            javax.crypto.SecretKey tmp = factory.generateSecret(spec);
-            SecretKeySpec secretKey = new SecretKeySpec(tmp.getEncoded(), "AES");
+            int version = getCurrentKeyVersion();
+            return encrypt(creditCardNumber, version, getKey(version), CIPHERS.get());
+        } catch (Exception e) {
+            // Generic error message to prevent information disclosure
+            System.err.println("Encryption operation failed");
+            // Do not leak exception details
+            return maskCreditCard(creditCardNumber);
+        }
+    }
+
+    // Bulk form of encryptCreditCard for onboarding many accounts at once: the key version is
+    // resolved and the cipher fetched once for the whole batch. Result i encrypts card i.
+    public static String[] encryptCreditCards(int[] creditCardNumbers) {
+        String[] encrypted = new String[creditCardNumbers.length];
+        int version = getCurrentKeyVersion();
+        SecretKeySpec secretKey;
+        Cipher cipher;
+        try {
+            secretKey = getKey(version);
+            cipher = CIPHERS.get();
+        } catch (Exception e) {
+            System.err.println("Encryption operation failed");
+            for (int i = 0; i < creditCardNumbers.length; i++) {
+                encrypted[i] = maskCreditCard(creditCardNumbers[i]);
+            }
+            return encrypted;
+        }
+        for (int i = 0; i < creditCardNumbers.length; i++) {
+            int card = creditCardNumbers[i];
+            if (card == -1) {
+                encrypted[i] = "Not set";
+                continue;
+            }
+            try {
+                encrypted[i] = encrypt(card, version, secretKey, cipher);
+            } catch (Exception e) {
+                System.err.println("Encryption operation failed");
+                encrypted[i] = maskCreditCard(card);
+            }
+        }
+        return encrypted;
+    }
 
-            SecureRandom random = new SecureRandom();
-            byte[] nonce = new byte[12];
-            random.nextBytes(nonce);
-            javax.crypto.spec.GCMParameterSpec gcmSpec = new javax.crypto.spec.GCMParameterSpec(128, nonce);
+    private static String encrypt(int creditCardNumber, int version, SecretKeySpec secretKey, Cipher cipher)
+            throws GeneralSecurityException {
+        byte[] nonce = new byte[NONCE_BYTES];
+        Nonces.RANDOM.nextBytes(nonce);
+        cipher.init(Cipher.ENCRYPT_MODE, secretKey, new javax.crypto.spec.GCMParameterSpec(TAG_BITS, nonce));
 
-            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey, gcmSpec);
+        byte[] cardBytes = String.valueOf(creditCardNumber).getBytes(StandardCharsets.UTF_8);
+        byte[] combined = new byte[NONCE_BYTES + cipher.getOutputSize(cardBytes.length)];
+        System.arraycopy(nonce, 0, combined, 0, NONCE_BYTES);
+        cipher.doFinal(cardBytes, 0, cardBytes.length, combined, NONCE_BYTES);
 
-            String cardNumberStr = String.valueOf(creditCardNumber);
-            byte[] encryptedBytes = cipher.doFinal(cardNumberStr.getBytes(StandardCharsets.UTF_8));
+        return VERSION_PREFIX + version + VERSION_SEPARATOR + Base64.getEncoder().encodeToString(combined);
+    }
 
-            byte[] combined = new byte[nonce.length + encryptedBytes.length];
-            System.arraycopy(nonce, 0, combined, 0, nonce.length);
-            System.arraycopy(encryptedBytes, 0, combined, nonce.length, encryptedBytes.length);
+    // True for "Not set" and for versioned ciphertext from encryptCreditCard; false for the
+    // masked fallback it returns when encryption fails, which can never be decrypted
+    public static boolean isEncryptedCard(String encryptedCard) {
+        if ("Not set".equals(encryptedCard)) {
+            return true;
+        }
+        if (encryptedCard == null || !encryptedCard.startsWith(VERSION_PREFIX)) {
+            return false;
+        }
+        int separator = encryptedCard.indexOf(VERSION_SEPARATOR);
+        if (separator <= VERSION_PREFIX.length()) {
+            return false;
+        }
+        for (int i = VERSION_PREFIX.length(); i < separator; i++) {
+            if (!Character.isDigit(encryptedCard.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-            return Base64.getEncoder().encodeToString(combined);
+    // Reverses encryptCreditCard with whichever key version the ciphertext names;
+    // returns -1 for "Not set" or anything that does not decrypt
+    public static int decryptCreditCard(String encryptedCard) {
+        if (encryptedCard == null || encryptedCard.equals("Not set")) {
+            return -1;
+        }
+
+        try {
+            int version = LEGACY_KEY_VERSION;
+            String payload = encryptedCard;
+            int separator = encryptedCard.indexOf(VERSION_SEPARATOR);
+            if (encryptedCard.startsWith(VERSION_PREFIX) && separator > VERSION_PREFIX.length()) {
+                version = Integer.parseInt(encryptedCard.substring(VERSION_PREFIX.length(), separator));
+                payload = encryptedCard.substring(separator + 1);
+            }
+
+            byte[] combined = Base64.getDecoder().decode(payload);
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.DECRYPT_MODE, getKey(version),
+                    new javax.crypto.spec.GCMParameterSpec(TAG_BITS, combined, 0, NONCE_BYTES));
+            byte[] decryptedBytes = cipher.doFinal(combined, NONCE_BYTES, combined.length - NONCE_BYTES);
+
+            return Integer.parseInt(new String(decryptedBytes, StandardCharsets.UTF_8));
 
         } catch (Exception e) {
             // Generic error message to prevent information disclosure
-            System.err.println("Encryption operation failed");
-            // Do not leak exception details
-            return maskCreditCard(creditCardNumber);
+            System.err.println("Decryption operation failed");
+            return -1;
+        }
+    }
+
+    // Key rotation: re-encrypts ciphertext from any configured key version under the current one.
+    // Returns the input unchanged if it is already current or cannot be decrypted.
+    public static String reencryptCreditCard(String encryptedCard) {
+        if (encryptedCard == null || encryptedCard.equals("Not set")
+                || encryptedCard.startsWith(VERSION_PREFIX + getCurrentKeyVersion() + VERSION_SEPARATOR)) {
+            return encryptedCard;
         }
+        int creditCardNumber = decryptCreditCard(encryptedCard);
+        return creditCardNumber == -1 ? encryptedCard : encryptCreditCard(creditCardNumber);
     }
 
     public static String maskCreditCard(int creditCardNumber) {
@@ -79,4 +235,4 @@ public class EncryptionUtils {
         }
         return "[MASKED]";
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,12 @@
 package com.bankingsystem.util;
 
+import com.bankingsystem.model.Money;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 
 public class ValidationUtils {
     private static final Pattern ACCOUNT_NUMBER_PATTERN = Pattern.compile("^[A-Za-z0-9]{3,20}$");
+    private static final Pattern ACCOUNT_ID_PATTERN = Pattern.compile("^(MAIN|SAV|CUR)[A-Za-z0-9]{3,20}$");
     private static final Pattern NAME_PATTERN = Pattern.compile("^[A-Za-z\\s]{2,50}$");
     private static final Pattern UPI_PATTERN = Pattern.compile("^[A-Za-z0-9._-]+@[A-Za-z0-9._-]+$");
     private static final Pattern YES_NO_PATTERN = Pattern.compile("^(y|yes|n|no)$");
@@ -27,6 +29,17 @@ public class ValidationUtils {
         }
     }
 
+    // Rupee amount with up to two decimals, returned in paise; -1 if invalid or out of range
+    public static long validateAmountInput(String input, long minPaise, long maxPaise) {
+        try {
+            long value = Money.parse(input);
+            return (value >= minPaise && value <= maxPaise) ? value : -1;
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid amount input.");
+            return -1;
+        }
+    }
+
     public static int readSecureCreditCard(Scanner scanner) {
         String input = scanner.nextLine();
         try {
@@ -43,6 +56,10 @@ public class ValidationUtils {
         return ACCOUNT_NUMBER_PATTERN;
     }
 
+    public static Pattern getAccountIdPattern() {
+        return ACCOUNT_ID_PATTERN;
+    }
+
     public static Pattern getNamePattern() {
         return NAME_PATTERN;
     }